@@ -18,11 +18,18 @@
     }
 }
 
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
 dependencies {
     testImplementation(platform("org.junit:junit-bom:5.10.2"))
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 
     testImplementation("org.junit.jupiter:junit-jupiter")
+    // The load harness runs the plugin against fakes of the Bukkit interfaces
+    testImplementation("org.spigotmc:spigot-api:1.20.4-R0.1-SNAPSHOT")
 
     compileOnly("org.jetbrains:annotations:24.1.0")
 
@@ -33,6 +40,11 @@
         exclude("org.checkerframework", "checker-qual")
         exclude("com.google.guava", "guava")
     }
+
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+    "jmhCompileOnly"("org.checkerframework:checker-qual:3.42.0")
+    "jmhImplementation"("org.spigotmc:spigot-api:1.20.4-R0.1-SNAPSHOT")
 }
 
 val targetJavaVersion = 17
@@ -66,4 +78,40 @@
     named<Test>("test") {
         useJUnitPlatform()
     }
+
+    register<JavaExec>("loadTest") {
+        group = "verification"
+        description = "Runs the sync engines against simulated worlds and players and writes the report to " +
+                "build/reports/load/report.txt."
+
+        val reportFile = layout.buildDirectory.file("reports/load/report.txt")
+        outputs.file(reportFile)
+        outputs.upToDateWhen { false }
+
+        classpath = sourceSets.test.get().runtimeClasspath
+        mainClass.set("io.github.antonmenov.realenvsync.load.LoadHarness")
+        // Size the run with -Pload.worlds, -Pload.players, -Pload.ticks and fail it with -Pload.max-micros-per-tick
+        for (option in listOf("worlds", "players", "ticks", "warmup-ticks", "max-micros-per-tick")) {
+            providers.gradleProperty("load.$option").orNull?.let { args("--$option", it) }
+        }
+        args("--report", reportFile.get().asFile.absolutePath)
+    }
+
+    register<JavaExec>("jmh") {
+        group = "verification"
+        description = "Runs the JMH benchmarks and writes the results to build/reports/jmh/results.json."
+
+        val resultFile = layout.buildDirectory.file("reports/jmh/results.json")
+        outputs.file(resultFile)
+        outputs.upToDateWhen { false }
+
+        classpath = jmh.runtimeClasspath
+        mainClass.set("org.openjdk.jmh.Main")
+        // Restrict the run with -Pjmh.includes=<regex>, e.g. -Pjmh.includes=TimeConvert
+        args(providers.gradleProperty("jmh.includes").getOrElse(".*"))
+        args("-rf", "json", "-rff", resultFile.get().asFile.absolutePath, "-prof", "gc")
+        doFirst {
+            resultFile.get().asFile.parentFile.mkdirs()
+        }
+    }
 }
@@ -0,0 +1,86 @@
+package io.github.antonmenov.realenvsync;
+
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+/**
+ * Minimal Bukkit stand-ins for benchmarks. Only the methods the benchmarked code calls return meaningful values,
+ * everything else returns the default value of its return type.
+ */
+public class BukkitProxies {
+
+    private BukkitProxies() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static @NonNull World world(final @NonNull String name) {
+        final long[] fullTime = {0};
+        return proxy(World.class, (method, args) -> switch (method.getName()) {
+            case "getName" -> name;
+            case "getFullTime" -> fullTime[0];
+            case "getTime" -> fullTime[0] % 24_000;
+            case "setFullTime", "setTime" -> {
+                fullTime[0] = (long) args[0];
+                yield null;
+            }
+            default -> defaultValue(method);
+        });
+    }
+
+    public static @NonNull Server server(final @NonNull Map<String, World> worlds) {
+        return proxy(Server.class, (method, args) -> switch (method.getName()) {
+            case "getWorld" -> args[0] instanceof String name ? worlds.get(name) : null;
+            case "getWorlds" -> java.util.List.copyOf(worlds.values());
+            default -> defaultValue(method);
+        });
+    }
+
+    public static @NonNull CommandSender console() {
+        return proxy(CommandSender.class, (method, args) -> switch (method.getName()) {
+            case "getName" -> "CONSOLE";
+            default -> defaultValue(method);
+        });
+    }
+
+    private static <T> @NonNull T proxy(final @NonNull Class<T> type, final @NonNull Handler handler) {
+        final Object instance = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> type.getSimpleName() + "Proxy";
+                    default -> handler.handle(method, args);
+                });
+        return type.cast(instance);
+    }
+
+    private static @Nullable Object defaultValue(final @NonNull Method method) {
+        final Class<?> type = method.getReturnType();
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == char.class) {
+            return '\0';
+        }
+        return switch (type.getName()) {
+            case "byte" -> (byte) 0;
+            case "short" -> (short) 0;
+            case "int" -> 0;
+            case "long" -> 0L;
+            case "float" -> 0f;
+            default -> 0d;
+        };
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        @Nullable Object handle(@NonNull Method method, @Nullable Object @Nullable [] args);
+    }
+}
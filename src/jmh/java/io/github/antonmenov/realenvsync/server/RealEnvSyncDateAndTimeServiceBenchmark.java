@@ -0,0 +1,62 @@
+package io.github.antonmenov.realenvsync.server;
+
+import io.github.antonmenov.realenvsync.BukkitProxies;
+import io.github.antonmenov.realenvsync.utils.MoonPhases;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.antonmenov.realenvsync.server.RealEnvSyncDateAndTimeService.Action;
+import static io.github.antonmenov.realenvsync.server.RealEnvSyncDateAndTimeService.Result;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RealEnvSyncDateAndTimeServiceBenchmark {
+
+    private RealEnvSyncDateAndTimeService service;
+    private LocalTime time;
+    private LocalDateTime dateTime;
+
+    @Setup
+    public void setUp() {
+        final World world = BukkitProxies.world("world");
+        final RealEnvSyncWorldRegistry worldRegistry = new RealEnvSyncWorldRegistry(
+                BukkitProxies.server(Map.of("world", world)));
+        worldRegistry.refresh();
+        service = new RealEnvSyncDateAndTimeService(worldRegistry, MoonPhases.MEAN);
+        time = LocalTime.of(13, 37, 42);
+        dateTime = LocalDateTime.of(2024, 2, 20, 21, 53, 36);
+    }
+
+    @Benchmark
+    public Result handleTime() {
+        return service.handleTwoArgument("world", Action.TIME, time);
+    }
+
+    @Benchmark
+    public Result handleDateTime() {
+        return service.handleTwoArgument("world", Action.DATETIME, dateTime);
+    }
+
+    @Benchmark
+    public Result handleUnknownWorld() {
+        return service.handleTwoArgument("missing", Action.TIME, time);
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.antonmenov.realenvsync.user;
+
+import io.github.antonmenov.realenvsync.BukkitProxies;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncDateAndTimeService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncWorldRegistry;
+import io.github.antonmenov.realenvsync.utils.MoonPhases;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RealEnvSyncCommandBenchmark {
+
+    private static final String @NonNull [] TIME_ARGS = {"time", "13:37:42", "world"};
+    private static final String @NonNull [] DATETIME_ARGS = {"datetime", "2024-02-20T21:53:36", "world"};
+    private static final String @NonNull [] INVALID_TIME_ARGS = {"time", "25:99", "world"};
+
+    private RealEnvSyncCommand executor;
+    private CommandSender sender;
+    private Command command;
+
+    @Setup
+    public void setUp() {
+        final RealEnvSyncWorldRegistry worldRegistry = new RealEnvSyncWorldRegistry(
+                BukkitProxies.server(Map.of("world", BukkitProxies.world("world"))));
+        worldRegistry.refresh();
+        executor = new RealEnvSyncCommand(new RealEnvSyncDateAndTimeService(worldRegistry, MoonPhases.MEAN), null,
+                null, null, null, null, null, null, null);
+        sender = BukkitProxies.console();
+        command = new Command("realenvsync") {
+            @Override
+            public boolean execute(final @NonNull CommandSender sender, final @NonNull String commandLabel,
+                                   final String @NonNull [] args) {
+                return executor.onCommand(sender, this, commandLabel, args);
+            }
+        };
+    }
+
+    @Benchmark
+    public boolean parseTime() {
+        return executor.onCommand(sender, command, "realenvsync", TIME_ARGS);
+    }
+
+    @Benchmark
+    public boolean parseDateTime() {
+        return executor.onCommand(sender, command, "realenvsync", DATETIME_ARGS);
+    }
+
+    @Benchmark
+    public boolean parseInvalidTime() {
+        return executor.onCommand(sender, command, "realenvsync", INVALID_TIME_ARGS);
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.github.antonmenov.realenvsync.plugin.Constants.MID_FULL_MOON_EPOCH_SECOND;
+
+/**
+ * Bulk conversion against the scalar conversion called in a loop, over a timeline of one instant per minute.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulkTimeConvertBenchmark {
+
+    private static final int OFFSET_SECONDS = 7_200;
+    private static final long STEP_SECONDS = 60;
+
+    @Param({"1440", "100000", "1000000"})
+    public int count;
+
+    private long[] epochSeconds;
+    private int[] ticks;
+
+    @Setup
+    public void setUp() {
+        epochSeconds = new long[count];
+        for (int i = 0; i < count; i++) {
+            epochSeconds[i] = MID_FULL_MOON_EPOCH_SECOND + i * STEP_SECONDS;
+        }
+        ticks = new int[count];
+    }
+
+    @Benchmark
+    public int[] scalarLoop() {
+        for (int i = 0; i < count; i++) {
+            ticks[i] = TimeConvert.convertToTicks(epochSeconds[i], OFFSET_SECONDS);
+        }
+        return ticks;
+    }
+
+    @Benchmark
+    public int[] bulkArray() {
+        BulkTimeConvert.convertToTicks(epochSeconds, OFFSET_SECONDS, ticks);
+        return ticks;
+    }
+
+    @Benchmark
+    public int[] bulkRange() {
+        BulkTimeConvert.convertToTicks(MID_FULL_MOON_EPOCH_SECOND, STEP_SECONDS, count, OFFSET_SECONDS,
+                MoonPhases.MEAN, DayTicks.LINEAR, ticks);
+        return ticks;
+    }
+
+    @Benchmark
+    public int[] bulkArrayParallel() {
+        BulkTimeConvert.convertToTicksParallel(epochSeconds, OFFSET_SECONDS, MoonPhases.MEAN, DayTicks.LINEAR, ticks);
+        return ticks;
+    }
+
+    @Benchmark
+    public int[] bulkRangeParallel() {
+        BulkTimeConvert.convertToTicksParallel(MID_FULL_MOON_EPOCH_SECOND, STEP_SECONDS, count, OFFSET_SECONDS,
+                MoonPhases.MEAN, DayTicks.LINEAR, ticks);
+        return ticks;
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.antonmenov.realenvsync.plugin.Constants.MID_FULL_MOON_OFFSETDATETIME;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeConvertBenchmark {
+
+    private static final int NANO_OF_SECOND = 123_456_789;
+
+    /**
+     * Distance from the reference full moon; negative values are before it.
+     */
+    @Param({"0", "3650", "-36500"})
+    public int daysFromFullMoon;
+
+    @Param({"0", "19800", "-36000"})
+    public int offsetSeconds;
+
+    private OffsetDateTime dateTime;
+    private OffsetTime time;
+    private long epochSecond;
+    private MoonPhases lunarEphemeris;
+    private SolarDayTicks solarDayTicks;
+    private long epochDay;
+
+    @Setup
+    public void setUp() {
+        dateTime = MID_FULL_MOON_OFFSETDATETIME.plusDays(daysFromFullMoon).withNano(NANO_OF_SECOND)
+                .withOffsetSameInstant(ZoneOffset.ofTotalSeconds(offsetSeconds));
+        time = dateTime.toOffsetTime();
+        epochSecond = dateTime.toEpochSecond();
+        lunarEphemeris = LunarEphemeris.forYears(1900, 2100);
+        solarDayTicks = new SolarDayTicks(new GeoLocation(42.6977, 23.3219));
+        epochDay = Math.floorDiv(epochSecond, 86_400);
+    }
+
+    @Benchmark
+    public int convertOffsetDateTime() {
+        return TimeConvert.convertToTicks(dateTime);
+    }
+
+    @Benchmark
+    public int convertOffsetTime() {
+        return TimeConvert.convertToTicks(time);
+    }
+
+    @Benchmark
+    public int convertEpochSecond() {
+        return TimeConvert.convertToTicks(epochSecond, offsetSeconds);
+    }
+
+    @Benchmark
+    public int convertEpochNano() {
+        return TimeConvert.convertToTicks(epochSecond, NANO_OF_SECOND, offsetSeconds, MoonPhases.MEAN, DayTicks.LINEAR);
+    }
+
+    @Benchmark
+    public int convertEpochSecondLunarEphemeris() {
+        return TimeConvert.convertToTicks(epochSecond, offsetSeconds, lunarEphemeris);
+    }
+
+    @Benchmark
+    public int convertEpochSecondSolar() {
+        return TimeConvert.convertToTicks(epochSecond, offsetSeconds, MoonPhases.MEAN, solarDayTicks);
+    }
+
+    /**
+     * Cost paid once per solar day when the cached curve no longer covers the instant.
+     */
+    @Benchmark
+    public SolarDayTicks.Curve computeSolarCurve() {
+        return solarDayTicks.computeCurve(epochDay);
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link TimeParser} with the {@link LocalTime#parse} and {@link LocalDateTime#parse} path the command
+ * used before, on valid and invalid input.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeParserBenchmark {
+
+    @Param({"valid", "invalid"})
+    public String input;
+
+    private String time;
+    private String dateTime;
+
+    @Setup
+    public void setUp() {
+        final boolean valid = input.equals("valid");
+        time = valid ? "13:37:42" : "25:99";
+        dateTime = valid ? "2024-02-20T21:53:36" : "2024-02-30T21:53:36";
+    }
+
+    @Benchmark
+    public long parseTimeJdk() {
+        try {
+            return LocalTime.parse(time).toNanoOfDay();
+        } catch (final DateTimeParseException e) {
+            return TimeParser.INVALID;
+        }
+    }
+
+    @Benchmark
+    public long parseTime() {
+        return TimeParser.parseTime(time);
+    }
+
+    @Benchmark
+    public long parseDateTimeJdk() {
+        try {
+            return LocalDateTime.parse(dateTime).getSecond();
+        } catch (final DateTimeParseException e) {
+            return TimeParser.INVALID;
+        }
+    }
+
+    @Benchmark
+    public long parseDateTime() {
+        return TimeParser.parseDateTime(dateTime);
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares resolving a zone's offset through cached transitions with building a {@link java.time.ZonedDateTime}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZoneOffsetsBenchmark {
+
+    @Param({"Europe/Sofia", "America/New_York", "UTC"})
+    public String zoneId;
+
+    private ZoneId zone;
+    private ZoneOffsets zoneOffsets;
+    private long epochSecond;
+
+    @Setup
+    public void setUp() {
+        zone = ZoneId.of(zoneId);
+        zoneOffsets = ZoneOffsets.of(zone);
+        epochSecond = Instant.now().getEpochSecond();
+    }
+
+    @Benchmark
+    public int convertZonedDateTime() {
+        return TimeConvert.convertToTicks(Instant.ofEpochSecond(epochSecond).atZone(zone));
+    }
+
+    @Benchmark
+    public int convertZoneOffsets() {
+        return TimeConvert.convertToTicks(epochSecond, zoneOffsets);
+    }
+}
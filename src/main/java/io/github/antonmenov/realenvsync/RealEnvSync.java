@@ -1,17 +1,68 @@
 package io.github.antonmenov.realenvsync;
 
+import io.github.antonmenov.realenvsync.api.RealEnvSyncQueryService;
+import io.github.antonmenov.realenvsync.cluster.UdpTransport;
+import io.github.antonmenov.realenvsync.metrics.Metrics;
+import io.github.antonmenov.realenvsync.metrics.PrometheusEndpoint;
+import io.github.antonmenov.realenvsync.plugin.RealEnvSyncConfig;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncAutoSyncEngine;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncClusterService;
 import io.github.antonmenov.realenvsync.server.RealEnvSyncDateAndTimeService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncPipeline;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncPlayerTimeService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncReplayService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncScheduler;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncTickScheduleService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncWeatherService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncWeatherSyncEngine;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncWorldRegistry;
+import io.github.antonmenov.realenvsync.state.StateStore;
 import io.github.antonmenov.realenvsync.user.RealEnvSyncCommand;
-import org.bukkit.command.CommandExecutor;
+import io.github.antonmenov.realenvsync.utils.ThreadPools;
+import io.github.antonmenov.realenvsync.utils.ZoneLocator;
 import org.bukkit.command.PluginCommand;
+import org.bukkit.command.TabExecutor;
+import org.bukkit.configuration.Configuration;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.io.File;
+import java.io.IOException;
+import java.time.Clock;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 
 public final class RealEnvSync extends JavaPlugin {
 
+    private final AtomicReference<RealEnvSyncConfig> config = new AtomicReference<>();
+    private final Metrics metrics = new Metrics();
+    private @Nullable RealEnvSyncScheduler scheduler;
+    private @Nullable StateStore stateStore;
+    private @Nullable RealEnvSyncWorldRegistry worldRegistry;
+    private @Nullable RealEnvSyncTickScheduleService tickScheduleService;
+    // Read by the query service from any thread
+    private volatile @Nullable RealEnvSyncAutoSyncEngine autoSyncEngine;
+    private @Nullable RealEnvSyncPlayerTimeService playerTimeService;
+    private @Nullable RealEnvSyncWeatherSyncEngine weatherSyncEngine;
+    private @Nullable RealEnvSyncReplayService replayService;
+    private @Nullable RealEnvSyncClusterService clusterService;
+    private @Nullable CompletableFuture<ZoneLocator> zoneLocator;
+    private @Nullable RealEnvSyncPipeline pipeline;
+    private @Nullable PrometheusEndpoint prometheusEndpoint;
+    private PrometheusEndpoint.@Nullable Settings prometheusSettings;
+    // The last config.yml that was reloaded and valid
+    private @Nullable FileConfiguration reloadedConfig;
+
     @Override
     public void onEnable() {
         try {
@@ -23,16 +74,256 @@ public void onEnable() {
     }
 
     private void initialize() {
-        registerCommand("realenvsync", new RealEnvSyncCommand(new RealEnvSyncDateAndTimeService(getServer())));
+        saveDefaultConfig();
+
+        final RealEnvSyncScheduler scheduler = RealEnvSyncScheduler.create(this);
+        getLogger().info(() -> "Using the " + scheduler.name() + " scheduler.");
+        this.scheduler = scheduler;
+
+        try {
+            stateStore = StateStore.open(getDataFolder().toPath().resolve("state.bin"));
+        } catch (final IOException e) {
+            // Syncing works the same without it, only restarts are cold
+            getLogger().log(Level.WARNING, e, () -> "Error opening the state file, state is not kept.");
+        }
+
+        final RealEnvSyncWorldRegistry worldRegistry = new RealEnvSyncWorldRegistry(getServer());
+        getServer().getPluginManager().registerEvents(worldRegistry, this);
+        worldRegistry.refresh();
+        this.worldRegistry = worldRegistry;
+
+        // Indexing the zone locations takes a while, so it happens off the main thread and is only awaited on use
+        zoneLocator = ZoneLocator.loadAsync(() -> getResource("zones.tab"), ForkJoinPool.commonPool());
+        zoneLocator.whenComplete((locator, e) -> {
+            if (e != null) {
+                getLogger().log(Level.WARNING, e, () -> "Error loading time zone locations.");
+            }
+        });
+
+        pipeline = new RealEnvSyncPipeline(getLogger(), ThreadPools.newComputeExecutor("RealEnvSync Compute"),
+                scheduler::runGlobal, metrics);
+
+        final RealEnvSyncConfig compiled = RealEnvSyncConfig.from(getConfig());
+        config.set(compiled);
+        apply(worldRegistry, compiled);
+
+        getServer().getServicesManager().register(RealEnvSyncQueryService.class,
+                new RealEnvSyncQueryService(this::config, () -> autoSyncEngine), this, ServicePriority.Normal);
+    }
+
+    /**
+     * The configuration in effect, safe to read from any thread.
+     */
+    public @NonNull RealEnvSyncConfig config() {
+        return Objects.requireNonNull(config.get());
+    }
+
+    @Override
+    public @NonNull FileConfiguration getConfig() {
+        final @Nullable FileConfiguration reloaded = reloadedConfig;
+        return reloaded == null ? super.getConfig() : reloaded;
+    }
+
+    /**
+     * Reads {@code config.yml} again and swaps in the new configuration without stopping auto sync.
+     * If the file is invalid, the previous configuration stays in effect, {@link #getConfig()} included.
+     *
+     * @throws IllegalArgumentException If the file cannot be read or parsed, or any value is invalid.
+     * @throws java.time.DateTimeException If a time zone is unknown.
+     */
+    public void reload() {
+        final YamlConfiguration file = new YamlConfiguration();
+        try {
+            file.load(new File(getDataFolder(), "config.yml"));
+        } catch (final IOException | InvalidConfigurationException e) {
+            throw new IllegalArgumentException("Cannot read config.yml: " + e.getMessage(), e);
+        }
+        final @Nullable Configuration defaults = getConfig().getDefaults();
+        if (defaults != null) {
+            file.setDefaults(defaults);
+        }
+        final RealEnvSyncConfig compiled = RealEnvSyncConfig.from(file);
+        reloadedConfig = file;
+        config.set(compiled);
+        apply(Objects.requireNonNull(worldRegistry), compiled);
+        getLogger().info("Configuration reloaded.");
+    }
+
+    private void apply(final @NonNull RealEnvSyncWorldRegistry worldRegistry, final @NonNull RealEnvSyncConfig config) {
+        final RealEnvSyncScheduler scheduler = Objects.requireNonNull(this.scheduler);
+        if (!config.schedule().enabled()) {
+            if (tickScheduleService != null) {
+                tickScheduleService.close();
+                tickScheduleService = null;
+            }
+        } else if (tickScheduleService == null) {
+            tickScheduleService = new RealEnvSyncTickScheduleService(getLogger(), config.schedule(), Clock.systemUTC(),
+                    config.moonPhases(), config.dayTicks(), stateStore);
+            tickScheduleService.start();
+        } else {
+            // Auto sync is the only user of schedules, so the one of a zone it left is not built again
+            tickScheduleService.retain(Set.of(config.autoSync().zone()));
+            tickScheduleService.reconfigure(config.schedule(), config.moonPhases(), config.dayTicks());
+        }
+
+        final RealEnvSyncDateAndTimeService service =
+                new RealEnvSyncDateAndTimeService(worldRegistry, config.moonPhases(), metrics);
+        if (replayService == null) {
+            replayService = new RealEnvSyncReplayService(getLogger(), scheduler, service, ForkJoinPool.commonPool());
+        } else {
+            replayService.reconfigure(service);
+        }
+        final RealEnvSyncAutoSyncEngine.Settings settings = config.autoSync();
+        final RealEnvSyncTickScheduleService.@Nullable Schedule schedule =
+                tickScheduleService == null ? null : tickScheduleService.schedule(settings.zone());
+        if (!settings.enabled()) {
+            if (autoSyncEngine != null) {
+                autoSyncEngine.stop();
+                autoSyncEngine = null;
+            }
+        } else if (autoSyncEngine == null) {
+            autoSyncEngine = new RealEnvSyncAutoSyncEngine(scheduler, worldRegistry, service, metrics, settings,
+                    Clock.systemUTC(), config.moonPhases(), config.dayTicks(), schedule, stateStore);
+            // Replays outlive the engine, which is replaced when auto sync is turned off and on again
+            autoSyncEngine.pauseWhile(replayService::replaying);
+            autoSyncEngine.start();
+        } else {
+            autoSyncEngine.reconfigure(settings, config.moonPhases(), config.dayTicks(), schedule);
+        }
+
+        if (!config.playerTime().enabled()) {
+            if (playerTimeService != null) {
+                HandlerList.unregisterAll(playerTimeService);
+                playerTimeService.stop();
+                playerTimeService = null;
+            }
+        } else if (playerTimeService == null) {
+            playerTimeService = new RealEnvSyncPlayerTimeService(this, scheduler, metrics, config.playerTime(),
+                    Clock.systemUTC(), config.moonPhases());
+            getServer().getPluginManager().registerEvents(playerTimeService, this);
+            playerTimeService.start();
+        } else {
+            playerTimeService.reconfigure(config.playerTime(), config.moonPhases());
+        }
+
+        // Weather sync owns a cache and worker threads, so it is replaced instead of reconfigured
+        final RealEnvSyncWeatherSyncEngine.Settings weatherSettings = config.weather();
+        if (weatherSyncEngine != null && !weatherSyncEngine.settings().equals(weatherSettings)) {
+            weatherSyncEngine.stop();
+            weatherSyncEngine = null;
+        }
+        if (weatherSettings.enabled() && weatherSyncEngine == null) {
+            weatherSyncEngine = new RealEnvSyncWeatherSyncEngine(this, scheduler, worldRegistry,
+                    new RealEnvSyncWeatherService(), weatherSettings,
+                    weatherSettings.createCache(Clock.systemUTC(), metrics, stateStore),
+                    Objects.requireNonNull(pipeline), metrics);
+            weatherSyncEngine.start();
+        }
+
+        applyCluster(config.cluster());
+        applyPrometheus(config.prometheus());
+
+        registerCommand("realenvsync", new RealEnvSyncCommand(service, scheduler, autoSyncEngine,
+                playerTimeService, this::reload, zoneLocator, pipeline, metrics, replayService));
+    }
+
+    private void applyCluster(final RealEnvSyncClusterService.@NonNull Settings settings) {
+        // The cluster service owns a socket, so it is replaced instead of reconfigured
+        if (clusterService != null && !clusterService.settings().equals(settings)) {
+            clusterService.stop();
+            clusterService = null;
+        }
+        if (settings.enabled() && clusterService == null) {
+            try {
+                final UdpTransport transport = UdpTransport.open(getLogger(), settings.bindAddress(),
+                        settings.peerAddresses());
+                clusterService = new RealEnvSyncClusterService(getLogger(), Objects.requireNonNull(scheduler),
+                        settings, transport, Clock.systemUTC(), metrics, () -> autoSyncEngine,
+                        () -> weatherSyncEngine);
+                clusterService.start();
+            } catch (final IOException e) {
+                getLogger().log(Level.WARNING, e, () -> "Error opening the cluster channel on " + settings.bind() + ":"
+                        + settings.port() + ", time and weather are synced locally.");
+            }
+        }
+
+        final RealEnvSyncClusterService cluster = clusterService;
+        if (autoSyncEngine != null) {
+            autoSyncEngine.follow(cluster == null ? null : cluster::followed);
+        }
+        if (weatherSyncEngine != null) {
+            weatherSyncEngine.follow(cluster == null ? null : cluster::followed);
+        }
+    }
+
+    private void applyPrometheus(final PrometheusEndpoint.@NonNull Settings settings) {
+        if (settings.equals(prometheusSettings)) {
+            return;
+        }
+        if (prometheusEndpoint != null) {
+            prometheusEndpoint.close();
+            prometheusEndpoint = null;
+        }
+        prometheusSettings = settings;
+        if (!settings.enabled()) {
+            return;
+        }
+        try {
+            prometheusEndpoint = PrometheusEndpoint.start(settings, metrics);
+        } catch (final IOException e) {
+            getLogger().log(Level.WARNING, e, () -> "Error starting the metrics endpoint on " + settings.bind() + ":"
+                    + settings.port());
+        }
     }
 
-    private void registerCommand(final @NonNull String commandName, final @NonNull CommandExecutor commandExecutor) {
+    private void registerCommand(final @NonNull String commandName, final @NonNull TabExecutor commandExecutor) {
         final PluginCommand command = Objects.requireNonNull(getCommand(commandName));
         command.setExecutor(commandExecutor);
+        command.setTabCompleter(commandExecutor);
     }
 
     @Override
     public void onDisable() {
-        // Plugin shutdown logic
+        if (clusterService != null) {
+            clusterService.stop();
+            clusterService = null;
+        }
+        if (replayService != null) {
+            replayService.stopAll();
+            replayService = null;
+        }
+        if (autoSyncEngine != null) {
+            autoSyncEngine.stop();
+            autoSyncEngine = null;
+        }
+        if (playerTimeService != null) {
+            playerTimeService.stop();
+            playerTimeService = null;
+        }
+        if (weatherSyncEngine != null) {
+            weatherSyncEngine.stop();
+            weatherSyncEngine = null;
+        }
+        if (tickScheduleService != null) {
+            tickScheduleService.close();
+            tickScheduleService = null;
+        }
+        if (pipeline != null) {
+            pipeline.stop();
+            pipeline = null;
+        }
+        if (prometheusEndpoint != null) {
+            prometheusEndpoint.close();
+            prometheusEndpoint = null;
+        }
+        prometheusSettings = null;
+        if (stateStore != null) {
+            try {
+                stateStore.close();
+            } catch (final IOException e) {
+                getLogger().log(Level.WARNING, e, () -> "Error closing the state file.");
+            }
+            stateStore = null;
+        }
     }
 }
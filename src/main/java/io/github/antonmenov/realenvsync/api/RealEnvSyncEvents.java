@@ -0,0 +1,69 @@
+package io.github.antonmenov.realenvsync.api;
+
+import io.github.antonmenov.realenvsync.weather.Weather;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fires the API events for the plugin's writes.
+ * <p>
+ * Without listeners, a write costs one read of the baked listener array and no event is created. Otherwise one
+ * instance of each event is reused: it is taken out of its slot while being called, so an event fired by a
+ * listener of the same event, or on another thread, gets a new instance instead of changing the one in use.
+ */
+public final class RealEnvSyncEvents {
+
+    private static final AtomicReference<RealEnvSyncTimeApplyEvent> TIME_EVENT = new AtomicReference<>();
+    private static final AtomicReference<RealEnvSyncWeatherApplyEvent> WEATHER_EVENT = new AtomicReference<>();
+
+    private RealEnvSyncEvents() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @return Whether the write may go ahead, i.e. no listener cancelled it.
+     */
+    public static boolean callTimeApply(final @NonNull World world, final long previousFullTime,
+                                        final long fullTime, final RealEnvSyncTimeApplyEvent.@NonNull Cause cause) {
+        if (RealEnvSyncTimeApplyEvent.getHandlerList().getRegisteredListeners().length == 0) {
+            return true;
+        }
+        @Nullable RealEnvSyncTimeApplyEvent event = TIME_EVENT.getAndSet(null);
+        if (event == null) {
+            event = new RealEnvSyncTimeApplyEvent(world, previousFullTime, fullTime, cause);
+        } else {
+            event.reset(world, previousFullTime, fullTime, cause);
+        }
+        try {
+            Bukkit.getPluginManager().callEvent(event);
+            return !event.isCancelled();
+        } finally {
+            TIME_EVENT.set(event);
+        }
+    }
+
+    /**
+     * @return Whether the change may go ahead, i.e. no listener cancelled it.
+     */
+    public static boolean callWeatherApply(final @NonNull World world, final @NonNull Weather weather) {
+        if (RealEnvSyncWeatherApplyEvent.getHandlerList().getRegisteredListeners().length == 0) {
+            return true;
+        }
+        @Nullable RealEnvSyncWeatherApplyEvent event = WEATHER_EVENT.getAndSet(null);
+        if (event == null) {
+            event = new RealEnvSyncWeatherApplyEvent(world, weather);
+        } else {
+            event.reset(world, weather);
+        }
+        try {
+            Bukkit.getPluginManager().callEvent(event);
+            return !event.isCancelled();
+        } finally {
+            WEATHER_EVENT.set(event);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.antonmenov.realenvsync.api;
+
+import io.github.antonmenov.realenvsync.plugin.RealEnvSyncConfig;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncAutoSyncEngine;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncDateAndTimeService;
+import io.github.antonmenov.realenvsync.utils.TimeConvert;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.OptionalInt;
+import java.util.function.Supplier;
+
+import static io.github.antonmenov.realenvsync.plugin.Constants.MINECRAFT_DAY_LENGTH;
+
+/**
+ * Read-only view of the times RealEnvSync syncs to, for other plugins.
+ * <p>
+ * Registered with the Bukkit services manager while the plugin is enabled:
+ * {@code Bukkit.getServicesManager().load(RealEnvSyncQueryService.class)}. All methods are safe to call from any
+ * thread and follow configuration reloads.
+ */
+public final class RealEnvSyncQueryService {
+
+    private final Supplier<RealEnvSyncConfig> config;
+    private final Supplier<@Nullable RealEnvSyncAutoSyncEngine> autoSyncEngine;
+
+    /**
+     * @param config         The configuration in effect.
+     * @param autoSyncEngine The auto sync engine in effect, if any.
+     */
+    public RealEnvSyncQueryService(final @NonNull Supplier<RealEnvSyncConfig> config,
+                                   final @NonNull Supplier<@Nullable RealEnvSyncAutoSyncEngine> autoSyncEngine) {
+        this.config = config;
+        this.autoSyncEngine = autoSyncEngine;
+    }
+
+    /**
+     * The ticks auto sync keeps the world at now: the full time within the moon cycle in {@code datetime} mode,
+     * the time of day in {@code time} mode.
+     *
+     * @return The ticks, or empty if auto sync does not manage the world or a replay has paused it.
+     */
+    public @NonNull OptionalInt targetTicks(final @NonNull String worldName) {
+        final @Nullable RealEnvSyncAutoSyncEngine engine = autoSyncEngine.get();
+        if (engine == null || !engine.manages(worldName)) {
+            return OptionalInt.empty();
+        }
+        final int ticks = engine.targetTicks();
+        return OptionalInt.of(engine.settings().mode() == RealEnvSyncDateAndTimeService.Action.TIME
+                ? ticks % MINECRAFT_DAY_LENGTH : ticks);
+    }
+
+    /**
+     * The ticks, moon phase included, of the instant in the auto sync zone.
+     */
+    public int targetTicks(final @NonNull Instant instant) {
+        return targetTicks(instant, zone());
+    }
+
+    /**
+     * The ticks, moon phase included, of the instant in the zone, with the configured moon and sun models.
+     */
+    public int targetTicks(final @NonNull Instant instant, final @NonNull ZoneId zone) {
+        final RealEnvSyncConfig current = config.get();
+        return TimeConvert.convertToTicks(instant.getEpochSecond(), instant.getNano(),
+                zone.getRules().getOffset(instant).getTotalSeconds(), current.moonPhases(), current.dayTicks());
+    }
+
+    /**
+     * The zone of the real time auto sync follows.
+     */
+    public @NonNull ZoneId zone() {
+        return config.get().autoSync().zone();
+    }
+}
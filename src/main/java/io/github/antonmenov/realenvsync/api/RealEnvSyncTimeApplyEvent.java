@@ -0,0 +1,111 @@
+package io.github.antonmenov.realenvsync.api;
+
+import org.bukkit.World;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import static io.github.antonmenov.realenvsync.plugin.Constants.MINECRAFT_DAY_LENGTH;
+import static io.github.antonmenov.realenvsync.plugin.Constants.MOON_PHASE_COUNT;
+
+/**
+ * Called before RealEnvSync writes a world clock; cancelling it leaves the clock as it is.
+ * <p>
+ * Auto sync checks every world once per period, so listeners should be cheap. RealEnvSync only creates this
+ * event while it has listeners and reuses the instance afterwards, so listeners must not keep it.
+ */
+public class RealEnvSyncTimeApplyEvent extends Event implements Cancellable {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private @NonNull World world;
+    private long previousFullTime;
+    private long fullTime;
+    private @NonNull Cause cause;
+    private boolean cancelled;
+
+    public RealEnvSyncTimeApplyEvent(final @NonNull World world, final long previousFullTime, final long fullTime,
+                                     final @NonNull Cause cause) {
+        this.world = world;
+        this.previousFullTime = previousFullTime;
+        this.fullTime = fullTime;
+        this.cause = cause;
+    }
+
+    public static @NonNull HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+
+    @Override
+    public @NonNull HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    /**
+     * Prepares a reused instance for the next write.
+     */
+    void reset(final @NonNull World world, final long previousFullTime, final long fullTime,
+               final @NonNull Cause cause) {
+        this.world = world;
+        this.previousFullTime = previousFullTime;
+        this.fullTime = fullTime;
+        this.cause = cause;
+        this.cancelled = false;
+    }
+
+    public @NonNull World getWorld() {
+        return world;
+    }
+
+    public long getPreviousFullTime() {
+        return previousFullTime;
+    }
+
+    /**
+     * The full time the world is set to, the day count included.
+     */
+    public long getFullTime() {
+        return fullTime;
+    }
+
+    public long getTime() {
+        return Math.floorMod(fullTime, MINECRAFT_DAY_LENGTH);
+    }
+
+    /**
+     * The moon phase the world shows after the write, 0 for full moon to 7.
+     */
+    public int getMoonPhase() {
+        return (int) Math.floorMod(Math.floorDiv(fullTime, MINECRAFT_DAY_LENGTH), MOON_PHASE_COUNT);
+    }
+
+    public @NonNull Cause getCause() {
+        return cause;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void setCancelled(final boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    public enum Cause {
+        /**
+         * Auto sync corrects the drift of a world, possibly with time from a cluster leader.
+         */
+        AUTO_SYNC,
+        /**
+         * A player or the console ran {@code /realenvsync time} or {@code datetime}.
+         */
+        COMMAND,
+        /**
+         * A replay of a real date range moves the clock, on every tick.
+         */
+        REPLAY
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.antonmenov.realenvsync.api;
+
+import io.github.antonmenov.realenvsync.weather.Weather;
+import org.bukkit.World;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Called before weather sync changes the weather of a world; cancelling it leaves the weather as it is.
+ * <p>
+ * RealEnvSync only creates this event while it has listeners and reuses the instance afterwards, so listeners
+ * must not keep it.
+ */
+public class RealEnvSyncWeatherApplyEvent extends Event implements Cancellable {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private @NonNull World world;
+    private @NonNull Weather weather;
+    private boolean cancelled;
+
+    public RealEnvSyncWeatherApplyEvent(final @NonNull World world, final @NonNull Weather weather) {
+        this.world = world;
+        this.weather = weather;
+    }
+
+    public static @NonNull HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+
+    @Override
+    public @NonNull HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    /**
+     * Prepares a reused instance for the next change.
+     */
+    void reset(final @NonNull World world, final @NonNull Weather weather) {
+        this.world = world;
+        this.weather = weather;
+        this.cancelled = false;
+    }
+
+    public @NonNull World getWorld() {
+        return world;
+    }
+
+    /**
+     * The real weather the world is set to.
+     */
+    public @NonNull Weather getWeather() {
+        return weather;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void setCancelled(final boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+}
@@ -0,0 +1,28 @@
+package io.github.antonmenov.realenvsync.cluster;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Carries encoded {@link SyncFrame}s between the servers of a cluster.
+ * <p>
+ * Delivery is best effort: frames may be lost, duplicated or reordered, which the sequence numbers of the frames
+ * make up for.
+ */
+public interface ClusterTransport extends AutoCloseable {
+
+    /**
+     * Sends the frame to all other servers. Must not block for long, it is called on the server thread.
+     */
+    void send(byte @NonNull [] frame) throws IOException;
+
+    /**
+     * Starts passing the frames of other servers to the receiver, on a thread of the transport.
+     */
+    void receive(@NonNull Consumer<byte @NonNull []> receiver);
+
+    @Override
+    void close();
+}
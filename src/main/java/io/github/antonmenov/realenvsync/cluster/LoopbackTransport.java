@@ -0,0 +1,58 @@
+package io.github.antonmenov.realenvsync.cluster;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process stand-in for a network, to run several cluster nodes in one JVM, e.g. in tests.
+ * <p>
+ * Frames are delivered on the sending thread, to every other open transport of the same {@link Hub}.
+ */
+public final class LoopbackTransport implements ClusterTransport {
+
+    private final Hub hub;
+    private volatile @Nullable Consumer<byte @NonNull []> receiver;
+
+    private LoopbackTransport(final @NonNull Hub hub) {
+        this.hub = hub;
+    }
+
+    @Override
+    public void send(final byte @NonNull [] frame) {
+        for (final LoopbackTransport transport : hub.transports) {
+            final @Nullable Consumer<byte @NonNull []> target = transport.receiver;
+            if (transport != this && target != null) {
+                // Copied, as a receiver on a real network never shares the sender's buffer
+                target.accept(frame.clone());
+            }
+        }
+    }
+
+    @Override
+    public void receive(final @NonNull Consumer<byte @NonNull []> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void close() {
+        hub.transports.remove(this);
+    }
+
+    /**
+     * The shared medium of a group of loopback transports.
+     */
+    public static final class Hub {
+
+        private final List<LoopbackTransport> transports = new CopyOnWriteArrayList<>();
+
+        public @NonNull LoopbackTransport connect() {
+            final LoopbackTransport transport = new LoopbackTransport(this);
+            transports.add(transport);
+            return transport;
+        }
+    }
+}
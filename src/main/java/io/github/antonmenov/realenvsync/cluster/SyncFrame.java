@@ -0,0 +1,153 @@
+package io.github.antonmenov.realenvsync.cluster;
+
+import io.github.antonmenov.realenvsync.utils.GeoLocation;
+import io.github.antonmenov.realenvsync.weather.Weather;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The time and weather a cluster leader computed, as sent to the followers.
+ * <p>
+ * Frames are ordered per leader by term and sequence number: the term is the time the leader was elected,
+ * so a leader that restarts with the same node ID still supersedes its previous frames.
+ * <p>
+ * The binary form is big endian: magic {@code "RS"}, version and flags bytes, node ID, term, sequence and
+ * epoch millis as longs, the ticks as an int and an unsigned short count of weather entries, each two doubles
+ * and a weather byte, followed by an HMAC-SHA256 of all of it with the cluster's shared secret. A frame without
+ * weather takes 74 bytes.
+ *
+ * @param nodeId      The leader that computed the frame.
+ * @param epochMillis The leader's clock when the frame was computed.
+ * @param ticks       The real time ticks of the leader's auto sync zone, moon phase included, or {@link #NO_TICKS}
+ *                    if the leader does not run auto sync.
+ * @param weathers    The fresh weather of the leader's weather locations.
+ */
+public record SyncFrame(long nodeId, long term, long sequence, long epochMillis, int ticks,
+                        @NonNull Map<GeoLocation, Weather> weathers) {
+
+    public static final int NO_TICKS = -1;
+    private static final short MAGIC = 0x5253;
+    private static final byte VERSION = 2;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int MAC_BYTES = 32;
+    private static final int HEADER_BYTES = 42;
+    private static final int WEATHER_BYTES = 17;
+    private static final int MAX_WEATHERS = 0xFFFF;
+
+    public SyncFrame {
+        weathers = Map.copyOf(weathers);
+        if (ticks < NO_TICKS) {
+            throw new IllegalArgumentException("Ticks must not be negative: " + ticks);
+        } else if (weathers.size() > MAX_WEATHERS) {
+            throw new IllegalArgumentException("Too many weather entries: " + weathers.size());
+        }
+    }
+
+    public boolean hasTicks() {
+        return ticks != NO_TICKS;
+    }
+
+    /**
+     * The key frames are signed with, from the secret shared by all servers of the cluster.
+     */
+    public static @NonNull SecretKey key(final @NonNull String secret) {
+        return new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+    }
+
+    public byte @NonNull [] encode(final @NonNull SecretKey key) {
+        final int length = HEADER_BYTES + weathers.size() * WEATHER_BYTES;
+        final ByteBuffer buffer = ByteBuffer.allocate(length + MAC_BYTES);
+        buffer.putShort(MAGIC).put(VERSION).put((byte) 0);
+        buffer.putLong(nodeId).putLong(term).putLong(sequence).putLong(epochMillis).putInt(ticks);
+        buffer.putShort((short) weathers.size());
+        for (final Map.Entry<GeoLocation, Weather> entry : weathers.entrySet()) {
+            buffer.putDouble(entry.getKey().latitude()).putDouble(entry.getKey().longitude());
+            buffer.put((byte) entry.getValue().ordinal());
+        }
+        buffer.put(mac(key, buffer.array(), length));
+        return buffer.array();
+    }
+
+    /**
+     * @throws IllegalArgumentException If the bytes are not a frame of this version signed with the key.
+     */
+    public static @NonNull SyncFrame decode(final byte @NonNull [] bytes, final @NonNull SecretKey key) {
+        // Checked before anything is parsed, so unsigned input is never trusted
+        final int length = bytes.length - MAC_BYTES;
+        if (length < 0 || !MessageDigest.isEqual(mac(key, bytes, length),
+                Arrays.copyOfRange(bytes, length, bytes.length))) {
+            throw new IllegalArgumentException("Sync frame is not signed with the cluster secret.");
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        try {
+            if (buffer.getShort() != MAGIC) {
+                throw new IllegalArgumentException("Not a sync frame.");
+            }
+            final byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported sync frame version: " + version);
+            }
+            buffer.get();
+            final long nodeId = buffer.getLong();
+            final long term = buffer.getLong();
+            final long sequence = buffer.getLong();
+            final long epochMillis = buffer.getLong();
+            final int ticks = buffer.getInt();
+            final int count = Short.toUnsignedInt(buffer.getShort());
+            final Map<GeoLocation, Weather> weathers = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                final GeoLocation location = new GeoLocation(buffer.getDouble(), buffer.getDouble());
+                weathers.put(location, weather(buffer.get()));
+            }
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Sync frame has " + buffer.remaining() + " trailing bytes.");
+            }
+            return new SyncFrame(nodeId, term, sequence, epochMillis, ticks, weathers);
+        } catch (final BufferUnderflowException e) {
+            throw new IllegalArgumentException("Sync frame is truncated: " + bytes.length + " bytes", e);
+        }
+    }
+
+    private static byte @NonNull [] mac(final @NonNull SecretKey key, final byte @NonNull [] bytes, final int length) {
+        try {
+            // Not shared, frames are encoded and decoded on different threads
+            final Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            mac.update(bytes, 0, length);
+            return mac.doFinal();
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException(MAC_ALGORITHM + " is not available.", e);
+        }
+    }
+
+    private static @NonNull Weather weather(final byte ordinal) {
+        final Weather[] weathers = Weather.values();
+        if (ordinal < 0 || ordinal >= weathers.length) {
+            throw new IllegalArgumentException("Unknown weather: " + ordinal);
+        }
+        return weathers[ordinal];
+    }
+
+    /**
+     * Whether this frame supersedes the given one from the same leader, i.e. is from a later term or later in
+     * the same term.
+     */
+    public boolean isNewerThan(final @Nullable SyncFrame previous) {
+        if (previous == null || previous.nodeId != nodeId) {
+            return true;
+        }
+        return term != previous.term ? term > previous.term : sequence > previous.sequence;
+    }
+}
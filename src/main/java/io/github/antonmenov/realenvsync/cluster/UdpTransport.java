@@ -0,0 +1,96 @@
+package io.github.antonmenov.realenvsync.cluster;
+
+import io.github.antonmenov.realenvsync.utils.ThreadPools;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sends each frame as one UDP datagram to every configured peer, and receives on its own daemon thread.
+ * <p>
+ * Datagrams from any address other than a configured peer are dropped. That is no defence against spoofed source
+ * addresses, which the signature of every {@link SyncFrame} is; frames are not encrypted, so the port is still
+ * meant for the private network between the servers behind a proxy.
+ */
+public final class UdpTransport implements ClusterTransport {
+
+    private static final int MAX_DATAGRAM_BYTES = 65_507;
+
+    private final Logger logger;
+    private final DatagramChannel channel;
+    private final List<InetSocketAddress> peers;
+
+    private UdpTransport(final @NonNull Logger logger, final @NonNull DatagramChannel channel,
+                         final @NonNull List<InetSocketAddress> peers) {
+        this.logger = logger;
+        this.channel = channel;
+        this.peers = List.copyOf(peers);
+    }
+
+    /**
+     * @param peers The servers frames are sent to and the only ones they are received from.
+     * @throws IOException If the address cannot be bound.
+     */
+    public static @NonNull UdpTransport open(final @NonNull Logger logger, final @NonNull InetSocketAddress bind,
+                                             final @NonNull List<InetSocketAddress> peers) throws IOException {
+        final DatagramChannel channel = DatagramChannel.open();
+        try {
+            channel.bind(bind);
+        } catch (final IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new UdpTransport(logger, channel, peers);
+    }
+
+    @Override
+    public void send(final byte @NonNull [] frame) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(frame);
+        for (final InetSocketAddress peer : peers) {
+            buffer.rewind();
+            channel.send(buffer, peer);
+        }
+    }
+
+    @Override
+    public void receive(final @NonNull Consumer<byte @NonNull []> receiver) {
+        ThreadPools.daemonThreadFactory("RealEnvSync Cluster").newThread(() -> {
+            final ByteBuffer buffer = ByteBuffer.allocate(MAX_DATAGRAM_BYTES);
+            while (channel.isOpen()) {
+                try {
+                    buffer.clear();
+                    final SocketAddress sender = channel.receive(buffer);
+                    if (sender == null || !peers.contains(sender)) {
+                        continue;
+                    }
+                    buffer.flip();
+                    final byte[] frame = new byte[buffer.remaining()];
+                    buffer.get(frame);
+                    receiver.accept(frame);
+                } catch (final ClosedChannelException e) {
+                    return;
+                } catch (final IOException | RuntimeException e) {
+                    logger.log(Level.WARNING, e, () -> "Error receiving a cluster frame.");
+                }
+            }
+        }).start();
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            logger.log(Level.WARNING, e, () -> "Error closing the cluster channel.");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.antonmenov.realenvsync.metrics;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms of the whole plugin.
+ * <p>
+ * Counters are {@link LongAdder}s, striped across threads, and timers are {@link LatencyHistogram}s, both indexed
+ * by enum ordinal, so recording from the server thread and the worker pools never contends or allocates.
+ * Timers of server thread work also add up to the time the plugin takes per server tick.
+ */
+public final class Metrics {
+
+    private static final long NANOS_PER_SERVER_TICK = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final LongAdder[] counters = new LongAdder[Counter.values().length];
+    private final LatencyHistogram[] timers = new LatencyHistogram[Timer.values().length];
+    private final LongAdder serverThreadNanos = new LongAdder();
+    private final long startNanos = System.nanoTime();
+
+    public Metrics() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        for (int i = 0; i < timers.length; i++) {
+            timers[i] = new LatencyHistogram();
+        }
+    }
+
+    public void increment(final @NonNull Counter counter) {
+        counters[counter.ordinal()].increment();
+    }
+
+    public void add(final @NonNull Counter counter, final long amount) {
+        if (amount != 0) {
+            counters[counter.ordinal()].add(amount);
+        }
+    }
+
+    public void record(final @NonNull Timer timer, final long nanos) {
+        timers[timer.ordinal()].record(nanos);
+        if (timer.serverThread()) {
+            serverThreadNanos.add(nanos);
+        }
+    }
+
+    public long count(final @NonNull Counter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+
+    public LatencyHistogram.@NonNull Snapshot snapshot(final @NonNull Timer timer) {
+        return timers[timer.ordinal()].snapshot();
+    }
+
+    /**
+     * Average time all timed server thread work took per server tick since the metrics were created, assuming
+     * 20 ticks per second.
+     */
+    public long serverThreadNanosPerTick() {
+        final long ticks = Math.max(1, (System.nanoTime() - startNanos) / NANOS_PER_SERVER_TICK);
+        return serverThreadNanos.sum() / ticks;
+    }
+
+    public enum Counter {
+
+        WORLD_CHECKS("world_checks_total", "Worlds compared with real time by auto sync"),
+        CLOCK_WRITES("clock_writes_total", "World clock writes by auto sync and commands"),
+        WORLD_LOOKUP_MISSES("world_lookup_misses_total", "Configured or requested worlds that were not loaded"),
+        PLAYER_TIME_WRITES("player_time_writes_total", "Player time updates"),
+        WEATHER_WRITES("weather_writes_total", "World weather changes"),
+        WEATHER_CACHE_HITS("weather_cache_hits_total", "Weather served from the cache"),
+        WEATHER_CACHE_MISSES("weather_cache_misses_total", "Weather requests that needed a fetch"),
+        WEATHER_FETCH_FAILURES("weather_fetch_failures_total", "Weather fetches that failed"),
+        PIPELINE_UPDATES("pipeline_updates_total", "Updates applied by the main thread pipeline"),
+        PIPELINE_COALESCED("pipeline_coalesced_total", "Updates replaced by a later one in the same batch"),
+        CLUSTER_FRAMES_SENT("cluster_frames_sent_total", "Sync frames sent while leading the cluster"),
+        CLUSTER_FRAMES_RECEIVED("cluster_frames_received_total", "Sync frames of the leader taken over"),
+        CLUSTER_FRAMES_DROPPED("cluster_frames_dropped_total", "Sync frames malformed, stale or not of the leader");
+
+        private final String metricName;
+        private final String help;
+
+        Counter(final @NonNull String metricName, final @NonNull String help) {
+            this.metricName = metricName;
+            this.help = help;
+        }
+
+        public @NonNull String metricName() {
+            return metricName;
+        }
+
+        public @NonNull String help() {
+            return help;
+        }
+    }
+
+    public enum Timer {
+
+        AUTO_SYNC_TICK("auto_sync_tick", "Auto sync work per tick", true),
+        CONVERSION("conversion", "Real time to ticks conversion of auto sync", false),
+        WORLD_RESOLUTION("world_resolution", "Resolving the worlds to sync", false),
+        PLAYER_TIME_TICK("player_time_tick", "Player time work per run", true),
+        WEATHER_TICK("weather_tick", "Weather sync work per run", true),
+        WEATHER_FETCH("weather_fetch", "Weather fetch from the provider", false),
+        APPLY_BATCH("apply_batch", "Main thread pipeline batch", true);
+
+        private final String metricName;
+        private final String help;
+        private final boolean serverThread;
+
+        /**
+         * @param serverThread Whether the work runs on the server thread and counts towards the tick time.
+         *                     Conversion and world resolution are part of the auto sync tick,
+         *                     so they are not counted twice.
+         */
+        Timer(final @NonNull String metricName, final @NonNull String help, final boolean serverThread) {
+            this.metricName = metricName;
+            this.help = help;
+            this.serverThread = serverThread;
+        }
+
+        public @NonNull String metricName() {
+            return metricName;
+        }
+
+        public @NonNull String help() {
+            return help;
+        }
+
+        public boolean serverThread() {
+            return serverThread;
+        }
+    }
+}
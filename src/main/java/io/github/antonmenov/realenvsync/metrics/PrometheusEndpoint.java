@@ -0,0 +1,121 @@
+package io.github.antonmenov.realenvsync.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.antonmenov.realenvsync.utils.ThreadPools;
+import org.bukkit.configuration.ConfigurationSection;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves {@link Metrics} in the Prometheus text exposition format at {@code /metrics}.
+ * <p>
+ * Runs on its own daemon thread and only reads the striped counters, so scrapes never touch the server thread.
+ */
+public final class PrometheusEndpoint implements AutoCloseable {
+
+    private static final String PREFIX = "realenvsync_";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private PrometheusEndpoint(final @NonNull HttpServer server, final @NonNull ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * @throws IOException If the address cannot be bound.
+     */
+    public static @NonNull PrometheusEndpoint start(final @NonNull Settings settings, final @NonNull Metrics metrics)
+            throws IOException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress(settings.bind(), settings.port()), 0);
+        final ExecutorService executor =
+                Executors.newSingleThreadExecutor(ThreadPools.daemonThreadFactory("RealEnvSync Metrics"));
+        server.setExecutor(executor);
+        server.createContext("/metrics", exchange -> respond(exchange, format(metrics)));
+        server.start();
+        return new PrometheusEndpoint(server, executor);
+    }
+
+    private static void respond(final @NonNull HttpExchange exchange, final @NonNull String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    public static @NonNull String format(final @NonNull Metrics metrics) {
+        final StringBuilder text = new StringBuilder(4096);
+        for (final Metrics.Counter counter : Metrics.Counter.values()) {
+            final String name = PREFIX + counter.metricName();
+            text.append("# HELP ").append(name).append(' ').append(counter.help()).append('\n');
+            text.append("# TYPE ").append(name).append(" counter\n");
+            text.append(name).append(' ').append(metrics.count(counter)).append('\n');
+        }
+        for (final Metrics.Timer timer : Metrics.Timer.values()) {
+            final String name = PREFIX + timer.metricName() + "_seconds";
+            final LatencyHistogram.Snapshot snapshot = metrics.snapshot(timer);
+            text.append("# HELP ").append(name).append(' ').append(timer.help()).append('\n');
+            text.append("# TYPE ").append(name).append(" summary\n");
+            appendQuantile(text, name, "0.5", snapshot.p50Nanos());
+            appendQuantile(text, name, "0.9", snapshot.p90Nanos());
+            appendQuantile(text, name, "0.99", snapshot.p99Nanos());
+            appendQuantile(text, name, "0.999", snapshot.p999Nanos());
+            text.append(name).append("_sum ").append(seconds(snapshot.sumNanos())).append('\n');
+            text.append(name).append("_count ").append(snapshot.count()).append('\n');
+        }
+        final String tickName = PREFIX + "server_thread_seconds_per_tick";
+        text.append("# HELP ").append(tickName).append(" Average server thread time per tick\n");
+        text.append("# TYPE ").append(tickName).append(" gauge\n");
+        text.append(tickName).append(' ').append(seconds(metrics.serverThreadNanosPerTick())).append('\n');
+        return text.toString();
+    }
+
+    private static void appendQuantile(final @NonNull StringBuilder text, final @NonNull String name,
+                                       final @NonNull String quantile, final long nanos) {
+        text.append(name).append("{quantile=\"").append(quantile).append("\"} ").append(seconds(nanos)).append('\n');
+    }
+
+    private static @NonNull String seconds(final long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param bind Address to listen on, loopback by default so the metrics are not exposed to the network.
+     */
+    public record Settings(boolean enabled, @NonNull String bind, int port) {
+
+        public Settings {
+            if (port < 1 || port > 65535) {
+                throw new IllegalArgumentException("Port must be between 1 and 65535: " + port);
+            } else if (bind.isBlank()) {
+                throw new IllegalArgumentException("Bind address must not be empty.");
+            }
+        }
+
+        public static @NonNull Settings from(final @Nullable ConfigurationSection section) {
+            if (section == null) {
+                return new Settings(false, "127.0.0.1", 9464);
+            }
+            return new Settings(section.getBoolean("enabled", false), section.getString("bind", "127.0.0.1"),
+                    section.getInt("port", 9464));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.antonmenov.realenvsync.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of one run of a sync engine, so plugin work shows up next to GC and tick data in a recording.
+ * <p>
+ * Costs nothing beyond the allocation, which escape analysis removes, unless a recording enables it.
+ */
+@Name("io.github.antonmenov.realenvsync.SyncCycle")
+@Label("Sync Cycle")
+@Category("RealEnvSync")
+@Description("One run of a RealEnvSync engine on the server thread")
+@StackTrace(false)
+public class SyncCycleEvent extends Event {
+
+    @Label("Engine")
+    public String engine;
+
+    @Label("Targets")
+    @Description("Worlds or players checked")
+    public int targets;
+
+    @Label("Writes")
+    @Description("Clocks, player times or weathers written")
+    public int writes;
+}
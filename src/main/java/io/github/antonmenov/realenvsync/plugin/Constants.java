@@ -12,6 +12,14 @@ public class Constants {
             2024, 1, 25, 17, 54, 0, 0, ZoneOffset.UTC);
     public static final @NonNull Duration MOON_CYCLE_DURATION = Duration.ofDays(29).plusHours(12);
     public static final @NonNull Duration MOON_PHASE_DURATION = MOON_CYCLE_DURATION.dividedBy(8);
+    public static final long MID_FULL_MOON_EPOCH_SECOND = MID_FULL_MOON_OFFSETDATETIME.toEpochSecond();
+    public static final long MOON_CYCLE_SECONDS = MOON_CYCLE_DURATION.toSeconds();
+    public static final long MOON_PHASE_SECONDS = MOON_PHASE_DURATION.toSeconds();
+    public static final byte MOON_PHASE_COUNT = 8;
+    public static final int SECONDS_IN_DAY = 86_400;
+    public static final long NANOS_IN_SECOND = 1_000_000_000L;
     public static final short MINECRAFT_DAY_LENGTH = 24_000;
     public static final short MINECRAFT_DAY_START_OFFSET = 18_000;
+    public static final int MINECRAFT_MOON_CYCLE_LENGTH = MINECRAFT_DAY_LENGTH * MOON_PHASE_COUNT;
+    public static final long NANOS_PER_MINECRAFT_TICK = SECONDS_IN_DAY * NANOS_IN_SECOND / MINECRAFT_DAY_LENGTH;
 }
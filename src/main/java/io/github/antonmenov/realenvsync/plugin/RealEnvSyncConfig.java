@@ -0,0 +1,41 @@
+package io.github.antonmenov.realenvsync.plugin;
+
+import io.github.antonmenov.realenvsync.metrics.PrometheusEndpoint;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncAutoSyncEngine;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncClusterService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncPlayerTimeService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncTickScheduleService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncWeatherSyncEngine;
+import io.github.antonmenov.realenvsync.utils.DayTicks;
+import io.github.antonmenov.realenvsync.utils.MoonPhases;
+import org.bukkit.configuration.ConfigurationSection;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Immutable snapshot of {@code config.yml}, validated and compiled as a whole, so a reload either applies
+ * completely or not at all. Moon phase tables and sun curves are built here, off the sync path.
+ */
+public record RealEnvSyncConfig(@NonNull MoonPhases moonPhases, @NonNull DayTicks dayTicks,
+                                RealEnvSyncTickScheduleService.@NonNull Settings schedule,
+                                RealEnvSyncAutoSyncEngine.@NonNull Settings autoSync,
+                                RealEnvSyncPlayerTimeService.@NonNull Settings playerTime,
+                                RealEnvSyncWeatherSyncEngine.@NonNull Settings weather,
+                                PrometheusEndpoint.@NonNull Settings prometheus,
+                                RealEnvSyncClusterService.@NonNull Settings cluster) {
+
+    /**
+     * @throws IllegalArgumentException If any value is invalid.
+     * @throws java.time.DateTimeException If a time zone is unknown.
+     */
+    public static @NonNull RealEnvSyncConfig from(final @NonNull ConfigurationSection root) {
+        return new RealEnvSyncConfig(
+                MoonPhases.from(root.getConfigurationSection("moon")),
+                DayTicks.from(root.getConfigurationSection("sun")),
+                RealEnvSyncTickScheduleService.Settings.from(root.getConfigurationSection("schedule")),
+                RealEnvSyncAutoSyncEngine.Settings.from(root.getConfigurationSection("auto-sync")),
+                RealEnvSyncPlayerTimeService.Settings.from(root.getConfigurationSection("player-time")),
+                RealEnvSyncWeatherSyncEngine.Settings.from(root.getConfigurationSection("weather")),
+                PrometheusEndpoint.Settings.from(root.getConfigurationSection("metrics.prometheus")),
+                RealEnvSyncClusterService.Settings.from(root.getConfigurationSection("cluster")));
+    }
+}
@@ -0,0 +1,592 @@
+package io.github.antonmenov.realenvsync.server;
+
+import io.github.antonmenov.realenvsync.cluster.SyncFrame;
+import io.github.antonmenov.realenvsync.metrics.Metrics;
+import io.github.antonmenov.realenvsync.metrics.SyncCycleEvent;
+import io.github.antonmenov.realenvsync.state.StateStore;
+import io.github.antonmenov.realenvsync.utils.DayTicks;
+import io.github.antonmenov.realenvsync.utils.MoonPhases;
+import io.github.antonmenov.realenvsync.utils.TimeConvert;
+import io.github.antonmenov.realenvsync.utils.ZoneOffsets;
+import org.bukkit.GameRule;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.time.Clock;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static io.github.antonmenov.realenvsync.plugin.Constants.MINECRAFT_MOON_CYCLE_LENGTH;
+import static io.github.antonmenov.realenvsync.plugin.Constants.NANOS_PER_MINECRAFT_TICK;
+import static io.github.antonmenov.realenvsync.server.RealEnvSyncDateAndTimeService.Action;
+
+/**
+ * Keeps the configured worlds locked to real time.
+ * <p>
+ * Real time moves 5 ticks every 18 seconds, so the world clock is written only when it has drifted
+ * past the configured threshold, as every write sends a time update to all players in the world.
+ * <p>
+ * In convergence mode small drift is closed over several periods instead, by moving the clock a bounded step
+ * ahead of real time or pausing it, so the sky never visibly jumps.
+ * <p>
+ * Every world is checked once per period. The worlds are split into shards that start on evenly spread ticks
+ * of the period, and a single tick never spends more than its time budget; unfinished work carries over
+ * to the next tick.
+ * <p>
+ * World clocks are owned by the global region on Folia, so the engine runs as a global timer of the
+ * {@link RealEnvSyncScheduler}, which is the main thread on Spigot.
+ * <p>
+ * Settings are compiled into an immutable snapshot behind an {@link AtomicReference}, so {@link #reconfigure}
+ * swaps them between two ticks without stopping the engine.
+ */
+public class RealEnvSyncAutoSyncEngine implements Runnable {
+
+    public static final @NonNull String ALL_WORLDS = "*";
+
+    private final RealEnvSyncScheduler scheduler;
+    private final RealEnvSyncWorldRegistry worldRegistry;
+    private final RealEnvSyncDateAndTimeService service;
+    private final Metrics metrics;
+    private final Clock clock;
+    private final @Nullable StateStore store;
+    private final AtomicReference<Snapshot> snapshot;
+    private final Map<String, Boolean> previousDaylightCycles = new HashMap<>();
+    private final Map<String, DriftStats> driftStats = new HashMap<>();
+    private volatile @Nullable Predicate<@NonNull String> paused;
+    private volatile @Nullable Supplier<@Nullable SyncFrame> leader;
+    private RealEnvSyncScheduler.@Nullable Task task;
+
+    private int registryVersion = -1;
+    private @Nullable Snapshot shardsSnapshot;
+    private World @NonNull [] worlds = new World[0];
+    private int @NonNull [] shardEnds = new int[0];
+    private int @NonNull [] lastShardAtPhase = new int[0];
+    private long @NonNull [] shardLastNanos = new long[0];
+    private long @NonNull [] shardMaxNanos = new long[0];
+    private long @NonNull [] shardTotalNanos = new long[0];
+    private long @NonNull [] shardRuns = new long[0];
+    private long overruns;
+    private long writes;
+    private long tick;
+    private int cursor;
+    private int cursorShard;
+
+    public RealEnvSyncAutoSyncEngine(final @NonNull RealEnvSyncScheduler scheduler,
+                                     final @NonNull RealEnvSyncWorldRegistry worldRegistry,
+                                     final @NonNull RealEnvSyncDateAndTimeService service,
+                                     final @NonNull Metrics metrics,
+                                     final @NonNull Settings settings, final @NonNull Clock clock,
+                                     final @NonNull MoonPhases moonPhases, final @NonNull DayTicks dayTicks,
+                                     final RealEnvSyncTickScheduleService.@Nullable Schedule schedule) {
+        this(scheduler, worldRegistry, service, metrics, settings, clock, moonPhases, dayTicks, schedule, null);
+    }
+
+    /**
+     * @param store Keeps the original {@code doDaylightCycle} of each world, so a server that stopped without
+     *              disabling the plugin still gets the original value back.
+     */
+    public RealEnvSyncAutoSyncEngine(final @NonNull RealEnvSyncScheduler scheduler,
+                                     final @NonNull RealEnvSyncWorldRegistry worldRegistry,
+                                     final @NonNull RealEnvSyncDateAndTimeService service,
+                                     final @NonNull Metrics metrics,
+                                     final @NonNull Settings settings, final @NonNull Clock clock,
+                                     final @NonNull MoonPhases moonPhases, final @NonNull DayTicks dayTicks,
+                                     final RealEnvSyncTickScheduleService.@Nullable Schedule schedule,
+                                     final @Nullable StateStore store) {
+        this.scheduler = scheduler;
+        this.worldRegistry = worldRegistry;
+        this.service = service;
+        this.metrics = metrics;
+        this.clock = clock;
+        this.store = store;
+        this.snapshot = new AtomicReference<>(new Snapshot(settings, moonPhases, dayTicks, schedule));
+    }
+
+    public void start() {
+        if (task != null) {
+            throw new IllegalStateException("Auto sync is already running.");
+        }
+        final long initialDelayTicks = snapshot.get().settings().initialDelayTicks();
+        task = scheduler.runGlobalTimer(this, initialDelayTicks, 1);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        restoreDaylightCycles(Set.of());
+    }
+
+    /**
+     * Replaces the settings; the next tick picks them up and rebuilds the shards.
+     */
+    public void reconfigure(final @NonNull Settings settings, final @NonNull MoonPhases moonPhases,
+                            final @NonNull DayTicks dayTicks,
+                            final RealEnvSyncTickScheduleService.@Nullable Schedule schedule) {
+        snapshot.set(new Snapshot(settings, moonPhases, dayTicks, schedule));
+    }
+
+    public @NonNull Settings settings() {
+        return snapshot.get().settings();
+    }
+
+    /**
+     * Takes the real time ticks from the frames of a cluster leader while it supplies any, instead of converting
+     * the local clock. The ticks are moved on by the age of the frame, assuming the clocks of the servers agree.
+     *
+     * @param leader The frame of the followed leader, {@code null} to always use the local clock.
+     */
+    public void follow(final @Nullable Supplier<@Nullable SyncFrame> leader) {
+        this.leader = leader;
+    }
+
+    /**
+     * The real time ticks managed worlds are kept at now, from the followed cluster leader if any. Safe to call
+     * from any thread.
+     */
+    public int targetTicks() {
+        return targetTicks(snapshot.get());
+    }
+
+    /**
+     * Whether the world is loaded and kept in sync, i.e. configured and not {@link #pauseWhile paused}. Safe to call
+     * from any thread.
+     */
+    public boolean manages(final @NonNull String worldName) {
+        final List<String> names = snapshot.get().settings().worlds();
+        final @Nullable Predicate<@NonNull String> paused = this.paused;
+        return (names.contains(ALL_WORLDS) || names.contains(worldName)) && worldRegistry.get(worldName) != null
+                && (paused == null || !paused.test(worldName));
+    }
+
+    /**
+     * The real time ticks of the configured zone by the local clock, whether or not a leader is followed.
+     */
+    public int localTargetTicks() {
+        return localTargetTicks(snapshot.get());
+    }
+
+    /**
+     * Leaves the clock of a world alone while the predicate holds for it, e.g. while something else plays a time
+     * through it. The predicate is asked on the thread the engine runs on.
+     *
+     * @param paused Tells the paused worlds by name, {@code null} to pause none.
+     */
+    public void pauseWhile(final @Nullable Predicate<@NonNull String> paused) {
+        this.paused = paused;
+    }
+
+    @Override
+    public void run() {
+        final long runStart = System.nanoTime();
+        final SyncCycleEvent event = new SyncCycleEvent();
+        event.begin();
+        final Snapshot current = snapshot.get();
+        final boolean rebuilt = current != shardsSnapshot || worldRegistry.version() != registryVersion;
+        if (rebuilt) {
+            rebuildShards(current);
+        }
+
+        final long currentTick = tick++;
+        final int phase = (int) (currentTick % current.settings().periodTicks());
+        if (phase == 0) {
+            if (currentTick > 0 && cursor < worlds.length) {
+                overruns++;
+            }
+            cursor = 0;
+            cursorShard = 0;
+        }
+        final int allowedEnd = shardEnds.length == 0 ? 0 : shardEnds[lastShardAtPhase[phase]];
+        if (cursor >= allowedEnd) {
+            if (rebuilt) {
+                metrics.record(Metrics.Timer.AUTO_SYNC_TICK, System.nanoTime() - runStart);
+            }
+            return;
+        }
+
+        final long conversionStart = System.nanoTime();
+        final int ticks = targetTicks(current);
+        final int firstWorld = cursor;
+        final long writesBefore = writes;
+        long segmentStart = System.nanoTime();
+        metrics.record(Metrics.Timer.CONVERSION, segmentStart - conversionStart);
+        final long deadline = segmentStart + current.tickBudgetNanos();
+        while (cursor < allowedEnd) {
+            while (shardEnds[cursorShard] <= cursor) {
+                cursorShard++;
+            }
+            final int shard = cursorShard;
+            final int shardEnd = Math.min(shardEnds[shard], allowedEnd);
+            do {
+                syncWorld(worlds[cursor++], ticks, current.settings());
+            } while (cursor < shardEnd && System.nanoTime() - deadline < 0);
+
+            final long now = System.nanoTime();
+            recordShard(shard, now - segmentStart);
+            segmentStart = now;
+            if (now - deadline >= 0) {
+                break;
+            }
+        }
+
+        final int checked = cursor - firstWorld;
+        final int written = (int) (writes - writesBefore);
+        metrics.add(Metrics.Counter.WORLD_CHECKS, checked);
+        metrics.add(Metrics.Counter.CLOCK_WRITES, written);
+        metrics.record(Metrics.Timer.AUTO_SYNC_TICK, segmentStart - runStart);
+        if (event.shouldCommit()) {
+            event.engine = "auto-sync";
+            event.targets = checked;
+            event.writes = written;
+            event.commit();
+        }
+    }
+
+    private int targetTicks(final @NonNull Snapshot current) {
+        final @Nullable Supplier<@Nullable SyncFrame> leader = this.leader;
+        final @Nullable SyncFrame frame = leader == null ? null : leader.get();
+        if (frame != null && frame.hasTicks()) {
+            // Real time moved on since the leader computed the frame, by up to a lease
+            final long ageNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, clock.millis() - frame.epochMillis()));
+            return (int) ((frame.ticks() + ageNanos / NANOS_PER_MINECRAFT_TICK) % MINECRAFT_MOON_CYCLE_LENGTH);
+        }
+        return localTargetTicks(current);
+    }
+
+    private int localTargetTicks(final @NonNull Snapshot current) {
+        final long millis = clock.millis();
+        final long epochSecond = Math.floorDiv(millis, 1000);
+        if (current.schedule() != null) {
+            // A table holds whole seconds, which only match the sub-second conversion if no tick starts within
+            // this second; one starts about every 3.6 seconds
+            final int ticks = current.schedule().ticksAt(epochSecond);
+            if (ticks == current.schedule().ticksAt(epochSecond + 1)) {
+                return ticks;
+            }
+        }
+        final int nanoOfSecond = (int) Math.floorMod(millis, 1000) * 1_000_000;
+        final int offsetSeconds = current.zoneOffsets().offsetAt(epochSecond);
+        return TimeConvert.convertToTicks(epochSecond, nanoOfSecond, offsetSeconds, current.moonPhases(),
+                current.dayTicks());
+    }
+
+    private void syncWorld(final @NonNull World world, final int ticks, final @NonNull Settings settings) {
+        final @Nullable Predicate<@NonNull String> paused = this.paused;
+        if (paused != null && paused.test(world.getName())) {
+            return;
+        }
+        final boolean disableDaylightCycle = settings.disableDaylightCycle() || settings.convergence().enabled();
+        if (disableDaylightCycle && !previousDaylightCycles.containsKey(world.getName())) {
+            previousDaylightCycles.put(world.getName(), originalDaylightCycle(world));
+            world.setGameRule(GameRule.DO_DAYLIGHT_CYCLE, false);
+        }
+
+        final long drift = service.driftOf(world, settings.mode(), ticks);
+        final long planned = settings.convergence().correction(drift, settings.driftThresholdTicks());
+        // Nothing is written if a listener of RealEnvSyncTimeApplyEvent cancels it
+        final long correction = planned != 0 && service.moveClock(world, planned) ? planned : 0;
+        if (correction != 0) {
+            writes++;
+        }
+
+        DriftStats stats = driftStats.get(world.getName());
+        if (stats == null) {
+            stats = new DriftStats();
+            driftStats.put(world.getName(), stats);
+        }
+        stats.errorTicks = drift - correction;
+        stats.maxErrorTicks = Math.max(stats.maxErrorTicks, Math.abs(drift));
+        if (correction != 0) {
+            stats.writes++;
+        }
+    }
+
+    private @Nullable Boolean originalDaylightCycle(final @NonNull World world) {
+        final @Nullable Boolean current = world.getGameRuleValue(GameRule.DO_DAYLIGHT_CYCLE);
+        if (store == null) {
+            return current;
+        }
+        // Still stored if the server stopped while the cycle was turned off, which the world saved as is
+        final @Nullable Boolean stored = store.originalDaylightCycle(world.getName());
+        if (stored != null) {
+            return stored;
+        }
+        store.putOriginalDaylightCycle(world.getName(), current);
+        return current;
+    }
+
+    private void recordShard(final int shard, final long nanos) {
+        shardLastNanos[shard] = nanos;
+        shardMaxNanos[shard] = Math.max(shardMaxNanos[shard], nanos);
+        shardTotalNanos[shard] += nanos;
+        shardRuns[shard]++;
+    }
+
+    private void rebuildShards(final @NonNull Snapshot current) {
+        final Settings settings = current.settings();
+        shardsSnapshot = current;
+        registryVersion = worldRegistry.version();
+        final long resolveStart = System.nanoTime();
+        worlds = managedWorlds(settings).toArray(World[]::new);
+        metrics.record(Metrics.Timer.WORLD_RESOLUTION, System.nanoTime() - resolveStart);
+
+        final Set<String> managedNames = new HashSet<>();
+        for (final World world : worlds) {
+            managedNames.add(world.getName());
+        }
+        // Worlds that were unloaded or left the configuration
+        driftStats.keySet().retainAll(managedNames);
+        restoreDaylightCycles(settings.disableDaylightCycle() || settings.convergence().enabled() ? managedNames
+                : Set.of());
+
+        final int period = (int) settings.periodTicks();
+        final int shardCount = Math.max(1, Math.min(settings.shards(), Math.min(period, Math.max(1, worlds.length))));
+        shardEnds = new int[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            shardEnds[shard] = (int) ((long) (shard + 1) * worlds.length / shardCount);
+        }
+        lastShardAtPhase = new int[period];
+        for (int phase = 0; phase < period; phase++) {
+            lastShardAtPhase[phase] = (int) ((long) phase * shardCount / period);
+        }
+        shardLastNanos = new long[shardCount];
+        shardMaxNanos = new long[shardCount];
+        shardTotalNanos = new long[shardCount];
+        shardRuns = new long[shardCount];
+
+        // Worlds before the current phase are handled right away instead of waiting for the next period
+        cursor = 0;
+        cursorShard = 0;
+    }
+
+    private @NonNull List<World> managedWorlds(final @NonNull Settings settings) {
+        final List<World> managed = new ArrayList<>();
+        if (settings.worlds().contains(ALL_WORLDS)) {
+            managed.addAll(worldRegistry.worlds());
+            managed.sort(Comparator.comparing(World::getName));
+        } else {
+            for (final String worldName : settings.worlds()) {
+                final @Nullable World world = worldRegistry.get(worldName);
+                if (world != null) {
+                    managed.add(world);
+                } else {
+                    metrics.increment(Metrics.Counter.WORLD_LOOKUP_MISSES);
+                }
+            }
+        }
+        return managed;
+    }
+
+    /**
+     * Gives back {@code doDaylightCycle} to every world that is no longer managed with the daylight cycle off.
+     */
+    private void restoreDaylightCycles(final @NonNull Set<String> kept) {
+        final Iterator<Map.Entry<String, Boolean>> entries = previousDaylightCycles.entrySet().iterator();
+        while (entries.hasNext()) {
+            final Map.Entry<String, Boolean> entry = entries.next();
+            if (kept.contains(entry.getKey())) {
+                continue;
+            }
+            final @Nullable World world = worldRegistry.get(entry.getKey());
+            if (world != null && entry.getValue() != null) {
+                world.setGameRule(GameRule.DO_DAYLIGHT_CYCLE, entry.getValue());
+                if (store != null) {
+                    store.putOriginalDaylightCycle(entry.getKey(), null);
+                }
+            }
+            entries.remove();
+        }
+    }
+
+    /**
+     * Passes that were not finished when the next period started, because the tick budget was too small.
+     */
+    public long overruns() {
+        return overruns;
+    }
+
+    /**
+     * Must be called on the thread that runs the engine, see {@link RealEnvSyncScheduler#executeGlobal}.
+     */
+    public @NonNull List<ShardTiming> shardTimings() {
+        final List<ShardTiming> timings = new ArrayList<>(shardEnds.length);
+        for (int shard = 0; shard < shardEnds.length; shard++) {
+            final int start = shard == 0 ? 0 : shardEnds[shard - 1];
+            final long runs = shardRuns[shard];
+            timings.add(new ShardTiming(shard, shardEnds[shard] - start, runs, shardLastNanos[shard],
+                    runs == 0 ? 0 : shardTotalNanos[shard] / runs, shardMaxNanos[shard]));
+        }
+        return timings;
+    }
+
+    /**
+     * Must be called on the thread that runs the engine, see {@link RealEnvSyncScheduler#executeGlobal}.
+     */
+    public @NonNull List<WorldDrift> worldDrifts() {
+        final List<WorldDrift> drifts = new ArrayList<>(driftStats.size());
+        for (final Map.Entry<String, DriftStats> entry : driftStats.entrySet()) {
+            final DriftStats stats = entry.getValue();
+            drifts.add(new WorldDrift(entry.getKey(), stats.errorTicks, stats.maxErrorTicks, stats.writes));
+        }
+        drifts.sort(Comparator.comparing(WorldDrift::world));
+        return drifts;
+    }
+
+    private static final class DriftStats {
+
+        private long errorTicks;
+        private long maxErrorTicks;
+        private long writes;
+    }
+
+    /**
+     * @param errorTicks    Signed distance from the world clock to real time left after the last check.
+     * @param maxErrorTicks Largest distance seen before a correction.
+     * @param writes        Number of times the world clock was written.
+     */
+    public record WorldDrift(@NonNull String world, long errorTicks, long maxErrorTicks, long writes) {
+    }
+
+    /**
+     * Settings compiled for the sync path: zone transitions resolved into {@link ZoneOffsets}.
+     */
+    private record Snapshot(@NonNull Settings settings, @NonNull MoonPhases moonPhases, @NonNull DayTicks dayTicks,
+                            RealEnvSyncTickScheduleService.@Nullable Schedule schedule,
+                            @NonNull ZoneOffsets zoneOffsets, long tickBudgetNanos) {
+
+        private Snapshot(final @NonNull Settings settings, final @NonNull MoonPhases moonPhases,
+                         final @NonNull DayTicks dayTicks,
+                         final RealEnvSyncTickScheduleService.@Nullable Schedule schedule) {
+            this(settings, moonPhases, dayTicks, schedule, ZoneOffsets.of(settings.zone()),
+                    TimeUnit.MICROSECONDS.toNanos(settings.tickBudgetMicros()));
+        }
+    }
+
+    /**
+     * Time spent on a shard. A shard split across ticks by the tick budget counts one run per tick.
+     */
+    public record ShardTiming(int shard, int worlds, long runs, long lastNanos, long averageNanos, long maxNanos) {
+    }
+
+    /**
+     * @param worlds               Names of the managed worlds, {@value #ALL_WORLDS} for all loaded worlds.
+     * @param periodTicks          Every managed world is checked once per period.
+     * @param shards               Number of ticks of the period the work is spread over, at most the period.
+     * @param tickBudgetMicros     Time after which a tick stops and leaves the remaining worlds to the next tick.
+     * @param disableDaylightCycle Whether {@code doDaylightCycle} is turned off on managed worlds while syncing,
+     *                             otherwise the world clock runs 72 times faster than real time and is rewritten
+     *                             on almost every run.
+     * @param convergence          How drift is closed, always turns {@code doDaylightCycle} off when enabled.
+     */
+    public record Settings(boolean enabled, @NonNull List<String> worlds, @NonNull Action mode,
+                           @NonNull ZoneId zone, @NonNegative long initialDelayTicks, @Positive long periodTicks,
+                           @Positive int shards, @Positive long tickBudgetMicros,
+                           @NonNegative int driftThresholdTicks, boolean disableDaylightCycle,
+                           @NonNull Convergence convergence) {
+
+        public Settings {
+            worlds = List.copyOf(worlds);
+            if (initialDelayTicks < 0) {
+                throw new IllegalArgumentException("Initial delay must not be negative: " + initialDelayTicks);
+            } else if (periodTicks <= 0 || periodTicks > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Period must be positive: " + periodTicks);
+            } else if (shards <= 0) {
+                throw new IllegalArgumentException("Shards must be positive: " + shards);
+            } else if (tickBudgetMicros <= 0) {
+                throw new IllegalArgumentException("Tick budget must be positive: " + tickBudgetMicros);
+            } else if (driftThresholdTicks < 0) {
+                throw new IllegalArgumentException("Drift threshold must not be negative: " + driftThresholdTicks);
+            }
+        }
+
+        public static @NonNull Settings from(final @Nullable ConfigurationSection section) {
+            if (section == null) {
+                return new Settings(false, List.of(), Action.DATETIME, ZoneId.systemDefault(), 0, 20, 1, 500, 0, true,
+                        Convergence.from(null));
+            }
+
+            final String zone = section.getString("zone", "");
+            return new Settings(
+                    section.getBoolean("enabled", false),
+                    section.getStringList("worlds"),
+                    Action.valueOf(section.getString("mode", "datetime").toUpperCase(Locale.ROOT)),
+                    zone == null || zone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zone),
+                    section.getLong("initial-delay-ticks", 0),
+                    section.getLong("period-ticks", 20),
+                    section.getInt("shards", 1),
+                    section.getLong("tick-budget-micros", 500),
+                    section.getInt("drift-threshold-ticks", 0),
+                    section.getBoolean("disable-daylight-cycle", true),
+                    Convergence.from(section.getConfigurationSection("convergence")));
+        }
+    }
+
+    /**
+     * Closes drift by stepping, holding or snapping the clock rather than by running it at an adjusted rate:
+     * a world clock only runs at the daylight cycle's fixed rate, 72 times real time, or not at all, so the engine
+     * keeps the cycle off and writes bounded steps instead. A clock behind real time moves forward by at most
+     * {@code maxStepTicks} per period, a clock slightly ahead is held until real time catches up, and drift past
+     * {@code snapThresholdTicks} is closed with a single jump.
+     *
+     * @param maxStepTicks       Largest correction written at once, on top of real time.
+     * @param maxHoldTicks       A clock ahead of real time by at most this much is paused instead of moved back.
+     * @param snapThresholdTicks Drift larger than this is corrected with a single jump, e.g. after a restart.
+     */
+    public record Convergence(boolean enabled, @Positive int maxStepTicks, @NonNegative int maxHoldTicks,
+                              @Positive int snapThresholdTicks) {
+
+        public Convergence {
+            if (maxStepTicks <= 0) {
+                throw new IllegalArgumentException("Max step must be positive: " + maxStepTicks);
+            } else if (maxHoldTicks < 0) {
+                throw new IllegalArgumentException("Max hold must not be negative: " + maxHoldTicks);
+            } else if (snapThresholdTicks <= 0) {
+                throw new IllegalArgumentException("Snap threshold must be positive: " + snapThresholdTicks);
+            }
+        }
+
+        public static @NonNull Convergence from(final @Nullable ConfigurationSection section) {
+            if (section == null) {
+                return new Convergence(false, 20, 600, 2400);
+            }
+            return new Convergence(section.getBoolean("enabled", false), section.getInt("max-step-ticks", 20),
+                    section.getInt("max-hold-ticks", 600), section.getInt("snap-threshold-ticks", 2400));
+        }
+
+        /**
+         * Returns the ticks to move the world clock by for the given drift, 0 for no write.
+         *
+         * @param drift               Signed distance from the world clock to real time.
+         * @param driftThresholdTicks The largest drift that is tolerated without a write.
+         */
+        public long correction(final long drift, final @NonNegative int driftThresholdTicks) {
+            final long distance = Math.abs(drift);
+            if (distance <= driftThresholdTicks) {
+                return 0;
+            } else if (!enabled || distance > snapThresholdTicks) {
+                return drift;
+            } else if (drift > 0) {
+                return Math.min(drift, maxStepTicks);
+            }
+            // Real time catches up with a paused clock, moving it back is only worth it far ahead
+            return distance <= maxHoldTicks ? 0 : Math.max(drift + maxHoldTicks, -maxStepTicks);
+        }
+    }
+}
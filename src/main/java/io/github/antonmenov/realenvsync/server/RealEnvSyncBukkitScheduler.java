@@ -0,0 +1,54 @@
+package io.github.antonmenov.realenvsync.server;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Runs everything on the single main thread of Spigot and Paper.
+ */
+public class RealEnvSyncBukkitScheduler implements RealEnvSyncScheduler {
+
+    private final Plugin plugin;
+
+    public RealEnvSyncBukkitScheduler(final @NonNull Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public @NonNull Task runGlobalTimer(final @NonNull Runnable task, final long delayTicks, final long periodTicks) {
+        return plugin.getServer().getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks)::cancel;
+    }
+
+    @Override
+    public void runGlobal(final @NonNull Runnable task) {
+        plugin.getServer().getScheduler().runTask(plugin, task);
+    }
+
+    @Override
+    public void executeGlobal(final @NonNull Runnable task) {
+        if (plugin.getServer().isPrimaryThread()) {
+            task.run();
+        } else {
+            runGlobal(task);
+        }
+    }
+
+    @Override
+    public void executeFor(final @NonNull Entity entity, final @NonNull Runnable task) {
+        if (plugin.getServer().isPrimaryThread()) {
+            task.run();
+        } else {
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                if (entity.isValid()) {
+                    task.run();
+                }
+            });
+        }
+    }
+
+    @Override
+    public @NonNull String name() {
+        return "Bukkit";
+    }
+}
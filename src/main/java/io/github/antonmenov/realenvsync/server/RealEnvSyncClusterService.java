@@ -0,0 +1,318 @@
+package io.github.antonmenov.realenvsync.server;
+
+import io.github.antonmenov.realenvsync.cluster.ClusterTransport;
+import io.github.antonmenov.realenvsync.cluster.SyncFrame;
+import io.github.antonmenov.realenvsync.metrics.Metrics;
+import io.github.antonmenov.realenvsync.utils.GeoLocation;
+import io.github.antonmenov.realenvsync.weather.Weather;
+import org.bukkit.configuration.ConfigurationSection;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Lets one server of a network compute the time and weather for all of them.
+ * <p>
+ * Every node sends nothing until it leads. The leader sends a {@link SyncFrame} once per period, with the real
+ * time ticks of its auto sync and the fresh weather of its weather sync, and the followers apply the latest frame
+ * instead of converting the time and fetching the weather themselves.
+ * <p>
+ * The live node with the lowest node ID leads: a node takes over when it has not heard a leader for the lease
+ * duration, or when it has a lower ID than the leader it hears, which then hears the lower ID and steps down.
+ * A node listens for one lease after starting before it may lead, so a restarted node does not take over from a
+ * leader it has not heard yet.
+ * <p>
+ * Frames are signed with the secret shared by all nodes, and frames with another signature are dropped before
+ * they take part in the election.
+ * <p>
+ * Frames are sent on the global thread and received on the transport's thread; the election state is guarded by
+ * the service's lock and the followed frame is published through a volatile field, so the sync engines read it
+ * without locking.
+ */
+public class RealEnvSyncClusterService implements Runnable {
+
+    private final Logger logger;
+    private final RealEnvSyncScheduler scheduler;
+    private final Settings settings;
+    private final ClusterTransport transport;
+    private final Clock clock;
+    private final Metrics metrics;
+    private final Supplier<@Nullable RealEnvSyncAutoSyncEngine> autoSyncEngine;
+    private final Supplier<@Nullable RealEnvSyncWeatherSyncEngine> weatherSyncEngine;
+    private final long nodeId;
+    private final long leaseMillis;
+    private final SecretKey key;
+    private RealEnvSyncScheduler.@Nullable Task task;
+
+    // Guarded by this
+    private long startedAtMillis;
+    private long term;
+    private long sequence;
+    private boolean leading;
+    private @Nullable SyncFrame leaderFrame;
+    // Written under the lock, read without it by the sync engines
+    private volatile long leaderHeardAtMillis;
+    private volatile @Nullable SyncFrame followed;
+
+    /**
+     * @param autoSyncEngine    The auto sync engine in effect, if any, whose ticks are sent while leading.
+     * @param weatherSyncEngine The weather sync engine in effect, if any, whose weather is sent while leading.
+     */
+    public RealEnvSyncClusterService(final @NonNull Logger logger, final @NonNull RealEnvSyncScheduler scheduler,
+                                     final @NonNull Settings settings, final @NonNull ClusterTransport transport,
+                                     final @NonNull Clock clock, final @NonNull Metrics metrics,
+                                     final @NonNull Supplier<@Nullable RealEnvSyncAutoSyncEngine> autoSyncEngine,
+                                     final @NonNull Supplier<@Nullable RealEnvSyncWeatherSyncEngine>
+                                             weatherSyncEngine) {
+        this.logger = logger;
+        this.scheduler = scheduler;
+        this.settings = settings;
+        this.transport = transport;
+        this.clock = clock;
+        this.metrics = metrics;
+        this.autoSyncEngine = autoSyncEngine;
+        this.weatherSyncEngine = weatherSyncEngine;
+        this.nodeId = settings.nodeId() != 0 ? settings.nodeId() : ThreadLocalRandom.current().nextLong(1,
+                Long.MAX_VALUE);
+        this.leaseMillis = settings.lease().toMillis();
+        this.key = SyncFrame.key(settings.secret());
+    }
+
+    public @NonNull Settings settings() {
+        return settings;
+    }
+
+    public long nodeId() {
+        return nodeId;
+    }
+
+    public void start() {
+        if (task != null) {
+            throw new IllegalStateException("Cluster sync is already running.");
+        }
+        synchronized (this) {
+            startedAtMillis = clock.millis();
+        }
+        transport.receive(this::receive);
+        task = scheduler.runGlobalTimer(this, 0, settings.periodTicks());
+    }
+
+    /**
+     * Stops sending and following and closes the transport; the followers elect a new leader after the lease.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        transport.close();
+        synchronized (this) {
+            leading = false;
+            leaderFrame = null;
+        }
+        followed = null;
+    }
+
+    /**
+     * The frame of the leader while this node follows a live one, otherwise {@code null}. Safe to call from any
+     * thread.
+     */
+    public @Nullable SyncFrame followed() {
+        final @Nullable SyncFrame frame = followed;
+        if (frame == null || clock.millis() - leaderHeardAtMillis > leaseMillis) {
+            return null;
+        }
+        return frame;
+    }
+
+    public synchronized boolean leading() {
+        return leading;
+    }
+
+    @Override
+    public void run() {
+        final long now = clock.millis();
+        final long frameTerm;
+        final long frameSequence;
+        synchronized (this) {
+            if (!leading && now - startedAtMillis >= leaseMillis && (leaderExpired(now)
+                    || nodeId < leaderFrame.nodeId())) {
+                leading = true;
+                term = now;
+                sequence = 0;
+                leaderFrame = null;
+                followed = null;
+                logger.info(() -> "Leading the cluster as node " + nodeId + ".");
+            }
+            if (!leading) {
+                return;
+            }
+            frameTerm = term;
+            frameSequence = ++sequence;
+        }
+
+        final @Nullable RealEnvSyncAutoSyncEngine autoSync = autoSyncEngine.get();
+        final @Nullable RealEnvSyncWeatherSyncEngine weatherSync = weatherSyncEngine.get();
+        final int ticks = autoSync == null ? SyncFrame.NO_TICKS : autoSync.localTargetTicks();
+        final Map<GeoLocation, Weather> weathers = weatherSync == null ? Map.of() : weatherSync.freshWeathers();
+        final SyncFrame frame = new SyncFrame(nodeId, frameTerm, frameSequence, now, ticks, weathers);
+        try {
+            transport.send(frame.encode(key));
+            metrics.increment(Metrics.Counter.CLUSTER_FRAMES_SENT);
+        } catch (final IOException e) {
+            logger.log(Level.WARNING, e, () -> "Error sending a cluster frame.");
+        }
+    }
+
+    private boolean leaderExpired(final long now) {
+        return leaderFrame == null || now - leaderHeardAtMillis > leaseMillis;
+    }
+
+    private void receive(final byte @NonNull [] bytes) {
+        final SyncFrame frame;
+        try {
+            frame = SyncFrame.decode(bytes, key);
+        } catch (final IllegalArgumentException e) {
+            metrics.increment(Metrics.Counter.CLUSTER_FRAMES_DROPPED);
+            return;
+        }
+        if (frame.nodeId() == nodeId) {
+            // Our own frame, sent back by a peer list that includes this server
+            return;
+        }
+
+        final long now = clock.millis();
+        synchronized (this) {
+            final boolean accepted;
+            if (leading) {
+                accepted = frame.nodeId() < nodeId;
+                if (accepted) {
+                    leading = false;
+                }
+            } else if (leaderExpired(now) || frame.nodeId() < leaderFrame.nodeId()) {
+                accepted = true;
+            } else {
+                accepted = frame.nodeId() == leaderFrame.nodeId() && frame.isNewerThan(leaderFrame);
+            }
+            if (!accepted) {
+                metrics.increment(Metrics.Counter.CLUSTER_FRAMES_DROPPED);
+                return;
+            }
+
+            final boolean newLeader = leaderFrame == null || leaderFrame.nodeId() != frame.nodeId();
+            leaderFrame = frame;
+            leaderHeardAtMillis = now;
+            followed = frame;
+            if (newLeader) {
+                logger.info(() -> "Following cluster node " + frame.nodeId() + ".");
+            }
+        }
+        metrics.increment(Metrics.Counter.CLUSTER_FRAMES_RECEIVED);
+    }
+
+    /**
+     * @param nodeId      The lowest ID among the live nodes leads, 0 for a random ID.
+     * @param periodTicks Ticks between two frames of the leader.
+     * @param lease       A leader not heard from for this long is replaced.
+     * @param bind        The address frames are received on, this server's address on the private network.
+     * @param peers       {@code host:port} of the other servers, frames are sent to each of them and only received
+     *                    from them.
+     * @param secret      Shared by all servers of the cluster, frames are signed with it.
+     */
+    public record Settings(boolean enabled, @NonNegative long nodeId, @Positive long periodTicks,
+                           @NonNull Duration lease, @NonNull String bind, int port, @NonNull List<String> peers,
+                           @NonNull String secret) {
+
+        private static final int MIN_SECRET_LENGTH = 16;
+
+        public Settings {
+            peers = List.copyOf(peers);
+            if (nodeId < 0) {
+                throw new IllegalArgumentException("Node ID must not be negative: " + nodeId);
+            } else if (periodTicks <= 0) {
+                throw new IllegalArgumentException("Period must be positive: " + periodTicks);
+            } else if (lease.toMillis() <= periodTicks * 50) {
+                throw new IllegalArgumentException("Lease must be longer than the period: " + lease);
+            } else if (port < 1 || port > 65535) {
+                throw new IllegalArgumentException("Port must be between 1 and 65535: " + port);
+            } else if (bind.isBlank()) {
+                throw new IllegalArgumentException("Bind address must not be empty.");
+            } else if (enabled && secret.length() < MIN_SECRET_LENGTH) {
+                throw new IllegalArgumentException("Secret must be at least " + MIN_SECRET_LENGTH
+                        + " characters when cluster sync is enabled.");
+            }
+            for (final String peer : peers) {
+                address(peer);
+            }
+        }
+
+        public static @NonNull Settings from(final @Nullable ConfigurationSection section) {
+            if (section == null) {
+                return new Settings(false, 0, 20, Duration.ofSeconds(5), "127.0.0.1", 25590, List.of(), "");
+            }
+            return new Settings(
+                    section.getBoolean("enabled", false),
+                    section.getLong("node-id", 0),
+                    section.getLong("period-ticks", 20),
+                    Duration.ofSeconds(section.getLong("lease-seconds", 5)),
+                    section.getString("bind", "127.0.0.1"),
+                    section.getInt("port", 25590),
+                    section.getStringList("peers"),
+                    section.getString("secret", ""));
+        }
+
+        @Override
+        public @NonNull String toString() {
+            // Without the secret, which must not end up in logs
+            return "Settings[enabled=" + enabled + ", nodeId=" + nodeId + ", periodTicks=" + periodTicks + ", lease="
+                    + lease + ", bind=" + bind + ", port=" + port + ", peers=" + peers + "]";
+        }
+
+        public @NonNull InetSocketAddress bindAddress() {
+            return new InetSocketAddress(bind, port);
+        }
+
+        /**
+         * Resolves the peers, so each frame is sent without a lookup.
+         */
+        public @NonNull List<InetSocketAddress> peerAddresses() {
+            final List<InetSocketAddress> addresses = new ArrayList<>(peers.size());
+            for (final String peer : peers) {
+                final InetSocketAddress address = address(peer);
+                addresses.add(new InetSocketAddress(address.getHostString(), address.getPort()));
+            }
+            return addresses;
+        }
+
+        private static @NonNull InetSocketAddress address(final @NonNull String peer) {
+            final int colon = peer.lastIndexOf(':');
+            if (colon <= 0 || colon == peer.length() - 1) {
+                throw new IllegalArgumentException("Peer must be host:port: " + peer);
+            }
+            final int port;
+            try {
+                port = Integer.parseInt(peer.substring(colon + 1));
+            } catch (final NumberFormatException e) {
+                throw new IllegalArgumentException("Peer must be host:port: " + peer, e);
+            }
+            if (port < 1 || port > 65535) {
+                throw new IllegalArgumentException("Port must be between 1 and 65535: " + peer);
+            }
+            return InetSocketAddress.createUnresolved(peer.substring(0, colon), port);
+        }
+    }
+}
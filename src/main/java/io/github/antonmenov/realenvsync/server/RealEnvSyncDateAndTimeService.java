@@ -1,56 +1,172 @@
 package io.github.antonmenov.realenvsync.server;
 
+import io.github.antonmenov.realenvsync.api.RealEnvSyncEvents;
+import io.github.antonmenov.realenvsync.api.RealEnvSyncTimeApplyEvent;
+import io.github.antonmenov.realenvsync.metrics.Metrics;
+import io.github.antonmenov.realenvsync.utils.MoonPhases;
 import io.github.antonmenov.realenvsync.utils.TimeConvert;
-import org.bukkit.Server;
 import org.bukkit.World;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.temporal.Temporal;
+import java.util.List;
+
+import static io.github.antonmenov.realenvsync.plugin.Constants.MINECRAFT_DAY_LENGTH;
+import static io.github.antonmenov.realenvsync.plugin.Constants.MINECRAFT_MOON_CYCLE_LENGTH;
 
 public class RealEnvSyncDateAndTimeService {
 
-    private final Server server;
+    private final RealEnvSyncWorldRegistry worldRegistry;
+    private final MoonPhases moonPhases;
+    private final Metrics metrics;
+
+    public RealEnvSyncDateAndTimeService(final @NonNull RealEnvSyncWorldRegistry worldRegistry,
+                                         final @NonNull MoonPhases moonPhases) {
+        this(worldRegistry, moonPhases, new Metrics());
+    }
 
-    public RealEnvSyncDateAndTimeService(final @NonNull Server server) {
-        this.server = server;
+    public RealEnvSyncDateAndTimeService(final @NonNull RealEnvSyncWorldRegistry worldRegistry,
+                                         final @NonNull MoonPhases moonPhases, final @NonNull Metrics metrics) {
+        this.worldRegistry = worldRegistry;
+        this.moonPhases = moonPhases;
+        this.metrics = metrics;
     }
 
     public @NonNull Result handleTwoArgument(final @NonNull String worldName, final @NonNull Action action,
                                              final @NonNull Temporal temporal) {
-        final @Nullable World world = server.getWorld(worldName);
+        return handleTwoArgument(worldName, action, temporal, ZoneOffset.UTC);
+    }
+
+    /**
+     * @param zone The zone of a {@link LocalDateTime}, so the moon phase is taken at the right instant even across
+     *             DST changes. A time of day does not depend on it.
+     */
+    public @NonNull Result handleTwoArgument(final @NonNull String worldName, final @NonNull Action action,
+                                             final @NonNull Temporal temporal, final @NonNull ZoneId zone) {
+        return apply(worldName, action, ticksOf(action, temporal, zone));
+    }
+
+    public @NonNull MoonPhases moonPhases() {
+        return moonPhases;
+    }
+
+    public boolean hasWorld(final @NonNull String worldName) {
+        return worldRegistry.get(worldName) != null;
+    }
+
+    /**
+     * Names of the loaded worlds in alphabetical order, cached until a world is loaded or unloaded.
+     */
+    public @NonNull List<String> worldNames() {
+        return worldRegistry.worldNames();
+    }
+
+    /**
+     * Converts the given time to ticks without touching any world, so it is safe to call from any thread.
+     *
+     * @param zone The zone of a {@link LocalDateTime}, so the moon phase is taken at the right instant.
+     * @return The ticks, or {@code null} if the temporal does not match the action.
+     */
+    public @Nullable Integer ticksOf(final @NonNull Action action, final @NonNull Temporal temporal,
+                                     final @NonNull ZoneId zone) {
+        return switch (action) {
+            case TIME -> temporal instanceof LocalTime parse
+                    ? TimeConvert.convertToTicks(parse.atOffset(ZoneOffset.UTC)) : null;
+            case DATETIME -> temporal instanceof LocalDateTime parse
+                    ? TimeConvert.convertToTicks(parse.atZone(zone), moonPhases) : null;
+        };
+    }
+
+    /**
+     * Writes ticks computed by {@link #ticksOf} for a command to the world, skipping the write if the clock already
+     * shows them. Must be called on the main thread.
+     */
+    public @NonNull Result apply(final @NonNull String worldName, final @NonNull Action action,
+                                 final @Nullable Integer ticks) {
+        return apply(worldName, action, ticks, RealEnvSyncTimeApplyEvent.Cause.COMMAND);
+    }
+
+    /**
+     * @param cause Passed on to the {@link RealEnvSyncTimeApplyEvent}, which can cancel the write.
+     */
+    public @NonNull Result apply(final @NonNull String worldName, final @NonNull Action action,
+                                 final @Nullable Integer ticks, final RealEnvSyncTimeApplyEvent.@NonNull Cause cause) {
+        final @Nullable World world = worldRegistry.get(worldName);
         if (world == null) {
+            metrics.increment(Metrics.Counter.WORLD_LOOKUP_MISSES);
             return new Result(ResultType.INVALID_WORLD, null);
+        } else if (ticks == null) {
+            return new Result(ResultType.INVALID_ACTION, null);
         }
 
         switch (action) {
             case TIME -> {
-                if (temporal instanceof LocalTime parse) {
-                    final int time = TimeConvert.convertToTicks(parse.atOffset(ZoneOffset.UTC));
-                    world.setTime(time);
-                    return new Result(ResultType.TIME_SET, time);
+                if (world.getTime() != ticks) {
+                    // The clock moves forward to the time of day, like World#setTime does
+                    final long fullTime = world.getFullTime();
+                    if (!RealEnvSyncEvents.callTimeApply(world, fullTime,
+                            fullTime + Math.floorMod(ticks - fullTime, MINECRAFT_DAY_LENGTH), cause)) {
+                        return new Result(ResultType.CANCELLED, ticks);
+                    }
+                    world.setTime(ticks);
+                    metrics.increment(Metrics.Counter.CLOCK_WRITES);
                 }
+                return new Result(ResultType.TIME_SET, ticks);
             }
             case DATETIME -> {
-                if (temporal instanceof LocalDateTime parse) {
-                    final int time = TimeConvert.convertToTicks(parse.atOffset(ZoneOffset.UTC));
-                    world.setFullTime(time);
-                    return new Result(ResultType.DATETIME_SET, time);
+                if (world.getFullTime() != ticks) {
+                    if (!RealEnvSyncEvents.callTimeApply(world, world.getFullTime(), ticks, cause)) {
+                        return new Result(ResultType.CANCELLED, ticks);
+                    }
+                    world.setFullTime(ticks);
+                    metrics.increment(Metrics.Counter.CLOCK_WRITES);
                 }
+                return new Result(ResultType.DATETIME_SET, ticks);
             }
         }
         return new Result(ResultType.INVALID_ACTION, null);
     }
 
+    /**
+     * Returns the shortest signed distance from the world clock to the given ticks.
+     *
+     * @param action {@link Action#TIME} compares the time of day, {@link Action#DATETIME} also the moon phase.
+     * @param ticks  The target ticks as returned by {@link TimeConvert}.
+     */
+    public long driftOf(final @NonNull World world, final @NonNull Action action, final int ticks) {
+        final int cycleLength = switch (action) {
+            case TIME -> MINECRAFT_DAY_LENGTH;
+            case DATETIME -> MINECRAFT_MOON_CYCLE_LENGTH;
+        };
+        return TimeConvert.signedTickDelta(world.getFullTime(), ticks, cycleLength);
+    }
+
+    /**
+     * Moves the world clock by the given ticks for auto sync, keeping the day counter.
+     *
+     * @return {@code false} if a listener of {@link RealEnvSyncTimeApplyEvent} cancelled the write.
+     */
+    public boolean moveClock(final @NonNull World world, final long deltaTicks) {
+        final long fullTime = world.getFullTime();
+        if (!RealEnvSyncEvents.callTimeApply(world, fullTime, fullTime + deltaTicks,
+                RealEnvSyncTimeApplyEvent.Cause.AUTO_SYNC)) {
+            return false;
+        }
+        world.setFullTime(fullTime + deltaTicks);
+        return true;
+    }
+
     public enum Action {
         TIME, DATETIME
     }
 
     public enum ResultType {
-        TIME_SET, DATETIME_SET, INVALID_ACTION, INVALID_WORLD
+        TIME_SET, DATETIME_SET, INVALID_ACTION, INVALID_WORLD, CANCELLED
     }
 
     public record Result(@NonNull ResultType type, @Nullable Integer ticks) {
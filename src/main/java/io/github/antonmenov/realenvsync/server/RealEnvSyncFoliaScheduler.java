@@ -0,0 +1,117 @@
+package io.github.antonmenov.realenvsync.server;
+
+import org.bukkit.Server;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.Consumer;
+
+/**
+ * Runs world work on Folia's global region scheduler and player work on each player's entity scheduler.
+ * <p>
+ * The plugin is compiled against the Spigot API, so the Folia schedulers are reached through reflection.
+ * The methods are looked up once, calls only go through {@link Method#invoke}.
+ */
+public class RealEnvSyncFoliaScheduler implements RealEnvSyncScheduler {
+
+    private static final String REGIONIZED_SERVER = "io.papermc.paper.threadedregions.RegionizedServer";
+    private static final String SCHEDULER_PACKAGE = "io.papermc.paper.threadedregions.scheduler.";
+
+    private final Plugin plugin;
+    private final Object globalRegionScheduler;
+    private final Method globalRun;
+    private final Method globalRunAtFixedRate;
+    private final Method isGlobalTickThread;
+    private final Method isOwnedByCurrentRegion;
+    private final Method getEntityScheduler;
+    private final Method entityRun;
+    private final Method cancel;
+
+    public RealEnvSyncFoliaScheduler(final @NonNull Plugin plugin) {
+        this.plugin = plugin;
+        try {
+            final Class<?> globalType = Class.forName(SCHEDULER_PACKAGE + "GlobalRegionScheduler");
+            final Class<?> entityType = Class.forName(SCHEDULER_PACKAGE + "EntityScheduler");
+            final Class<?> taskType = Class.forName(SCHEDULER_PACKAGE + "ScheduledTask");
+            this.globalRegionScheduler = Server.class.getMethod("getGlobalRegionScheduler").invoke(plugin.getServer());
+            this.globalRun = globalType.getMethod("run", Plugin.class, Consumer.class);
+            this.globalRunAtFixedRate = globalType.getMethod("runAtFixedRate", Plugin.class, Consumer.class,
+                    long.class, long.class);
+            this.isGlobalTickThread = Server.class.getMethod("isGlobalTickThread");
+            this.isOwnedByCurrentRegion = Server.class.getMethod("isOwnedByCurrentRegion", Entity.class);
+            this.getEntityScheduler = Entity.class.getMethod("getScheduler");
+            this.entityRun = entityType.getMethod("run", Plugin.class, Consumer.class, Runnable.class);
+            this.cancel = taskType.getMethod("cancel");
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException("Folia schedulers are not available.", e);
+        }
+    }
+
+    public static boolean isSupported() {
+        try {
+            Class.forName(REGIONIZED_SERVER);
+            return true;
+        } catch (final ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public @NonNull Task runGlobalTimer(final @NonNull Runnable task, final long delayTicks, final long periodTicks) {
+        // Folia rejects an initial delay below one tick
+        final Object scheduled = invoke(globalRunAtFixedRate, globalRegionScheduler, plugin, consumer(task),
+                Math.max(1, delayTicks), periodTicks);
+        return () -> invoke(cancel, scheduled);
+    }
+
+    @Override
+    public void runGlobal(final @NonNull Runnable task) {
+        invoke(globalRun, globalRegionScheduler, plugin, consumer(task));
+    }
+
+    @Override
+    public void executeGlobal(final @NonNull Runnable task) {
+        if (Boolean.TRUE.equals(invoke(isGlobalTickThread, plugin.getServer()))) {
+            task.run();
+        } else {
+            runGlobal(task);
+        }
+    }
+
+    @Override
+    public void executeFor(final @NonNull Entity entity, final @NonNull Runnable task) {
+        if (Boolean.TRUE.equals(invoke(isOwnedByCurrentRegion, plugin.getServer(), entity))) {
+            task.run();
+            return;
+        }
+        // A null task means the entity was removed, so there is nothing left to update
+        invoke(entityRun, invoke(getEntityScheduler, entity), plugin, consumer(task), null);
+    }
+
+    @Override
+    public @NonNull String name() {
+        return "Folia";
+    }
+
+    private static @NonNull Consumer<Object> consumer(final @NonNull Runnable task) {
+        return scheduledTask -> task.run();
+    }
+
+    private static @Nullable Object invoke(final @NonNull Method method, final @Nullable Object target,
+                                           final @Nullable Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (final IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (final InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package io.github.antonmenov.realenvsync.server;
+
+import io.github.antonmenov.realenvsync.metrics.Metrics;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Two-stage pipeline that keeps expensive work off the server thread.
+ * <p>
+ * Stage one computes on a worker pool. Its results are handed over through a lock-free queue to stage two,
+ * a single task on the server thread that drains everything queued since the last tick and applies it as one
+ * batch. Updates for the same target are coalesced so only the latest one is applied, and the apply step
+ * is expected to write only values that differ from the current ones.
+ * <p>
+ * The server thread task is only scheduled while there is something to apply.
+ */
+public class RealEnvSyncPipeline implements Runnable {
+
+    private final Logger logger;
+    private final ExecutorService workers;
+    private final Executor mainThread;
+    private final Queue<Update> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Metrics metrics;
+    private volatile boolean stopped;
+
+    /**
+     * @param workers    Runs stage one, shut down by {@link #stop()}.
+     * @param mainThread Runs a task on the next server tick, e.g. through the Bukkit scheduler.
+     */
+    public RealEnvSyncPipeline(final @NonNull Logger logger, final @NonNull ExecutorService workers,
+                               final @NonNull Executor mainThread, final @NonNull Metrics metrics) {
+        this.logger = logger;
+        this.workers = workers;
+        this.mainThread = mainThread;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Computes on a worker thread and applies the result on the server thread.
+     *
+     * @param target  Key of the value the update writes; of several queued updates with the same target only the
+     *                latest is applied. {@code null} for updates that must all be applied, e.g. command replies.
+     * @param compute Stage one, must not touch the Bukkit API.
+     * @param apply   Stage two, run on the server thread with the computed value.
+     */
+    public <T> void submit(final @Nullable Object target, final @NonNull Supplier<T> compute,
+                           final @NonNull Consumer<? super T> apply) {
+        if (stopped) {
+            return;
+        }
+        try {
+            CompletableFuture.supplyAsync(compute, workers).whenComplete((value, error) -> {
+                if (error != null) {
+                    logger.log(Level.WARNING, error, () -> "Error computing " + (target == null ? "update" : target));
+                } else {
+                    offer(target, () -> apply.accept(value));
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            // Stopped concurrently, the update is dropped like any submitted after stop
+        }
+    }
+
+    /**
+     * Queues an already computed update for the next batch. Safe to call from any thread.
+     *
+     * @param target Key of the value the update writes, see {@link #submit}.
+     */
+    public void offer(final @Nullable Object target, final @NonNull Runnable apply) {
+        if (stopped) {
+            return;
+        }
+        pending.offer(new Update(target, apply));
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                mainThread.execute(this);
+            } catch (final RuntimeException e) {
+                // The plugin is being disabled and can no longer schedule tasks
+                scheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Applies every queued update as one batch. Must be called on the server thread.
+     */
+    @Override
+    public void run() {
+        // Cleared before draining, so an update offered meanwhile either makes this batch or schedules the next
+        scheduled.set(false);
+        final long start = System.nanoTime();
+        final List<Update> batch = new ArrayList<>();
+        for (Update update = pending.poll(); update != null; update = pending.poll()) {
+            batch.add(update);
+        }
+        if (batch.isEmpty() || stopped) {
+            return;
+        }
+
+        final Map<Object, Integer> latest = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            final @Nullable Object target = batch.get(i).target();
+            if (target != null) {
+                latest.put(target, i);
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            final Update update = batch.get(i);
+            if (update.target() != null && latest.get(update.target()) != i) {
+                metrics.increment(Metrics.Counter.PIPELINE_COALESCED);
+                continue;
+            }
+            try {
+                update.apply().run();
+                metrics.increment(Metrics.Counter.PIPELINE_UPDATES);
+            } catch (final RuntimeException e) {
+                logger.log(Level.WARNING, e, () -> "Error applying " + (update.target() == null ? "update"
+                        : update.target()));
+            }
+        }
+        metrics.record(Metrics.Timer.APPLY_BATCH, System.nanoTime() - start);
+    }
+
+    public void stop() {
+        stopped = true;
+        workers.shutdownNow();
+        pending.clear();
+    }
+
+    /**
+     * Key of the value an update writes in a world, for {@link #submit} and {@link #offer}.
+     */
+    public record Target(@NonNull String world, @NonNull Kind kind) {
+    }
+
+    public enum Kind {
+        WEATHER
+    }
+
+    private record Update(@Nullable Object target, @NonNull Runnable apply) {
+    }
+}
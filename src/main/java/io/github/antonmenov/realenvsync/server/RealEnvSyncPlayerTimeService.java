@@ -0,0 +1,306 @@
+package io.github.antonmenov.realenvsync.server;
+
+import io.github.antonmenov.realenvsync.metrics.Metrics;
+import io.github.antonmenov.realenvsync.metrics.SyncCycleEvent;
+import io.github.antonmenov.realenvsync.utils.DayTicks;
+import io.github.antonmenov.realenvsync.utils.MoonPhases;
+import io.github.antonmenov.realenvsync.utils.TimeConvert;
+import io.github.antonmenov.realenvsync.utils.ZoneOffsets;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Shows opted-in players the real time of their own time zone with {@link Player#setPlayerTime(long, boolean)}.
+ * <p>
+ * Players are grouped by time zone and the zones by their current offset, so ticks are computed once per offset
+ * bucket and players are updated only when the ticks of their bucket change.
+ * <p>
+ * The groups and settings are only read and changed on the thread of the global timer, while each player's time
+ * is set on the thread that owns the player, which differ on Folia.
+ */
+public class RealEnvSyncPlayerTimeService implements Listener, Runnable {
+
+    private final Plugin plugin;
+    private final RealEnvSyncScheduler scheduler;
+    private final Metrics metrics;
+    private final Clock clock;
+    private Settings settings;
+    private MoonPhases moonPhases;
+    private final NamespacedKey zoneKey;
+    private final Map<UUID, ZoneGroup> groupsByPlayer = new HashMap<>();
+    private final Map<ZoneId, ZoneGroup> groupsByZone = new HashMap<>();
+    private final Map<Integer, OffsetBucket> bucketsByOffset = new HashMap<>();
+    private RealEnvSyncScheduler.@Nullable Task task;
+
+    public RealEnvSyncPlayerTimeService(final @NonNull Plugin plugin, final @NonNull RealEnvSyncScheduler scheduler,
+                                        final @NonNull Metrics metrics, final @NonNull Settings settings,
+                                        final @NonNull Clock clock, final @NonNull MoonPhases moonPhases) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+        this.settings = settings;
+        this.clock = clock;
+        this.moonPhases = moonPhases;
+        this.zoneKey = new NamespacedKey(plugin, "zone");
+    }
+
+    public void start() {
+        if (task != null) {
+            throw new IllegalStateException("Player time sync is already running.");
+        }
+        for (final Player player : plugin.getServer().getOnlinePlayers()) {
+            loadZone(player);
+        }
+        task = scheduler.runGlobalTimer(this, 0, settings.periodTicks());
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        for (final ZoneGroup group : groupsByZone.values()) {
+            for (final Player player : group.players) {
+                scheduler.executeFor(player, player::resetPlayerTime);
+            }
+        }
+        groupsByPlayer.clear();
+        groupsByZone.clear();
+        bucketsByOffset.clear();
+    }
+
+    /**
+     * Replaces the settings on the global thread, forcing every player to be updated on the next run.
+     */
+    public void reconfigure(final @NonNull Settings settings, final @NonNull MoonPhases moonPhases) {
+        scheduler.executeGlobal(() -> {
+            final boolean periodChanged = settings.periodTicks() != this.settings.periodTicks();
+            this.settings = settings;
+            this.moonPhases = moonPhases;
+            for (final OffsetBucket bucket : bucketsByOffset.values()) {
+                bucket.ticks = -1;
+            }
+            if (task != null && periodChanged) {
+                task.cancel();
+                task = scheduler.runGlobalTimer(this, 0, settings.periodTicks());
+            }
+        });
+    }
+
+    /**
+     * Opts the player in with the given zone and remembers it across restarts.
+     */
+    public void setZone(final @NonNull Player player, final @NonNull ZoneId zone) {
+        player.getPersistentDataContainer().set(zoneKey, PersistentDataType.STRING, zone.getId());
+        scheduler.executeGlobal(() -> track(player, zone));
+    }
+
+    /**
+     * Opts the player out and shows them the world time again.
+     */
+    public void clearZone(final @NonNull Player player) {
+        player.getPersistentDataContainer().remove(zoneKey);
+        scheduler.executeGlobal(() -> {
+            untrack(player);
+            // Queued after any time the timer set before the untrack, so the reset wins
+            scheduler.executeFor(player, player::resetPlayerTime);
+        });
+    }
+
+    /**
+     * Passes the zone of the player, {@code null} if they have not opted in, to the callback on the global thread.
+     */
+    public void getZone(final @NonNull Player player, final @NonNull Consumer<@Nullable ZoneId> callback) {
+        scheduler.executeGlobal(() -> {
+            final @Nullable ZoneGroup group = groupsByPlayer.get(player.getUniqueId());
+            callback.accept(group == null ? null : group.zone);
+        });
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(final @NonNull PlayerJoinEvent event) {
+        loadZone(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(final @NonNull PlayerQuitEvent event) {
+        final Player player = event.getPlayer();
+        scheduler.executeGlobal(() -> untrack(player));
+    }
+
+    @Override
+    public void run() {
+        final long start = System.nanoTime();
+        final SyncCycleEvent event = new SyncCycleEvent();
+        event.begin();
+        int players = 0;
+        int writes = 0;
+        final long millis = clock.millis();
+        final long epochSecond = Math.floorDiv(millis, 1000);
+        final int nanoOfSecond = (int) Math.floorMod(millis, 1000) * 1_000_000;
+        for (final ZoneGroup group : groupsByZone.values()) {
+            final int offsetSeconds = group.zoneOffsets.offsetAt(epochSecond);
+            if (group.bucket.offsetSeconds != offsetSeconds) {
+                moveGroup(group, bucketFor(offsetSeconds));
+            }
+        }
+
+        final Iterator<OffsetBucket> buckets = bucketsByOffset.values().iterator();
+        while (buckets.hasNext()) {
+            final OffsetBucket bucket = buckets.next();
+            if (bucket.groups.isEmpty()) {
+                buckets.remove();
+                continue;
+            }
+            final int ticks = TimeConvert.convertToTicks(epochSecond, nanoOfSecond, bucket.offsetSeconds, moonPhases,
+                    DayTicks.LINEAR);
+            for (int i = 0; i < bucket.groups.size(); i++) {
+                players += bucket.groups.get(i).players.size();
+            }
+            if (ticks == bucket.ticks) {
+                continue;
+            }
+            bucket.ticks = ticks;
+            for (int i = 0; i < bucket.groups.size(); i++) {
+                for (final Player player : bucket.groups.get(i).players) {
+                    setPlayerTime(player, ticks);
+                    writes++;
+                }
+            }
+        }
+
+        metrics.add(Metrics.Counter.PLAYER_TIME_WRITES, writes);
+        metrics.record(Metrics.Timer.PLAYER_TIME_TICK, System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.engine = "player-time";
+            event.targets = players;
+            event.writes = writes;
+            event.commit();
+        }
+    }
+
+    private void loadZone(final @NonNull Player player) {
+        final @Nullable String zoneId = player.getPersistentDataContainer().get(zoneKey, PersistentDataType.STRING);
+        if (zoneId == null) {
+            return;
+        }
+        try {
+            final ZoneId zone = ZoneId.of(zoneId);
+            scheduler.executeGlobal(() -> track(player, zone));
+        } catch (final DateTimeException e) {
+            plugin.getLogger().warning("Ignoring unknown time zone " + zoneId + " of " + player.getName());
+        }
+    }
+
+    private void track(final @NonNull Player player, final @NonNull ZoneId zone) {
+        untrack(player);
+        final ZoneGroup group = groupsByZone.computeIfAbsent(zone, key -> {
+            final ZoneGroup created = new ZoneGroup(key, ZoneOffsets.of(key));
+            final int offsetSeconds = created.zoneOffsets.offsetAt(Math.floorDiv(clock.millis(), 1000));
+            moveGroup(created, bucketFor(offsetSeconds));
+            return created;
+        });
+        group.players.add(player);
+        groupsByPlayer.put(player.getUniqueId(), group);
+        if (group.bucket.ticks >= 0) {
+            setPlayerTime(player, group.bucket.ticks);
+        }
+    }
+
+    private void untrack(final @NonNull Player player) {
+        final @Nullable ZoneGroup group = groupsByPlayer.remove(player.getUniqueId());
+        if (group == null) {
+            return;
+        }
+        group.players.remove(player);
+        if (group.players.isEmpty()) {
+            groupsByZone.remove(group.zone);
+            group.bucket.groups.remove(group);
+        }
+    }
+
+    private @NonNull OffsetBucket bucketFor(final int offsetSeconds) {
+        return bucketsByOffset.computeIfAbsent(offsetSeconds, OffsetBucket::new);
+    }
+
+    private void setPlayerTime(final @NonNull Player player, final int ticks) {
+        scheduler.executeFor(player, () -> player.setPlayerTime(ticks, false));
+    }
+
+    private void moveGroup(final @NonNull ZoneGroup group, final @NonNull OffsetBucket bucket) {
+        if (group.bucket != null) {
+            group.bucket.groups.remove(group);
+        }
+        group.bucket = bucket;
+        bucket.groups.add(group);
+        if (bucket.ticks >= 0) {
+            for (final Player player : group.players) {
+                setPlayerTime(player, bucket.ticks);
+            }
+        }
+    }
+
+    private static final class ZoneGroup {
+
+        private final ZoneId zone;
+        private final ZoneOffsets zoneOffsets;
+        private final Set<Player> players = new LinkedHashSet<>();
+        private OffsetBucket bucket;
+
+        private ZoneGroup(final @NonNull ZoneId zone, final @NonNull ZoneOffsets zoneOffsets) {
+            this.zone = zone;
+            this.zoneOffsets = zoneOffsets;
+        }
+    }
+
+    private static final class OffsetBucket {
+
+        private final int offsetSeconds;
+        private final List<ZoneGroup> groups = new ArrayList<>();
+        private int ticks = -1;
+
+        private OffsetBucket(final int offsetSeconds) {
+            this.offsetSeconds = offsetSeconds;
+        }
+    }
+
+    public record Settings(boolean enabled, @Positive long periodTicks) {
+
+        public Settings {
+            if (periodTicks <= 0) {
+                throw new IllegalArgumentException("Period must be positive: " + periodTicks);
+            }
+        }
+
+        public static @NonNull Settings from(final @Nullable ConfigurationSection section) {
+            if (section == null) {
+                return new Settings(false, 20);
+            }
+            return new Settings(section.getBoolean("enabled", false), section.getLong("period-ticks", 20));
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package io.github.antonmenov.realenvsync.server;
+
+import io.github.antonmenov.realenvsync.api.RealEnvSyncTimeApplyEvent;
+import io.github.antonmenov.realenvsync.utils.ReplayTimeline;
+import io.github.antonmenov.realenvsync.utils.ZoneOffsets;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static io.github.antonmenov.realenvsync.server.RealEnvSyncDateAndTimeService.Action;
+import static io.github.antonmenov.realenvsync.server.RealEnvSyncDateAndTimeService.Result;
+import static io.github.antonmenov.realenvsync.server.RealEnvSyncDateAndTimeService.ResultType;
+
+/**
+ * Plays real date ranges through worlds at an accelerated rate, moon phases included, e.g. last week's sky in
+ * an hour.
+ * <p>
+ * A replay writes the world clock on every server tick. Its ticks are converted on a worker in chunks of
+ * {@value #CHUNK_TICKS}, one chunk ahead of playback, so each replay holds two chunks however long its range is.
+ * Auto sync leaves a replayed world alone until the replay ends, see {@link #replaying}.
+ * <p>
+ * Replays run as global timers of the {@link RealEnvSyncScheduler}, the thread that owns world clocks and that
+ * auto sync runs on.
+ */
+public class RealEnvSyncReplayService {
+
+    public static final int CHUNK_TICKS = 200;
+
+    private final Logger logger;
+    private final RealEnvSyncScheduler scheduler;
+    private volatile RealEnvSyncDateAndTimeService service;
+    private final Executor workers;
+    private final Map<String, Replay> replays = new ConcurrentHashMap<>();
+
+    /**
+     * @param workers Converts the chunks ahead of playback.
+     */
+    public RealEnvSyncReplayService(final @NonNull Logger logger, final @NonNull RealEnvSyncScheduler scheduler,
+                                    final @NonNull RealEnvSyncDateAndTimeService service,
+                                    final @NonNull Executor workers) {
+        this.logger = logger;
+        this.scheduler = scheduler;
+        this.service = service;
+        this.workers = workers;
+    }
+
+    /**
+     * Replaces the service, e.g. after the moon phase source has changed; running replays keep the previous one.
+     */
+    public void reconfigure(final @NonNull RealEnvSyncDateAndTimeService service) {
+        this.service = service;
+    }
+
+    /**
+     * Starts replaying the range in the world on the next global tick, replacing a replay already running there.
+     * Safe to call from any thread.
+     *
+     * @param speed How many real seconds pass per second of playback.
+     * @param onEnd Called on the global thread when the replay has played to the end or was stopped.
+     * @throws IllegalArgumentException If the range is empty or the speed is not positive.
+     */
+    public void start(final @NonNull String worldName, final @NonNull LocalDateTime from,
+                      final @NonNull LocalDateTime to, final @Positive double speed, final @NonNull ZoneId zone,
+                      final @NonNull Runnable onEnd) {
+        final RealEnvSyncDateAndTimeService current = service;
+        final ReplayTimeline timeline = new ReplayTimeline(from.atZone(zone).toEpochSecond(),
+                to.atZone(zone).toEpochSecond(), speed, ZoneOffsets.of(zone), current.moonPhases());
+        scheduler.executeGlobal(() -> {
+            final @Nullable Replay previous = replays.get(worldName);
+            if (previous != null) {
+                previous.end();
+            }
+            final Replay replay = new Replay(worldName, current, timeline, onEnd);
+            replays.put(worldName, replay);
+            replay.task = scheduler.runGlobalTimer(replay, 0, 1);
+        });
+    }
+
+    /**
+     * Stops the replay of the world and hands its clock back to auto sync. Safe to call from any thread.
+     *
+     * @return Whether a replay was running.
+     */
+    public boolean stop(final @NonNull String worldName) {
+        final @Nullable Replay replay = replays.get(worldName);
+        if (replay == null) {
+            return false;
+        }
+        scheduler.executeGlobal(replay::end);
+        return true;
+    }
+
+    /**
+     * Ends all replays at once, e.g. when the plugin is disabled and can no longer schedule tasks.
+     */
+    public void stopAll() {
+        for (final Replay replay : new ArrayList<>(replays.values())) {
+            replay.end();
+        }
+    }
+
+    /**
+     * Whether a replay runs in the world, which auto sync then leaves alone. Kept here rather than in the auto sync
+     * engine, so it holds across an engine replaced on a reload. Safe to call from any thread.
+     */
+    public boolean replaying(final @NonNull String worldName) {
+        return replays.containsKey(worldName);
+    }
+
+    public @NonNull List<Replay> replays() {
+        final List<Replay> running = new ArrayList<>(replays.values());
+        running.sort(Comparator.comparing(Replay::worldName));
+        return running;
+    }
+
+    /**
+     * Playback of one range in one world. Only the global thread plays and ends it; chunks are filled on workers
+     * and handed over through futures.
+     */
+    public final class Replay implements Runnable {
+
+        private final String worldName;
+        private final RealEnvSyncDateAndTimeService service;
+        private final ReplayTimeline timeline;
+        private final Runnable onEnd;
+        private RealEnvSyncScheduler.@Nullable Task task;
+        // Written by the global thread only, read for progress from any thread
+        private volatile long tick;
+        private @NonNull Chunk current;
+        private @NonNull CompletableFuture<Chunk> next;
+        private boolean ended;
+
+        private Replay(final @NonNull String worldName, final @NonNull RealEnvSyncDateAndTimeService service,
+                       final @NonNull ReplayTimeline timeline, final @NonNull Runnable onEnd) {
+            this.worldName = worldName;
+            this.service = service;
+            this.timeline = timeline;
+            this.onEnd = onEnd;
+            // The first chunk is needed on the next tick already
+            this.current = new Chunk(new long[CHUNK_TICKS], new int[CHUNK_TICKS]).fill(timeline, 0);
+            this.next = fillAsync(new Chunk(new long[CHUNK_TICKS], new int[CHUNK_TICKS]), CHUNK_TICKS);
+        }
+
+        public @NonNull String worldName() {
+            return worldName;
+        }
+
+        /**
+         * The real instant the world shows.
+         */
+        public @NonNull Instant instant() {
+            return Instant.ofEpochSecond(timeline.epochSecondAt(Math.min(tick, timeline.length() - 1)));
+        }
+
+        public double progress() {
+            return (double) tick / timeline.length();
+        }
+
+        @Override
+        public void run() {
+            if (ended) {
+                return;
+            }
+            if (tick >= current.firstTick + current.count) {
+                if (tick >= timeline.length()) {
+                    end();
+                    return;
+                }
+                advance();
+            }
+
+            final int ticks = current.ticks[(int) (tick - current.firstTick)];
+            tick++;
+            final Result result = service.apply(worldName, Action.DATETIME, ticks,
+                    RealEnvSyncTimeApplyEvent.Cause.REPLAY);
+            if (result.type() == ResultType.INVALID_WORLD) {
+                end();
+            }
+        }
+
+        /**
+         * Moves on to the chunk filled ahead and starts filling the one after it into the spent chunk's buffers.
+         */
+        private void advance() {
+            final Chunk spent = current;
+            Chunk filled = next.getNow(null);
+            if (filled == null || filled.firstTick != tick) {
+                // The worker fell behind or failed, so this chunk is filled here instead of skipping ahead
+                next.cancel(false);
+                filled = new Chunk(new long[CHUNK_TICKS], new int[CHUNK_TICKS]).fill(timeline, tick);
+            }
+            current = filled;
+            next = fillAsync(spent, tick + CHUNK_TICKS);
+        }
+
+        private @NonNull CompletableFuture<Chunk> fillAsync(final @NonNull Chunk chunk, final long firstTick) {
+            final CompletableFuture<Chunk> future = CompletableFuture.supplyAsync(() -> chunk.fill(timeline,
+                    firstTick), workers);
+            future.whenComplete((filled, e) -> {
+                if (e != null && !future.isCancelled()) {
+                    logger.log(Level.WARNING, e, () -> "Error converting the replay of " + worldName);
+                }
+            });
+            return future;
+        }
+
+        private void end() {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            if (task != null) {
+                task.cancel();
+                task = null;
+            }
+            next.cancel(false);
+            replays.remove(worldName, this);
+            onEnd.run();
+        }
+    }
+
+    /**
+     * Buffers of one chunk, reused once played. A chunk is only touched by one thread at a time: the worker
+     * until its future completes, then the global thread.
+     */
+    private static final class Chunk {
+
+        private final long[] epochSeconds;
+        private final int[] ticks;
+        private long firstTick;
+        private int count;
+
+        private Chunk(final long @NonNull [] epochSeconds, final int @NonNull [] ticks) {
+            this.epochSeconds = epochSeconds;
+            this.ticks = ticks;
+        }
+
+        private @NonNull Chunk fill(final @NonNull ReplayTimeline timeline, final long firstTick) {
+            this.firstTick = firstTick;
+            this.count = timeline.fill(firstTick, epochSeconds, ticks);
+            return this;
+        }
+    }
+}
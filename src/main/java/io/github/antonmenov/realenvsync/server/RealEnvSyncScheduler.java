@@ -0,0 +1,55 @@
+package io.github.antonmenov.realenvsync.server;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Runs sync work on the threads that own what it changes.
+ * <p>
+ * Spigot changes everything on its main thread. Folia splits the server into regions with their own threads:
+ * world time and weather belong to the global region, and a player belongs to the region they are in.
+ * {@link #create(Plugin)} picks the implementation at runtime, so the same jar runs on both.
+ */
+public interface RealEnvSyncScheduler {
+
+    static @NonNull RealEnvSyncScheduler create(final @NonNull Plugin plugin) {
+        return RealEnvSyncFoliaScheduler.isSupported()
+                ? new RealEnvSyncFoliaScheduler(plugin)
+                : new RealEnvSyncBukkitScheduler(plugin);
+    }
+
+    /**
+     * Repeats the task on the thread that owns world time and weather.
+     */
+    @NonNull Task runGlobalTimer(@NonNull Runnable task, @NonNegative long delayTicks, @Positive long periodTicks);
+
+    /**
+     * Runs the task on the thread that owns world time and weather, on the next tick.
+     */
+    void runGlobal(@NonNull Runnable task);
+
+    /**
+     * Runs the task on the thread that owns world time and weather, right away if that is the calling thread.
+     */
+    void executeGlobal(@NonNull Runnable task);
+
+    /**
+     * Runs the task on the thread that owns the entity, right away if that is the calling thread.
+     * The task is dropped if the entity is removed first, e.g. a player who leaves.
+     */
+    void executeFor(@NonNull Entity entity, @NonNull Runnable task);
+
+    /**
+     * Name of the implementation, for diagnostics.
+     */
+    @NonNull String name();
+
+    @FunctionalInterface
+    interface Task {
+
+        void cancel();
+    }
+}
@@ -0,0 +1,256 @@
+package io.github.antonmenov.realenvsync.server;
+
+import io.github.antonmenov.realenvsync.state.StateStore;
+import io.github.antonmenov.realenvsync.utils.DayTicks;
+import io.github.antonmenov.realenvsync.utils.MoonPhases;
+import io.github.antonmenov.realenvsync.utils.ThreadPools;
+import io.github.antonmenov.realenvsync.utils.TickScheduleTable;
+import io.github.antonmenov.realenvsync.utils.TimeConvert;
+import io.github.antonmenov.realenvsync.utils.ZoneOffsets;
+import org.bukkit.configuration.ConfigurationSection;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Builds {@link TickScheduleTable}s per zone off the main thread: the current day at once
+ * and the next day ahead of local midnight.
+ * <p>
+ * Until a table is ready, lookups fall back to {@link TimeConvert}.
+ */
+public class RealEnvSyncTickScheduleService implements AutoCloseable {
+
+    private final Logger logger;
+    private final Clock clock;
+    private final @Nullable StateStore store;
+    private final AtomicReference<Snapshot> snapshot;
+    private final Map<ZoneId, Schedule> schedules = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor =
+            Executors.newSingleThreadScheduledExecutor(ThreadPools.daemonThreadFactory("RealEnvSync Schedule"));
+
+    public RealEnvSyncTickScheduleService(final @NonNull Logger logger, final @NonNull Settings settings,
+                                          final @NonNull Clock clock, final @NonNull MoonPhases moonPhases,
+                                          final @NonNull DayTicks dayTicks) {
+        this(logger, settings, clock, moonPhases, dayTicks, null);
+    }
+
+    /**
+     * @param store Keeps built tables, so a restart reuses them instead of building them again.
+     */
+    public RealEnvSyncTickScheduleService(final @NonNull Logger logger, final @NonNull Settings settings,
+                                          final @NonNull Clock clock, final @NonNull MoonPhases moonPhases,
+                                          final @NonNull DayTicks dayTicks, final @Nullable StateStore store) {
+        this.logger = logger;
+        this.clock = clock;
+        this.store = store;
+        this.snapshot = new AtomicReference<>(new Snapshot(settings, moonPhases, dayTicks));
+    }
+
+    public void start() {
+        executor.scheduleWithFixedDelay(this::refresh, 0, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Returns the schedule of the zone, building its tables in the background if it is new.
+     */
+    public @NonNull Schedule schedule(final @NonNull ZoneId zone) {
+        return schedules.computeIfAbsent(zone, key -> {
+            final Schedule schedule = new Schedule(key, snapshot);
+            executor.execute(() -> refresh(schedule));
+            return schedule;
+        });
+    }
+
+    /**
+     * Drops the schedules of all other zones, e.g. after the configuration has moved to another zone.
+     */
+    public void retain(final @NonNull Set<ZoneId> zones) {
+        schedules.keySet().retainAll(zones);
+    }
+
+    /**
+     * Replaces the settings and builds all tables again if their slots or models changed. Until they are ready,
+     * lookups fall back to {@link TimeConvert} with the new settings.
+     */
+    public void reconfigure(final @NonNull Settings settings, final @NonNull MoonPhases moonPhases,
+                            final @NonNull DayTicks dayTicks) {
+        final Snapshot previous = snapshot.getAndSet(new Snapshot(settings, moonPhases, dayTicks));
+        // The fingerprints are what stored tables are checked against as well
+        if (previous.settings().slotSeconds() != settings.slotSeconds()
+                || previous.moonPhases().fingerprint() != moonPhases.fingerprint()
+                || previous.dayTicks().fingerprint() != dayTicks.fingerprint()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Drops all tables and builds them again, e.g. after the configuration has changed.
+     */
+    public void rebuild() {
+        executor.execute(() -> {
+            for (final Schedule schedule : schedules.values()) {
+                schedule.current = null;
+                schedule.next = null;
+                refresh(schedule);
+            }
+        });
+    }
+
+    public long memoryBytes() {
+        long bytes = 0;
+        for (final Schedule schedule : schedules.values()) {
+            bytes += schedule.memoryBytes();
+        }
+        return bytes;
+    }
+
+    public @NonNull Collection<Schedule> schedules() {
+        return schedules.values();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void refresh() {
+        for (final Schedule schedule : schedules.values()) {
+            refresh(schedule);
+        }
+    }
+
+    private void refresh(final @NonNull Schedule schedule) {
+        try {
+            final long now = clock.millis() / 1000;
+            final @Nullable TickScheduleTable current = schedule.current;
+            if (current == null || !current.covers(now)) {
+                final @Nullable TickScheduleTable next = schedule.next;
+                if (next != null && next.covers(now)) {
+                    schedule.current = next;
+                    schedule.next = null;
+                } else {
+                    final LocalDate today = LocalDate.ofInstant(Instant.ofEpochSecond(now), schedule.zone);
+                    schedule.current = build(schedule.zone, today);
+                }
+            }
+
+            final TickScheduleTable today = schedule.current;
+            final long buildAheadSeconds = snapshot.get().settings().buildAheadSeconds();
+            if (schedule.next == null && today.endEpochSecond() - now <= buildAheadSeconds) {
+                schedule.next = build(schedule.zone, today.date().plusDays(1));
+            }
+        } catch (final RuntimeException e) {
+            logger.log(Level.WARNING, e, () -> "Error building tick schedule for " + schedule.zone);
+        }
+    }
+
+    private @NonNull TickScheduleTable build(final @NonNull ZoneId zone, final @NonNull LocalDate date) {
+        final Snapshot current = snapshot.get();
+        final int slotSeconds = current.settings().slotSeconds();
+        if (store != null) {
+            final StateStore.@Nullable TableState stored = store.table(zone, date, slotSeconds);
+            final @Nullable TickScheduleTable restored = stored == null ? null
+                    : TickScheduleTable.restore(zone, date, slotSeconds, stored.fingerprint(), stored.ticks(),
+                    current.moonPhases(), current.dayTicks());
+            if (restored != null) {
+                logger.info(() -> "Restored tick schedule for " + zone + " on " + date);
+                return restored;
+            }
+        }
+        final TickScheduleTable table = TickScheduleTable.build(zone, date, slotSeconds, current.moonPhases(),
+                current.dayTicks());
+        if (store != null) {
+            store.putTable(table);
+        }
+        logger.info(() -> "Built tick schedule for " + zone + " on " + date + ": " + table.slots() + " slots, "
+                + table.memoryBytes() / 1024 + " KiB, " + memoryBytes() / 1024 + " KiB in total");
+        return table;
+    }
+
+    /**
+     * Tables of one zone. Only the schedule thread writes them, readers see either table or none.
+     */
+    public static final class Schedule {
+
+        private final ZoneId zone;
+        private final ZoneOffsets zoneOffsets;
+        private final AtomicReference<Snapshot> snapshot;
+        private volatile @Nullable TickScheduleTable current;
+        private volatile @Nullable TickScheduleTable next;
+
+        private Schedule(final @NonNull ZoneId zone, final @NonNull AtomicReference<Snapshot> snapshot) {
+            this.zone = zone;
+            this.zoneOffsets = ZoneOffsets.of(zone);
+            this.snapshot = snapshot;
+        }
+
+        public @NonNull ZoneId zone() {
+            return zone;
+        }
+
+        /**
+         * Returns the full time ticks at the instant, from a table when one covers it.
+         */
+        public int ticksAt(final long epochSecond) {
+            final @Nullable TickScheduleTable today = current;
+            if (today != null && today.covers(epochSecond)) {
+                return today.ticksAt(epochSecond);
+            }
+            final @Nullable TickScheduleTable tomorrow = next;
+            if (tomorrow != null && tomorrow.covers(epochSecond)) {
+                return tomorrow.ticksAt(epochSecond);
+            }
+            final int offsetSeconds = zoneOffsets.offsetAt(epochSecond);
+            final Snapshot current = snapshot.get();
+            return TimeConvert.convertToTicks(epochSecond, offsetSeconds, current.moonPhases(), current.dayTicks());
+        }
+
+        public long memoryBytes() {
+            final @Nullable TickScheduleTable today = current;
+            final @Nullable TickScheduleTable tomorrow = next;
+            return (today == null ? 0 : today.memoryBytes()) + (tomorrow == null ? 0 : tomorrow.memoryBytes());
+        }
+    }
+
+    private record Snapshot(@NonNull Settings settings, @NonNull MoonPhases moonPhases, @NonNull DayTicks dayTicks) {
+    }
+
+    /**
+     * @param slotSeconds        Length of a table slot; 1 keeps the full precision of real time.
+     * @param buildAheadSeconds  How long before local midnight the next day's table is built.
+     */
+    public record Settings(boolean enabled, @Positive int slotSeconds, @NonNegative long buildAheadSeconds) {
+
+        public Settings {
+            if (slotSeconds <= 0) {
+                throw new IllegalArgumentException("Slot must be positive: " + slotSeconds);
+            } else if (buildAheadSeconds < 0) {
+                throw new IllegalArgumentException("Build ahead time must not be negative: " + buildAheadSeconds);
+            }
+        }
+
+        public static @NonNull Settings from(final @Nullable ConfigurationSection section) {
+            if (section == null) {
+                return new Settings(false, 1, 3600);
+            }
+            return new Settings(section.getBoolean("enabled", true), section.getInt("slot-seconds", 1),
+                    TimeUnit.MINUTES.toSeconds(section.getLong("build-ahead-minutes", 60)));
+        }
+    }
+}
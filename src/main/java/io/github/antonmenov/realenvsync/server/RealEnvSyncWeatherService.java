@@ -0,0 +1,32 @@
+package io.github.antonmenov.realenvsync.server;
+
+import io.github.antonmenov.realenvsync.api.RealEnvSyncEvents;
+import io.github.antonmenov.realenvsync.weather.Weather;
+import org.bukkit.World;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+public class RealEnvSyncWeatherService {
+
+    /**
+     * Applies the weather to the world, writing only what differs. Must be called on the main thread.
+     *
+     * @return {@code true} if anything was written, {@code false} if nothing differed or the change was cancelled
+     * by a listener of {@link io.github.antonmenov.realenvsync.api.RealEnvSyncWeatherApplyEvent}.
+     */
+    public boolean applyWeather(final @NonNull World world, final @NonNull Weather weather) {
+        if ((world.hasStorm() == weather.storm() && world.isThundering() == weather.thundering())
+                || !RealEnvSyncEvents.callWeatherApply(world, weather)) {
+            return false;
+        }
+        boolean written = false;
+        if (world.hasStorm() != weather.storm()) {
+            world.setStorm(weather.storm());
+            written = true;
+        }
+        if (world.isThundering() != weather.thundering()) {
+            world.setThundering(weather.thundering());
+            written = true;
+        }
+        return written;
+    }
+}
@@ -0,0 +1,247 @@
+package io.github.antonmenov.realenvsync.server;
+
+import io.github.antonmenov.realenvsync.cluster.SyncFrame;
+import io.github.antonmenov.realenvsync.metrics.Metrics;
+import io.github.antonmenov.realenvsync.metrics.SyncCycleEvent;
+import io.github.antonmenov.realenvsync.state.StateStore;
+import io.github.antonmenov.realenvsync.utils.GeoLocation;
+import io.github.antonmenov.realenvsync.utils.ThreadPools;
+import io.github.antonmenov.realenvsync.weather.HttpWeatherProvider;
+import io.github.antonmenov.realenvsync.weather.StaticWeatherProvider;
+import io.github.antonmenov.realenvsync.weather.Weather;
+import io.github.antonmenov.realenvsync.weather.WeatherCache;
+import io.github.antonmenov.realenvsync.weather.WeatherProvider;
+import org.bukkit.GameRule;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.plugin.Plugin;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Keeps the configured worlds' weather in sync with the real weather at their locations.
+ * <p>
+ * Fetching happens on worker threads through a {@link WeatherCache}; the server thread only reads fresh cache
+ * entries and applies them, so a slow or failing weather backend never stalls a tick. Fetched weather reaches
+ * the server thread through the {@link RealEnvSyncPipeline}, batched with all other updates of the tick.
+ */
+public class RealEnvSyncWeatherSyncEngine implements Runnable {
+
+    private final Plugin plugin;
+    private final RealEnvSyncScheduler scheduler;
+    private final RealEnvSyncWorldRegistry worldRegistry;
+    private final RealEnvSyncWeatherService service;
+    private final Settings settings;
+    private final WeatherCache cache;
+    private final RealEnvSyncPipeline pipeline;
+    private final Metrics metrics;
+    private final Map<String, Boolean> previousWeatherCycles = new HashMap<>();
+    // Worlds waiting for a fetch, so a fetch slower than the period gets a single callback per world
+    private final Set<String> fetching = ConcurrentHashMap.newKeySet();
+    private volatile @Nullable Supplier<@Nullable SyncFrame> leader;
+    private volatile RealEnvSyncScheduler.@Nullable Task task;
+
+    public RealEnvSyncWeatherSyncEngine(final @NonNull Plugin plugin, final @NonNull RealEnvSyncScheduler scheduler,
+                                        final @NonNull RealEnvSyncWorldRegistry worldRegistry,
+                                        final @NonNull RealEnvSyncWeatherService service,
+                                        final @NonNull Settings settings, final @NonNull WeatherCache cache,
+                                        final @NonNull RealEnvSyncPipeline pipeline, final @NonNull Metrics metrics) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.worldRegistry = worldRegistry;
+        this.service = service;
+        this.settings = settings;
+        this.cache = cache;
+        this.pipeline = pipeline;
+        this.metrics = metrics;
+    }
+
+    public @NonNull Settings settings() {
+        return settings;
+    }
+
+    /**
+     * Takes the weather of the locations a cluster leader sends instead of fetching it; locations the leader
+     * does not send are still fetched.
+     *
+     * @param leader The frame of the followed leader, {@code null} to always fetch.
+     */
+    public void follow(final @Nullable Supplier<@Nullable SyncFrame> leader) {
+        this.leader = leader;
+    }
+
+    /**
+     * The weather of the configured locations that is cached and fresh, without fetching.
+     */
+    public @NonNull Map<GeoLocation, Weather> freshWeathers() {
+        final Map<GeoLocation, Weather> weathers = new HashMap<>();
+        for (final GeoLocation location : settings.worlds().values()) {
+            final @Nullable Weather weather = cache.peek(location);
+            if (weather != null) {
+                weathers.put(location, weather);
+            }
+        }
+        return weathers;
+    }
+
+    public void start() {
+        if (task != null) {
+            throw new IllegalStateException("Weather sync is already running.");
+        }
+        task = scheduler.runGlobalTimer(this, 0, settings.periodTicks());
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        cache.close();
+        fetching.clear();
+        for (final Map.Entry<String, Boolean> entry : previousWeatherCycles.entrySet()) {
+            final @Nullable World world = worldRegistry.get(entry.getKey());
+            if (world != null && entry.getValue() != null) {
+                world.setGameRule(GameRule.DO_WEATHER_CYCLE, entry.getValue());
+            }
+        }
+        previousWeatherCycles.clear();
+    }
+
+    @Override
+    public void run() {
+        final long start = System.nanoTime();
+        final SyncCycleEvent event = new SyncCycleEvent();
+        event.begin();
+        int worlds = 0;
+        int writes = 0;
+        final @Nullable Supplier<@Nullable SyncFrame> leader = this.leader;
+        final @Nullable SyncFrame frame = leader == null ? null : leader.get();
+        for (final Map.Entry<String, GeoLocation> entry : settings.worlds().entrySet()) {
+            final String worldName = entry.getKey();
+            if (worldRegistry.get(worldName) == null) {
+                metrics.increment(Metrics.Counter.WORLD_LOOKUP_MISSES);
+                continue;
+            }
+
+            worlds++;
+            final @Nullable Weather led = frame == null ? null : frame.weathers().get(entry.getValue());
+            final @Nullable Weather fresh = led != null ? led : cache.getIfFresh(entry.getValue());
+            if (fresh != null) {
+                if (apply(worldName, fresh)) {
+                    writes++;
+                }
+                continue;
+            } else if (!fetching.add(worldName)) {
+                continue;
+            }
+            cache.get(entry.getValue()).whenComplete((weather, error) -> {
+                fetching.remove(worldName);
+                if (error != null) {
+                    plugin.getLogger().log(Level.WARNING, error, () -> "Error fetching weather for " + worldName);
+                } else if (task != null) {
+                    pipeline.offer(new RealEnvSyncPipeline.Target(worldName, RealEnvSyncPipeline.Kind.WEATHER),
+                            () -> apply(worldName, weather));
+                }
+            });
+        }
+
+        metrics.record(Metrics.Timer.WEATHER_TICK, System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.engine = "weather";
+            event.targets = worlds;
+            event.writes = writes;
+            event.commit();
+        }
+    }
+
+    private boolean apply(final @NonNull String worldName, final @NonNull Weather weather) {
+        final @Nullable World world = worldRegistry.get(worldName);
+        if (world == null || task == null) {
+            return false;
+        }
+        if (settings.disableWeatherCycle() && !previousWeatherCycles.containsKey(worldName)) {
+            previousWeatherCycles.put(worldName, world.getGameRuleValue(GameRule.DO_WEATHER_CYCLE));
+            world.setGameRule(GameRule.DO_WEATHER_CYCLE, false);
+        }
+        if (!service.applyWeather(world, weather)) {
+            return false;
+        }
+        metrics.increment(Metrics.Counter.WEATHER_WRITES);
+        return true;
+    }
+
+    /**
+     * @param worlds World names mapped to the real location whose weather they show.
+     */
+    public record Settings(boolean enabled, @NonNull Map<String, GeoLocation> worlds, @NonNull String provider,
+                           @NonNull String url, @NonNull Weather staticWeather, @NonNull Duration timeout,
+                           @NonNull Duration cacheTtl, @Positive long periodTicks, boolean disableWeatherCycle) {
+
+        public Settings {
+            worlds = Map.copyOf(worlds);
+            if (periodTicks <= 0) {
+                throw new IllegalArgumentException("Period must be positive: " + periodTicks);
+            } else if (timeout.isNegative() || timeout.isZero()) {
+                throw new IllegalArgumentException("Timeout must be positive: " + timeout);
+            } else if (cacheTtl.isNegative() || cacheTtl.isZero()) {
+                throw new IllegalArgumentException("Cache TTL must be positive: " + cacheTtl);
+            } else if (!provider.equals("open-meteo") && !provider.equals("static")) {
+                throw new IllegalArgumentException("Unknown weather provider: " + provider);
+            }
+        }
+
+        public static @NonNull Settings from(final @Nullable ConfigurationSection section) {
+            if (section == null) {
+                return new Settings(false, Map.of(), "open-meteo", "", Weather.CLEAR, Duration.ofSeconds(10),
+                        Duration.ofMinutes(10), 1200, true);
+            }
+
+            final Map<String, GeoLocation> worlds = new LinkedHashMap<>();
+            final @Nullable ConfigurationSection worldsSection = section.getConfigurationSection("worlds");
+            if (worldsSection != null) {
+                for (final String worldName : worldsSection.getKeys(false)) {
+                    final @Nullable ConfigurationSection location = worldsSection.getConfigurationSection(worldName);
+                    if (location != null) {
+                        worlds.put(worldName, GeoLocation.from(location));
+                    }
+                }
+            }
+            return new Settings(
+                    section.getBoolean("enabled", false),
+                    worlds,
+                    section.getString("provider", "open-meteo"),
+                    section.getString("url", "https://api.open-meteo.com/v1/forecast"),
+                    Weather.valueOf(section.getString("static-weather", "clear").toUpperCase(Locale.ROOT)),
+                    Duration.ofSeconds(section.getLong("timeout-seconds", 10)),
+                    Duration.ofSeconds(section.getLong("cache-ttl-seconds", 600)),
+                    section.getLong("period-ticks", 1200),
+                    section.getBoolean("disable-weather-cycle", true));
+        }
+
+        public @NonNull WeatherProvider createProvider() {
+            return switch (provider) {
+                case "open-meteo" -> new HttpWeatherProvider(url, timeout);
+                case "static" -> new StaticWeatherProvider(staticWeather);
+                default -> throw new IllegalArgumentException("Unknown weather provider: " + provider);
+            };
+        }
+
+        public @NonNull WeatherCache createCache(final @NonNull Clock clock, final @NonNull Metrics metrics,
+                                                 final @Nullable StateStore store) {
+            return new WeatherCache(createProvider(), ThreadPools.newWorkerExecutor("RealEnvSync Weather", 2),
+                    clock, cacheTtl, metrics, store);
+        }
+    }
+}
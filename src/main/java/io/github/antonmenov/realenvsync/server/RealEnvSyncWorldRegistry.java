@@ -0,0 +1,93 @@
+package io.github.antonmenov.realenvsync.server;
+
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches loaded {@link World} references by name, so lookups do not go through {@link Server#getWorld(String)}.
+ * <p>
+ * Must be registered as a listener to stay up to date with loaded and unloaded worlds.
+ */
+public class RealEnvSyncWorldRegistry implements Listener {
+
+    private final Server server;
+    private final Map<String, World> worldsByName = new ConcurrentHashMap<>();
+    private final AtomicInteger version = new AtomicInteger();
+    private volatile @NonNull Names names = new Names(-1, List.of());
+
+    public RealEnvSyncWorldRegistry(final @NonNull Server server) {
+        this.server = server;
+    }
+
+    /**
+     * Replaces the cached worlds with the currently loaded ones.
+     */
+    public void refresh() {
+        worldsByName.clear();
+        for (final World world : server.getWorlds()) {
+            worldsByName.put(world.getName(), world);
+        }
+        version.incrementAndGet();
+    }
+
+    public @Nullable World get(final @NonNull String worldName) {
+        return worldsByName.get(worldName);
+    }
+
+    public @NonNull Collection<World> worlds() {
+        return Collections.unmodifiableCollection(worldsByName.values());
+    }
+
+    /**
+     * Names of the loaded worlds in alphabetical order, sorted once per change of the loaded worlds.
+     */
+    public @NonNull List<String> worldNames() {
+        final int current = version.get();
+        Names cached = names;
+        if (cached.version() != current) {
+            final List<String> sorted = new ArrayList<>(worldsByName.keySet());
+            Collections.sort(sorted);
+            cached = new Names(current, List.copyOf(sorted));
+            names = cached;
+        }
+        return cached.names();
+    }
+
+    /**
+     * Changes every time a world is added or removed, so users can cheaply detect when to rebuild derived state.
+     */
+    public int version() {
+        return version.get();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(final @NonNull WorldLoadEvent event) {
+        final World world = event.getWorld();
+        worldsByName.put(world.getName(), world);
+        version.incrementAndGet();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(final @NonNull WorldUnloadEvent event) {
+        worldsByName.remove(event.getWorld().getName());
+        version.incrementAndGet();
+    }
+
+    private record Names(int version, @NonNull List<String> names) {
+    }
+}
@@ -0,0 +1,386 @@
+package io.github.antonmenov.realenvsync.state;
+
+import io.github.antonmenov.realenvsync.utils.GeoLocation;
+import io.github.antonmenov.realenvsync.utils.TickScheduleTable;
+import io.github.antonmenov.realenvsync.weather.Weather;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Sync state kept across restarts in a single memory-mapped file, so the plugin resumes warm: the original
+ * {@code doDaylightCycle} values, the last weather per location and tick schedule tables. World clocks are not
+ * kept, the worlds save their own.
+ * <p>
+ * The file has a versioned header and fixed-size slots per kind of record, so every update rewrites only its own
+ * slot in place. Each slot carries a CRC32 of its content; a slot torn by a crash fails the check on the next
+ * start and is treated as empty, so the store never restores corrupted state. Weather and tables can be fetched
+ * and built again, but an original {@code doDaylightCycle} cannot, so each world has two copies written in turn
+ * and the valid one with the higher sequence number is read. A file of another version or layout is reset.
+ */
+public final class StateStore implements AutoCloseable {
+
+    static final int MAGIC = 0x52455353;
+    static final int VERSION = 2;
+
+    private static final int HEADER_BYTES = 64;
+    private static final int WORLD_SLOTS = 256;
+    private static final int WORLD_COPY_BYTES = 96;
+    private static final int WORLD_NAME_BYTES = 64;
+    private static final int WEATHER_SLOTS = 64;
+    private static final int WEATHER_BYTES = 32;
+    private static final int TABLE_SLOTS = 4;
+    private static final int TABLE_HEADER_BYTES = 128;
+    private static final int ZONE_BYTES = 64;
+    // A 25-hour day at one-second slots
+    private static final int TABLE_CAPACITY = 90_000;
+    private static final int TABLE_BYTES = TABLE_HEADER_BYTES + TABLE_CAPACITY * Integer.BYTES;
+
+    private static final int WORLDS_OFFSET = HEADER_BYTES;
+    private static final int WEATHERS_OFFSET = WORLDS_OFFSET + WORLD_SLOTS * 2 * WORLD_COPY_BYTES;
+    private static final int TABLES_OFFSET = WEATHERS_OFFSET + WEATHER_SLOTS * WEATHER_BYTES;
+    private static final int FILE_BYTES = TABLES_OFFSET + TABLE_SLOTS * TABLE_BYTES;
+
+    private static final byte DAYLIGHT_UNKNOWN = 2;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+    // World names to their slot, so a slot is found without reading the others
+    private final Map<String, Integer> worldSlots = new HashMap<>();
+
+    private StateStore(final @NonNull FileChannel channel, final @NonNull MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+        for (int slot = 0; slot < WORLD_SLOTS; slot++) {
+            final int newest = newestCopy(slot);
+            final @Nullable String name = newest < 0 || buffer.get(newest + 5) == DAYLIGHT_UNKNOWN ? null
+                    : worldName(newest);
+            if (name != null) {
+                worldSlots.put(name, slot);
+            }
+        }
+    }
+
+    /**
+     * Opens the store at the path, creating or resetting it if it does not hold this version's layout.
+     *
+     * @throws IOException If the file cannot be created or mapped.
+     */
+    public static @NonNull StateStore open(final @NonNull Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            final boolean valid = channel.size() == FILE_BYTES;
+            if (channel.size() > FILE_BYTES) {
+                // Left by another layout; mapping only grows a file, and the size is checked on every start
+                channel.truncate(FILE_BYTES);
+            }
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_BYTES);
+            if (!valid || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || buffer.getInt(8) != FILE_BYTES) {
+                reset(buffer);
+            }
+            return new StateStore(channel, buffer);
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void reset(final @NonNull MappedByteBuffer buffer) {
+        final byte[] zeros = new byte[8192];
+        for (int position = 0; position < FILE_BYTES; position += zeros.length) {
+            buffer.put(position, zeros, 0, Math.min(zeros.length, FILE_BYTES - position));
+        }
+        // Written last, so a reset cut short is redone on the next start
+        buffer.putInt(8, FILE_BYTES);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(0, MAGIC);
+        buffer.force();
+    }
+
+    /**
+     * The {@code doDaylightCycle} value a world had before the plugin turned it off, {@code null} if the plugin
+     * does not hold it.
+     */
+    public synchronized @Nullable Boolean originalDaylightCycle(final @NonNull String name) {
+        final int slot = findWorld(name);
+        if (slot < 0) {
+            return null;
+        }
+        final byte daylight = buffer.get(newestCopy(slot) + 5);
+        return daylight == DAYLIGHT_UNKNOWN ? null : daylight == 1;
+    }
+
+    /**
+     * Remembers the {@code doDaylightCycle} value a world had before the plugin turned it off, so it can be given
+     * back even if the server stopped without disabling the plugin; {@code null} once it has been given back.
+     * <p>
+     * Written into the older of the world's two copies, so a crash halfway through leaves the previous value.
+     */
+    public synchronized void putOriginalDaylightCycle(final @NonNull String name, final @Nullable Boolean original) {
+        final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > WORLD_NAME_BYTES) {
+            return;
+        }
+        int slot = findWorld(name);
+        if (slot < 0) {
+            if (original == null) {
+                return;
+            }
+            slot = freeWorldSlot();
+            if (slot < 0) {
+                return;
+            }
+            worldSlots.put(name, slot);
+        } else if (original == null) {
+            // Left behind as a cleared copy, which frees the slot
+            worldSlots.remove(name);
+        }
+
+        final int newest = newestCopy(slot);
+        final int offset = newest == worldCopy(slot, 0) ? worldCopy(slot, 1) : worldCopy(slot, 0);
+        buffer.put(offset + 4, (byte) 1);
+        buffer.put(offset + 5, original == null ? DAYLIGHT_UNKNOWN : (byte) (original ? 1 : 0));
+        buffer.putShort(offset + 6, (short) bytes.length);
+        buffer.putLong(offset + 8, newest < 0 ? 1 : buffer.getLong(newest + 8) + 1);
+        buffer.put(offset + 16, new byte[WORLD_NAME_BYTES]);
+        buffer.put(offset + 16, bytes);
+        seal(offset, WORLD_COPY_BYTES, 0);
+    }
+
+    private int findWorld(final @NonNull String name) {
+        final @Nullable Integer slot = worldSlots.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    private int freeWorldSlot() {
+        for (int slot = 0; slot < WORLD_SLOTS; slot++) {
+            final int newest = newestCopy(slot);
+            if (newest < 0 || buffer.get(newest + 5) == DAYLIGHT_UNKNOWN) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private static int worldCopy(final int slot, final int copy) {
+        return WORLDS_OFFSET + (slot * 2 + copy) * WORLD_COPY_BYTES;
+    }
+
+    /**
+     * The offset of the valid copy of the world slot with the higher sequence number, -1 if neither is valid.
+     */
+    private int newestCopy(final int slot) {
+        final int first = worldCopy(slot, 0);
+        final int second = worldCopy(slot, 1);
+        final boolean firstValid = isValid(first, WORLD_COPY_BYTES, 0);
+        final boolean secondValid = isValid(second, WORLD_COPY_BYTES, 0);
+        if (firstValid && secondValid) {
+            return buffer.getLong(first + 8) >= buffer.getLong(second + 8) ? first : second;
+        }
+        return firstValid ? first : secondValid ? second : -1;
+    }
+
+    private @Nullable String worldName(final int offset) {
+        final int nameLength = buffer.getShort(offset + 6);
+        if (nameLength < 0 || nameLength > WORLD_NAME_BYTES) {
+            return null;
+        }
+        final byte[] name = new byte[nameLength];
+        buffer.get(offset + 16, name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    public synchronized @NonNull List<WeatherState> weathers() {
+        final List<WeatherState> weathers = new ArrayList<>();
+        for (int slot = 0; slot < WEATHER_SLOTS; slot++) {
+            final @Nullable WeatherState state = readWeather(WEATHERS_OFFSET + slot * WEATHER_BYTES);
+            if (state != null) {
+                weathers.add(state);
+            }
+        }
+        return weathers;
+    }
+
+    /**
+     * Remembers fetched weather, replacing the oldest location once all slots are taken.
+     */
+    public synchronized void putWeather(final @NonNull GeoLocation location, final @NonNull Weather weather,
+                                        final long fetchedAtMillis) {
+        int slot = -1;
+        long oldest = Long.MAX_VALUE;
+        for (int candidate = 0; candidate < WEATHER_SLOTS && slot < 0; candidate++) {
+            final @Nullable WeatherState state = readWeather(WEATHERS_OFFSET + candidate * WEATHER_BYTES);
+            if (state != null && state.location().equals(location)) {
+                slot = candidate;
+            }
+        }
+        if (slot < 0) {
+            for (int candidate = 0; candidate < WEATHER_SLOTS; candidate++) {
+                final @Nullable WeatherState state = readWeather(WEATHERS_OFFSET + candidate * WEATHER_BYTES);
+                final long fetchedAt = state == null ? Long.MIN_VALUE : state.fetchedAtMillis();
+                if (fetchedAt < oldest) {
+                    oldest = fetchedAt;
+                    slot = candidate;
+                }
+            }
+        }
+
+        final int offset = WEATHERS_OFFSET + slot * WEATHER_BYTES;
+        buffer.put(offset + 4, (byte) 1);
+        buffer.put(offset + 5, (byte) weather.ordinal());
+        buffer.putDouble(offset + 8, location.latitude());
+        buffer.putDouble(offset + 16, location.longitude());
+        buffer.putLong(offset + 24, fetchedAtMillis);
+        seal(offset, WEATHER_BYTES, 0);
+    }
+
+    private @Nullable WeatherState readWeather(final int offset) {
+        if (!isValid(offset, WEATHER_BYTES, 0)) {
+            return null;
+        }
+        final int ordinal = buffer.get(offset + 5);
+        if (ordinal < 0 || ordinal >= Weather.values().length) {
+            return null;
+        }
+        try {
+            return new WeatherState(new GeoLocation(buffer.getDouble(offset + 8), buffer.getDouble(offset + 16)),
+                    Weather.values()[ordinal], buffer.getLong(offset + 24));
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns a stored tick schedule table, to be checked with {@link TickScheduleTable#restore}.
+     */
+    public synchronized @Nullable TableState table(final @NonNull ZoneId zone, final @NonNull LocalDate date,
+                                                   final int slotSeconds) {
+        final int slot = findTable(zone, date, slotSeconds);
+        if (slot < 0) {
+            return null;
+        }
+        final int offset = TABLES_OFFSET + slot * TABLE_BYTES;
+        final int[] ticks = new int[buffer.getInt(offset + 20)];
+        buffer.slice(offset + TABLE_HEADER_BYTES, ticks.length * Integer.BYTES).asIntBuffer().get(ticks);
+        return new TableState(buffer.getLong(offset + 24 + ZONE_BYTES), ticks);
+    }
+
+    /**
+     * Stores a tick schedule table, replacing the one of the earliest day once all slots are taken.
+     */
+    public synchronized void putTable(final @NonNull TickScheduleTable table) {
+        final byte[] zone = table.zone().getId().getBytes(StandardCharsets.UTF_8);
+        if (zone.length > ZONE_BYTES || table.slots() > TABLE_CAPACITY) {
+            return;
+        }
+        int slot = findTable(table.zone(), table.date(), table.slotSeconds());
+        if (slot < 0) {
+            slot = 0;
+            long earliest = Long.MAX_VALUE;
+            for (int candidate = 0; candidate < TABLE_SLOTS; candidate++) {
+                final int offset = TABLES_OFFSET + candidate * TABLE_BYTES;
+                final long epochDay = isValidTable(offset) ? buffer.getLong(offset + 8) : Long.MIN_VALUE;
+                if (epochDay < earliest) {
+                    earliest = epochDay;
+                    slot = candidate;
+                }
+            }
+        }
+
+        final int offset = TABLES_OFFSET + slot * TABLE_BYTES;
+        buffer.put(offset + 4, (byte) 1);
+        buffer.putShort(offset + 6, (short) zone.length);
+        buffer.putLong(offset + 8, table.date().toEpochDay());
+        buffer.putInt(offset + 16, table.slotSeconds());
+        buffer.putInt(offset + 20, table.slots());
+        buffer.put(offset + 24, new byte[ZONE_BYTES]);
+        buffer.put(offset + 24, zone);
+        buffer.putLong(offset + 24 + ZONE_BYTES, table.fingerprint());
+        for (int i = 0; i < table.slots(); i++) {
+            buffer.putInt(offset + TABLE_HEADER_BYTES + i * Integer.BYTES, table.ticksOfSlot(i));
+        }
+        seal(offset, TABLE_HEADER_BYTES, table.slots() * Integer.BYTES);
+    }
+
+    private int findTable(final @NonNull ZoneId zone, final @NonNull LocalDate date, final int slotSeconds) {
+        final byte[] zoneBytes = zone.getId().getBytes(StandardCharsets.UTF_8);
+        for (int slot = 0; slot < TABLE_SLOTS; slot++) {
+            final int offset = TABLES_OFFSET + slot * TABLE_BYTES;
+            if (buffer.get(offset + 4) != 1 || buffer.getLong(offset + 8) != date.toEpochDay()
+                    || buffer.getInt(offset + 16) != slotSeconds || buffer.getShort(offset + 6) != zoneBytes.length) {
+                continue;
+            }
+            final byte[] stored = new byte[zoneBytes.length];
+            buffer.get(offset + 24, stored);
+            if (Arrays.equals(stored, zoneBytes) && isValidTable(offset)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isValidTable(final int offset) {
+        final int slots = buffer.getInt(offset + 20);
+        return slots >= 0 && slots <= TABLE_CAPACITY && isValid(offset, TABLE_HEADER_BYTES, slots * Integer.BYTES);
+    }
+
+    /**
+     * Checks the CRC32 in the first four bytes of a slot against the rest of its header and its data.
+     */
+    private boolean isValid(final int offset, final int headerBytes, final int dataBytes) {
+        return buffer.get(offset + 4) == 1 && buffer.getInt(offset) == checksum(offset, headerBytes, dataBytes);
+    }
+
+    private void seal(final int offset, final int headerBytes, final int dataBytes) {
+        buffer.putInt(offset, checksum(offset, headerBytes, dataBytes));
+    }
+
+    private int checksum(final int offset, final int headerBytes, final int dataBytes) {
+        crc.reset();
+        crc.update(buffer.slice(offset + 4, headerBytes - 4 + dataBytes));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Flushes all updates to the disk; until then they survive a crash of the server but not of the machine.
+     */
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    public record WeatherState(@NonNull GeoLocation location, @NonNull Weather weather, long fetchedAtMillis) {
+    }
+
+    /**
+     * @param fingerprint The {@link TickScheduleTable#fingerprint()} the table was built with.
+     */
+    public record TableState(long fingerprint, int @NonNull [] ticks) {
+    }
+}
@@ -1,29 +1,87 @@
 package io.github.antonmenov.realenvsync.user;
 
+import io.github.antonmenov.realenvsync.metrics.LatencyHistogram;
+import io.github.antonmenov.realenvsync.metrics.Metrics;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncAutoSyncEngine;
 import io.github.antonmenov.realenvsync.server.RealEnvSyncDateAndTimeService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncPipeline;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncPlayerTimeService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncReplayService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncScheduler;
+import io.github.antonmenov.realenvsync.utils.GeoLocation;
+import io.github.antonmenov.realenvsync.utils.TimeParser;
+import io.github.antonmenov.realenvsync.utils.ZoneLocator;
 import org.bukkit.World;
 import org.bukkit.command.Command;
-import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
 import org.bukkit.entity.Player;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.format.DateTimeParseException;
+import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static io.github.antonmenov.realenvsync.server.RealEnvSyncDateAndTimeService.Action;
 import static io.github.antonmenov.realenvsync.server.RealEnvSyncDateAndTimeService.Result;
 
-public class RealEnvSyncCommand implements CommandExecutor {
+public class RealEnvSyncCommand implements TabExecutor {
+
+    private static final List<String> SUBCOMMANDS =
+            List.of("datetime", "drift", "reload", "replay", "shards", "stats", "time", "zone");
+    private static final List<String> TIMES_OF_DAY = List.of("00:00", "06:00", "12:00", "18:00");
+    private static final List<String> REPLAY_SPEEDS = List.of("60x", "168x", "1440x");
+    // Sorted once, as there are about 600
+    private static final List<String> ZONE_IDS = ZoneId.getAvailableZoneIds().stream().sorted().toList();
 
     private final RealEnvSyncDateAndTimeService service;
+    private final @Nullable RealEnvSyncScheduler scheduler;
+    private final @Nullable RealEnvSyncAutoSyncEngine autoSyncEngine;
+    private final @Nullable RealEnvSyncPlayerTimeService playerTimeService;
+    private final @Nullable Runnable reloader;
+    private final @Nullable CompletableFuture<ZoneLocator> zoneLocator;
+    private final @Nullable RealEnvSyncPipeline pipeline;
+    private final @Nullable Metrics metrics;
+    private final @Nullable RealEnvSyncReplayService replayService;
 
-    public RealEnvSyncCommand(final @NonNull RealEnvSyncDateAndTimeService service) {
+    /**
+     * @param scheduler     Reads the state of the sync engines on the thread that changes it; {@code null} to read it
+     *                      on the calling thread.
+     * @param reloader      Reloads the configuration, throwing {@link IllegalArgumentException} or
+     *                      {@link DateTimeException} if it is invalid; {@code null} if reloading is not supported.
+     * @param zoneLocator   Resolves coordinates to time zones once loaded; {@code null} if not available.
+     * @param pipeline      Converts times on worker threads and sets them in the next batch on the main thread;
+     *                      {@code null} to do everything on the calling thread.
+     * @param metrics       Shown by the stats subcommand; {@code null} if not collected.
+     * @param replayService Plays date ranges through worlds; {@code null} if replays are not supported.
+     */
+    public RealEnvSyncCommand(final @NonNull RealEnvSyncDateAndTimeService service,
+                              final @Nullable RealEnvSyncScheduler scheduler,
+                              final @Nullable RealEnvSyncAutoSyncEngine autoSyncEngine,
+                              final @Nullable RealEnvSyncPlayerTimeService playerTimeService,
+                              final @Nullable Runnable reloader,
+                              final @Nullable CompletableFuture<ZoneLocator> zoneLocator,
+                              final @Nullable RealEnvSyncPipeline pipeline,
+                              final @Nullable Metrics metrics,
+                              final @Nullable RealEnvSyncReplayService replayService) {
         this.service = service;
+        this.scheduler = scheduler;
+        this.autoSyncEngine = autoSyncEngine;
+        this.playerTimeService = playerTimeService;
+        this.reloader = reloader;
+        this.zoneLocator = zoneLocator;
+        this.pipeline = pipeline;
+        this.metrics = metrics;
+        this.replayService = replayService;
     }
 
     public static @Nullable Action actionFrom(final @NonNull String name) {
@@ -37,7 +95,19 @@ public RealEnvSyncCommand(final @NonNull RealEnvSyncDateAndTimeService service)
     @Override
     public boolean onCommand(final @NonNull CommandSender sender, final @NonNull Command command,
                              final @NonNull String label, final String @NonNull [] args) {
-        if (args.length < 2 || args.length > 3) {
+        if (args.length == 1 && args[0].equals("shards")) {
+            return handleShards(sender);
+        } else if (args.length == 1 && args[0].equals("drift")) {
+            return handleDrift(sender);
+        } else if (args.length == 1 && args[0].equals("stats")) {
+            return handleStats(sender);
+        } else if (args.length == 1 && args[0].equals("reload")) {
+            return handleReload(sender);
+        } else if (args.length == 2 && args[0].equals("zone")) {
+            return handleZone(sender, args[1]);
+        } else if (args.length >= 1 && args[0].equals("replay")) {
+            return handleReplay(sender, args);
+        } else if (args.length < 2 || args.length > 4) {
             return false;
         } else if (!(sender instanceof Player) && args.length == 2) {
             sender.sendMessage("Only players can use this command with 2 arguments.");
@@ -50,27 +120,39 @@ public boolean onCommand(final @NonNull CommandSender sender, final @NonNull Com
             return false;
         }
 
+        final ZoneId zone;
+        if (args.length == 4) {
+            try {
+                zone = ZoneId.of(args[3]);
+            } catch (final DateTimeException e) {
+                sender.sendMessage("Invalid time zone.");
+                return true;
+            }
+        } else {
+            zone = defaultZone();
+        }
+
         final @NonNull Temporal temporal;
         final String value = args[1];
         if (value.equals("now")) {
             temporal = switch (action) {
-                case TIME -> LocalTime.now();
-                case DATETIME -> LocalDateTime.now();
+                case TIME -> LocalTime.now(zone);
+                case DATETIME -> LocalDateTime.now(zone);
             };
         } else if (action == Action.TIME) {
-            try {
-                temporal = LocalTime.parse(value);
-            } catch (final DateTimeParseException e) {
+            final long nanoOfDay = TimeParser.parseTime(value);
+            if (nanoOfDay == TimeParser.INVALID) {
                 sender.sendMessage("Invalid time format.");
                 return true;
             }
+            temporal = TimeParser.toLocalTime(nanoOfDay);
         } else if (action == Action.DATETIME) {
-            try {
-                temporal = LocalDateTime.parse(value);
-            } catch (final DateTimeParseException e) {
+            final long localEpochMilli = TimeParser.parseDateTime(value);
+            if (localEpochMilli == TimeParser.INVALID) {
                 sender.sendMessage("Invalid datetime format.");
                 return true;
             }
+            temporal = TimeParser.toLocalDateTime(localEpochMilli);
         } else {
             return false;
         }
@@ -78,21 +160,356 @@ public boolean onCommand(final @NonNull CommandSender sender, final @NonNull Com
         if (args.length == 2) {
             final Player player = (Player) sender;
             final @NonNull World world = player.getWorld();
-            return handleInput(sender, world.getName(), action, temporal);
+            return handleInput(sender, world.getName(), action, temporal, zone);
         }
 
         final String worldName = args[2];
-        return handleInput(sender, worldName, action, temporal);
+        return handleInput(sender, worldName, action, temporal, zone);
+    }
+
+    /**
+     * Suggests subcommands, times, world names from the registry's cache and zone IDs, all filtered by the typed
+     * prefix.
+     */
+    @Override
+    public @NonNull List<String> onTabComplete(final @NonNull CommandSender sender, final @NonNull Command command,
+                                               final @NonNull String alias, final String @NonNull [] args) {
+        final String prefix = args.length == 0 ? "" : args[args.length - 1];
+        if (args.length <= 1) {
+            return matching(SUBCOMMANDS, prefix);
+        }
+
+        final @Nullable Action action = actionFrom(args[0]);
+        if (action != null) {
+            return switch (args.length) {
+                case 2 -> matching(timeSuggestions(action), prefix);
+                case 3 -> matching(service.worldNames(), prefix);
+                case 4 -> matching(ZONE_IDS, prefix);
+                default -> List.of();
+            };
+        } else if (args[0].equals("zone") && args.length == 2) {
+            final List<String> zones = matching(ZONE_IDS, prefix);
+            if ("off".startsWith(prefix)) {
+                zones.add(0, "off");
+            }
+            return zones;
+        } else if (!args[0].equals("replay") || replayService == null) {
+            return List.of();
+        } else if (args.length > 2 && args[1].equals("stop")) {
+            return args.length == 3 ? matching(service.worldNames(), prefix) : List.of();
+        }
+        return switch (args.length) {
+            case 2 -> {
+                final List<String> suggestions = matching(timeSuggestions(Action.DATETIME), prefix);
+                if ("stop".startsWith(prefix)) {
+                    suggestions.add(0, "stop");
+                }
+                yield suggestions;
+            }
+            case 3 -> matching(timeSuggestions(Action.DATETIME), prefix);
+            case 4 -> matching(REPLAY_SPEEDS, prefix);
+            case 5 -> matching(service.worldNames(), prefix);
+            default -> List.of();
+        };
+    }
+
+    /**
+     * {@code now}, the current time to the minute and the starts of the quarters of the day, today for datetimes.
+     */
+    private @NonNull List<String> timeSuggestions(final @NonNull Action action) {
+        final List<String> suggestions = new ArrayList<>(TIMES_OF_DAY.size() + 2);
+        suggestions.add("now");
+        final LocalDateTime now = LocalDateTime.now(defaultZone()).truncatedTo(ChronoUnit.MINUTES);
+        switch (action) {
+            case TIME -> {
+                suggestions.add(now.toLocalTime().toString());
+                suggestions.addAll(TIMES_OF_DAY);
+            }
+            case DATETIME -> {
+                suggestions.add(now.toString());
+                final String today = now.toLocalDate() + "T";
+                for (final String time : TIMES_OF_DAY) {
+                    suggestions.add(today + time);
+                }
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Returns a new list of the candidates that start with the prefix, ignoring case, as callers may change it.
+     */
+    private static @NonNull List<String> matching(final @NonNull List<String> candidates,
+                                                  final @NonNull String prefix) {
+        final List<String> matches = new ArrayList<>();
+        for (final String candidate : candidates) {
+            if (candidate.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                matches.add(candidate);
+            }
+        }
+        return matches;
+    }
+
+    private @NonNull ZoneId defaultZone() {
+        return autoSyncEngine == null ? ZoneId.systemDefault() : autoSyncEngine.settings().zone();
+    }
+
+    /**
+     * Runs the task where the sync engines change their state; on Folia, commands run on region threads.
+     */
+    private void executeGlobal(final @NonNull Runnable task) {
+        if (scheduler == null) {
+            task.run();
+        } else {
+            scheduler.executeGlobal(task);
+        }
+    }
+
+    private boolean handleShards(final @NonNull CommandSender sender) {
+        final @Nullable RealEnvSyncAutoSyncEngine engine = autoSyncEngine;
+        if (engine == null) {
+            sender.sendMessage("Auto sync is disabled.");
+            return true;
+        }
+
+        executeGlobal(() -> {
+            sender.sendMessage("Auto sync overruns: " + engine.overruns());
+            for (final RealEnvSyncAutoSyncEngine.ShardTiming timing : engine.shardTimings()) {
+                sender.sendMessage("Shard " + timing.shard() + ": " + timing.worlds() + " worlds, "
+                        + timing.runs() + " runs, last " + TimeUnit.NANOSECONDS.toMicros(timing.lastNanos())
+                        + " us, avg " + TimeUnit.NANOSECONDS.toMicros(timing.averageNanos())
+                        + " us, max " + TimeUnit.NANOSECONDS.toMicros(timing.maxNanos()) + " us");
+            }
+        });
+        return true;
+    }
+
+    private boolean handleDrift(final @NonNull CommandSender sender) {
+        final @Nullable RealEnvSyncAutoSyncEngine engine = autoSyncEngine;
+        if (engine == null) {
+            sender.sendMessage("Auto sync is disabled.");
+            return true;
+        }
+
+        executeGlobal(() -> {
+            for (final RealEnvSyncAutoSyncEngine.WorldDrift drift : engine.worldDrifts()) {
+                sender.sendMessage(drift.world() + ": error " + drift.errorTicks() + " ticks, max "
+                        + drift.maxErrorTicks() + " ticks, " + drift.writes() + " writes");
+            }
+        });
+        return true;
+    }
+
+    private boolean handleStats(final @NonNull CommandSender sender) {
+        if (metrics == null) {
+            sender.sendMessage("Metrics are not collected.");
+            return true;
+        }
+
+        sender.sendMessage("Server thread time per tick: avg " + micros(metrics.serverThreadNanosPerTick()) + " us");
+        for (final Metrics.Timer timer : Metrics.Timer.values()) {
+            final LatencyHistogram.Snapshot snapshot = metrics.snapshot(timer);
+            if (snapshot.count() == 0) {
+                continue;
+            }
+            sender.sendMessage(timer.metricName() + ": " + snapshot.count() + " runs, avg "
+                    + micros(snapshot.meanNanos()) + " us, p50 " + micros(snapshot.p50Nanos()) + " us, p99 "
+                    + micros(snapshot.p99Nanos()) + " us, max " + micros(snapshot.maxNanos()) + " us");
+        }
+        final StringBuilder counters = new StringBuilder();
+        for (final Metrics.Counter counter : Metrics.Counter.values()) {
+            counters.append(counters.isEmpty() ? "" : ", ").append(counter.metricName()).append(' ')
+                    .append(metrics.count(counter));
+        }
+        sender.sendMessage(counters.toString());
+        return true;
+    }
+
+    private static @NonNull String micros(final long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1000.0);
+    }
+
+    private boolean handleReload(final @NonNull CommandSender sender) {
+        if (reloader == null) {
+            sender.sendMessage("Reloading is not supported.");
+            return true;
+        }
+
+        try {
+            reloader.run();
+        } catch (final IllegalArgumentException | DateTimeException e) {
+            sender.sendMessage("Invalid configuration, the previous one is kept: " + e.getMessage());
+            return true;
+        }
+        sender.sendMessage("Configuration reloaded.");
+        return true;
+    }
+
+    private boolean handleZone(final @NonNull CommandSender sender, final @NonNull String value) {
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage("Only players can set their time zone.");
+            return true;
+        } else if (playerTimeService == null) {
+            sender.sendMessage("Player time sync is disabled.");
+            return true;
+        } else if (value.equals("off")) {
+            playerTimeService.clearZone(player);
+            sender.sendMessage("You see the world time again.");
+            return true;
+        }
+
+        final ZoneId zone;
+        if (value.indexOf(',') >= 0) {
+            final @Nullable GeoLocation location = locationFrom(value);
+            if (location == null) {
+                sender.sendMessage("Invalid location, expected <latitude>,<longitude>.");
+                return true;
+            }
+            final @Nullable ZoneLocator locator = loadedZoneLocator();
+            if (locator == null) {
+                sender.sendMessage("Time zone data is still loading or unavailable.");
+                return true;
+            }
+            zone = locator.resolve(location);
+        } else {
+            try {
+                zone = ZoneId.of(value);
+            } catch (final DateTimeException e) {
+                sender.sendMessage("Invalid time zone.");
+                return true;
+            }
+        }
+        playerTimeService.setZone(player, zone);
+        sender.sendMessage("You see the real time of " + zone.getId());
+        return true;
+    }
+
+    /**
+     * {@code replay} lists the running replays, {@code replay stop [world]} stops one and
+     * {@code replay <from> <to> <speed> [world]} starts one, with dates in the auto sync zone.
+     */
+    private boolean handleReplay(final @NonNull CommandSender sender, final String @NonNull [] args) {
+        if (replayService == null) {
+            sender.sendMessage("Replays are not supported.");
+            return true;
+        } else if (args.length == 1) {
+            final List<RealEnvSyncReplayService.Replay> replays = replayService.replays();
+            if (replays.isEmpty()) {
+                sender.sendMessage("No replays are running.");
+            }
+            for (final RealEnvSyncReplayService.Replay replay : replays) {
+                sender.sendMessage(replay.worldName() + ": at " + replay.instant() + ", "
+                        + Math.round(replay.progress() * 100) + "% played");
+            }
+            return true;
+        }
+
+        final boolean stop = args[1].equals("stop");
+        final int worldIndex = stop ? 2 : 4;
+        if (args.length != worldIndex && args.length != worldIndex + 1) {
+            return false;
+        }
+        final String worldName;
+        if (args.length > worldIndex) {
+            worldName = args[worldIndex];
+        } else if (sender instanceof Player player) {
+            worldName = player.getWorld().getName();
+        } else {
+            sender.sendMessage("Only players can use this command without a world.");
+            return true;
+        }
+
+        if (stop) {
+            if (!replayService.stop(worldName)) {
+                sender.sendMessage("No replay is running in " + worldName + ".");
+            }
+            return true;
+        } else if (!service.hasWorld(worldName)) {
+            sender.sendMessage("World " + worldName + " not found.");
+            return true;
+        }
+
+        final long fromMilli = TimeParser.parseDateTime(args[1]);
+        final long toMilli = TimeParser.parseDateTime(args[2]);
+        if (fromMilli == TimeParser.INVALID || toMilli == TimeParser.INVALID) {
+            sender.sendMessage("Invalid datetime format.");
+            return true;
+        }
+        final LocalDateTime from = TimeParser.toLocalDateTime(fromMilli);
+        final LocalDateTime to = TimeParser.toLocalDateTime(toMilli);
+        final double speed;
+        try {
+            final String value = args[3];
+            speed = Double.parseDouble(value.endsWith("x") ? value.substring(0, value.length() - 1) : value);
+        } catch (final NumberFormatException e) {
+            sender.sendMessage("Invalid speed.");
+            return true;
+        }
+
+        final ZoneId zone = defaultZone();
+        try {
+            replayService.start(worldName, from, to, speed, zone,
+                    () -> sender.sendMessage("Replay in " + worldName + " ended."));
+        } catch (final IllegalArgumentException e) {
+            sender.sendMessage("Invalid replay: " + e.getMessage());
+            return true;
+        }
+        sender.sendMessage("Replaying " + from + " to " + to + " " + zone + " in " + worldName + " at " + speed
+                + "x.");
+        return true;
+    }
+
+    private @Nullable ZoneLocator loadedZoneLocator() {
+        if (zoneLocator == null || !zoneLocator.isDone() || zoneLocator.isCompletedExceptionally()) {
+            return null;
+        }
+        return zoneLocator.join();
+    }
+
+    private static @Nullable GeoLocation locationFrom(final @NonNull String value) {
+        final String[] parts = value.split(",", -1);
+        if (parts.length != 2) {
+            return null;
+        }
+        try {
+            return new GeoLocation(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]));
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
     }
 
     private boolean handleInput(final @NonNull CommandSender sender, final @NonNull String worldName,
-                                final @NonNull Action action, final @NonNull Temporal temporal) {
-        final Result result = service.handleTwoArgument(worldName, action, temporal);
+                                final @NonNull Action action, final @NonNull Temporal temporal,
+                                final @NonNull ZoneId zone) {
+        if (pipeline == null) {
+            return reply(sender, temporal, zone, service.handleTwoArgument(worldName, action, temporal, zone));
+        } else if (!service.hasWorld(worldName)) {
+            sender.sendMessage("World " + worldName + " not found.");
+            return true;
+        }
+
+        // Without a target, as coalescing would drop the replies of earlier commands
+        pipeline.submit(null, () -> service.ticksOf(action, temporal, zone),
+                ticks -> reply(sender, temporal, zone, service.apply(worldName, action, ticks)));
+        return true;
+    }
+
+    private boolean reply(final @NonNull CommandSender sender, final @NonNull Temporal temporal,
+                          final @NonNull ZoneId zone, final @NonNull Result result) {
         switch (result.type()) {
             case INVALID_ACTION -> {
                 sender.sendMessage("Invalid action.");
                 return true;
             }
+            case INVALID_WORLD -> {
+                // A world may be unloaded while the pipeline computes the ticks
+                sender.sendMessage("World not found.");
+                return true;
+            }
+            case CANCELLED -> {
+                sender.sendMessage("The change was cancelled by another plugin.");
+                return true;
+            }
             case TIME_SET -> {
                 if (temporal.with(LocalTime::from) instanceof LocalTime with) {
                     if (result.ticks() == null) {
@@ -112,7 +529,7 @@ private boolean handleInput(final @NonNull CommandSender sender, final @NonNull
                     }
 
                     final LocalDateTime dateTime = with.truncatedTo(ChronoUnit.SECONDS);
-                    sender.sendMessage("Minecraft time is set to " + result.ticks() + " for " + dateTime);
+                    sender.sendMessage("Minecraft time is set to " + result.ticks() + " for " + dateTime + " " + zone);
                     return true;
                 }
                 throw new IllegalStateException("Unexpected state: " + temporal.getClass());
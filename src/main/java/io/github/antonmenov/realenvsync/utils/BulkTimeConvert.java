@@ -0,0 +1,203 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static io.github.antonmenov.realenvsync.plugin.Constants.MID_FULL_MOON_EPOCH_SECOND;
+import static io.github.antonmenov.realenvsync.plugin.Constants.MINECRAFT_DAY_LENGTH;
+import static io.github.antonmenov.realenvsync.plugin.Constants.MINECRAFT_DAY_START_OFFSET;
+import static io.github.antonmenov.realenvsync.plugin.Constants.MOON_PHASE_COUNT;
+import static io.github.antonmenov.realenvsync.plugin.Constants.MOON_PHASE_SECONDS;
+import static io.github.antonmenov.realenvsync.plugin.Constants.SECONDS_IN_DAY;
+
+/**
+ * Converts many instants at once, e.g. for timelines and forecasts, with the same results as
+ * {@link TimeConvert#convertToTicks(long, int, MoonPhases, DayTicks)} for each of them.
+ * <p>
+ * With the default models the conversion runs in a loop without calls or allocations that the JIT can unroll;
+ * other models are called once per instant. The parallel variants split more than
+ * {@value #PARALLEL_THRESHOLD} instants over the common fork-join pool.
+ */
+public final class BulkTimeConvert {
+
+    /**
+     * Largest number of instants converted by a single fork-join task.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    // A tick is exactly 3.6 seconds, so whole seconds map to ticks as 5 / 18 without a 64-bit product
+    private static final int TICKS_PER_18_SECONDS = 5;
+    private static final int SECONDS_PER_5_TICKS = 18;
+
+    // Start of a full moon phase, the cycle being exactly eight phases long
+    private static final long PHASE_ORIGIN = MID_FULL_MOON_EPOCH_SECOND - MOON_PHASE_SECONDS / 2;
+
+    private BulkTimeConvert() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Fills {@code ticks} with the full time ticks of each instant.
+     *
+     * @param epochSeconds  The instants in seconds since the epoch.
+     * @param offsetSeconds The zone offset in seconds, used only for the time of day.
+     * @param ticks         Receives the result at the index of each instant, at least as long as the instants.
+     */
+    public static void convertToTicks(final long @NonNull [] epochSeconds, final int offsetSeconds,
+                                      final int @NonNull [] ticks) {
+        convertToTicks(epochSeconds, offsetSeconds, MoonPhases.MEAN, DayTicks.LINEAR, ticks);
+    }
+
+    public static void convertToTicks(final long @NonNull [] epochSeconds, final int offsetSeconds,
+                                      final @NonNull MoonPhases moonPhases, final @NonNull DayTicks dayTicks,
+                                      final int @NonNull [] ticks) {
+        convertToTicks(epochSeconds, epochSeconds.length, offsetSeconds, moonPhases, dayTicks, ticks);
+    }
+
+    /**
+     * Converts only the first {@code count} instants, so buffers can be reused for shorter batches.
+     */
+    public static void convertToTicks(final long @NonNull [] epochSeconds, final @NonNegative int count,
+                                      final int offsetSeconds, final @NonNull MoonPhases moonPhases,
+                                      final @NonNull DayTicks dayTicks, final int @NonNull [] ticks) {
+        checkLength(count, ticks);
+        if (epochSeconds.length < count) {
+            throw new IllegalArgumentException("Not enough instants for " + count + " values: "
+                    + epochSeconds.length);
+        }
+        convert(epochSeconds, 0, 0, 0, count, offsetSeconds, moonPhases, dayTicks, ticks);
+    }
+
+    /**
+     * Fills {@code ticks} with the full time ticks of {@code count} instants {@code stepSeconds} apart.
+     */
+    public static void convertToTicks(final long startEpochSecond, final long stepSeconds,
+                                      final @NonNegative int count, final int offsetSeconds,
+                                      final @NonNull MoonPhases moonPhases, final @NonNull DayTicks dayTicks,
+                                      final int @NonNull [] ticks) {
+        checkLength(count, ticks);
+        convert(null, startEpochSecond, stepSeconds, 0, count, offsetSeconds, moonPhases, dayTicks, ticks);
+    }
+
+    /**
+     * Same as {@link #convertToTicks(long[], int, MoonPhases, DayTicks, int[])}, split over the common fork-join
+     * pool if there are enough instants. The models must be thread-safe, as required by {@link DayTicks}.
+     */
+    public static void convertToTicksParallel(final long @NonNull [] epochSeconds, final int offsetSeconds,
+                                              final @NonNull MoonPhases moonPhases, final @NonNull DayTicks dayTicks,
+                                              final int @NonNull [] ticks) {
+        checkLength(epochSeconds.length, ticks);
+        ForkJoinPool.commonPool().invoke(new Chunk(epochSeconds, 0, 0, 0, epochSeconds.length, offsetSeconds,
+                moonPhases, dayTicks, ticks));
+    }
+
+    /**
+     * Same as {@link #convertToTicks(long, long, int, int, MoonPhases, DayTicks, int[])}, split over the common
+     * fork-join pool if there are enough instants.
+     */
+    public static void convertToTicksParallel(final long startEpochSecond, final long stepSeconds,
+                                              final @NonNegative int count, final int offsetSeconds,
+                                              final @NonNull MoonPhases moonPhases, final @NonNull DayTicks dayTicks,
+                                              final int @NonNull [] ticks) {
+        checkLength(count, ticks);
+        ForkJoinPool.commonPool().invoke(new Chunk(null, startEpochSecond, stepSeconds, 0, count, offsetSeconds,
+                moonPhases, dayTicks, ticks));
+    }
+
+    private static void checkLength(final int count, final int @NonNull [] ticks) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative: " + count);
+        } else if (ticks.length < count) {
+            throw new IllegalArgumentException("Ticks must hold " + count + " values: " + ticks.length);
+        }
+    }
+
+    /**
+     * Converts the instants from {@code from} until {@code to}, taken from the array if there is one and from the
+     * range otherwise.
+     */
+    private static void convert(final long @Nullable [] epochSeconds, final long start, final long step,
+                                final int from, final int to, final int offsetSeconds,
+                                final @NonNull MoonPhases moonPhases, final @NonNull DayTicks dayTicks,
+                                final int @NonNull [] ticks) {
+        if (moonPhases == MoonPhases.MEAN && dayTicks == DayTicks.LINEAR) {
+            convertMeanLinear(epochSeconds, start, step, from, to, offsetSeconds, ticks);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            final long epochSecond = epochSeconds != null ? epochSeconds[i] : start + i * step;
+            ticks[i] = TimeConvert.convertToTicks(epochSecond, offsetSeconds, moonPhases, dayTicks);
+        }
+    }
+
+    /**
+     * {@link DayTicks#LINEAR} and {@link MoonPhases#MEAN} inlined. Timelines are mostly ordered, so the local day
+     * and the moon phase of the previous instant are kept and recomputed only when an instant falls outside them;
+     * the rest is 32-bit arithmetic with constant divisors.
+     */
+    private static void convertMeanLinear(final long @Nullable [] epochSeconds, final long start, final long step,
+                                          final int from, final int to, final int offsetSeconds,
+                                          final int @NonNull [] ticks) {
+        long dayStart = Long.MIN_VALUE;
+        long phaseStart = Long.MIN_VALUE;
+        int moonTicks = 0;
+        for (int i = from; i < to; i++) {
+            final long epochSecond = epochSeconds != null ? epochSeconds[i] : start + i * step;
+            final long localSecond = epochSecond + offsetSeconds;
+            if (Long.compareUnsigned(localSecond - dayStart, SECONDS_IN_DAY) >= 0) {
+                dayStart = localSecond - Math.floorMod(localSecond, (long) SECONDS_IN_DAY);
+            }
+            if (Long.compareUnsigned(epochSecond - phaseStart, MOON_PHASE_SECONDS) >= 0) {
+                // Phases are centered on their mid-point, see TimeConvert.calculateMoonPhase
+                final long phases = Math.floorDiv(epochSecond - PHASE_ORIGIN, MOON_PHASE_SECONDS);
+                phaseStart = PHASE_ORIGIN + phases * MOON_PHASE_SECONDS;
+                moonTicks = MINECRAFT_DAY_LENGTH * (int) Math.floorMod(phases, (long) MOON_PHASE_COUNT);
+            }
+            final int secondOfDay = (int) (localSecond - dayStart);
+            ticks[i] = moonTicks + (secondOfDay * TICKS_PER_18_SECONDS / SECONDS_PER_5_TICKS
+                    + MINECRAFT_DAY_START_OFFSET) % MINECRAFT_DAY_LENGTH;
+        }
+    }
+
+    private static final class Chunk extends RecursiveAction {
+
+        private final long @Nullable [] epochSeconds;
+        private final long start;
+        private final long step;
+        private final int from;
+        private final int to;
+        private final int offsetSeconds;
+        private final MoonPhases moonPhases;
+        private final DayTicks dayTicks;
+        private final int[] ticks;
+
+        private Chunk(final long @Nullable [] epochSeconds, final long start, final long step, final int from,
+                      final int to, final int offsetSeconds, final @NonNull MoonPhases moonPhases,
+                      final @NonNull DayTicks dayTicks, final int @NonNull [] ticks) {
+            this.epochSeconds = epochSeconds;
+            this.start = start;
+            this.step = step;
+            this.from = from;
+            this.to = to;
+            this.offsetSeconds = offsetSeconds;
+            this.moonPhases = moonPhases;
+            this.dayTicks = dayTicks;
+            this.ticks = ticks;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                convert(epochSeconds, start, step, from, to, offsetSeconds, moonPhases, dayTicks, ticks);
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new Chunk(epochSeconds, start, step, from, middle, offsetSeconds, moonPhases, dayTicks, ticks),
+                    new Chunk(epochSeconds, start, step, middle, to, offsetSeconds, moonPhases, dayTicks, ticks));
+        }
+    }
+}
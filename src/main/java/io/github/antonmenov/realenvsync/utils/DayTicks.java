@@ -0,0 +1,50 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.common.value.qual.IntRange;
+
+import java.util.Locale;
+
+/**
+ * Source of the Minecraft time of day of a real instant, without the moon phase.
+ * Implementations must be allocation-free on the hot path and thread-safe.
+ */
+@FunctionalInterface
+public interface DayTicks {
+
+    /**
+     * Maps the local time of day linearly, midnight being 18000 regardless of where the sun is.
+     */
+    @NonNull DayTicks LINEAR = TimeConvert::linearDayTicks;
+
+    /**
+     * @param epochSecond   The instant in seconds since the epoch.
+     * @param nanoOfSecond  The fraction of the second of the instant.
+     * @param offsetSeconds The zone offset at the instant, implementations may ignore it.
+     * @return The time of day ticks.
+     */
+    @IntRange(from = 0, to = 23999) int dayTicksAt(long epochSecond,
+                                                   @IntRange(from = 0, to = 999_999_999) int nanoOfSecond,
+                                                   int offsetSeconds);
+
+    /**
+     * Identifies the model and its parameters, so tick schedule tables stored with another model are not restored.
+     * Models with parameters must override it; 0 stands for {@link #LINEAR}.
+     */
+    default long fingerprint() {
+        return 0;
+    }
+
+    static @NonNull DayTicks from(final @Nullable ConfigurationSection section) {
+        if (section == null) {
+            return LINEAR;
+        }
+        return switch (section.getString("model", "linear").toLowerCase(Locale.ROOT)) {
+            case "linear" -> LINEAR;
+            case "location" -> new SolarDayTicks(GeoLocation.from(section));
+            default -> throw new IllegalArgumentException("Unknown sun model: " + section.getString("model"));
+        };
+    }
+}
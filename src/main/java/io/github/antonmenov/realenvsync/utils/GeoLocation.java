@@ -0,0 +1,22 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A real world location in degrees, not to be confused with {@link org.bukkit.Location}.
+ */
+public record GeoLocation(double latitude, double longitude) {
+
+    public GeoLocation {
+        if (!(latitude >= -90 && latitude <= 90)) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90: " + latitude);
+        } else if (!(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Longitude must be between -180 and 180: " + longitude);
+        }
+    }
+
+    public static @NonNull GeoLocation from(final @NonNull ConfigurationSection section) {
+        return new GeoLocation(section.getDouble("latitude"), section.getDouble("longitude"));
+    }
+}
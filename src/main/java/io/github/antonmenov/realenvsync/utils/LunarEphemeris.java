@@ -0,0 +1,271 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.common.value.qual.IntRange;
+
+import java.util.Arrays;
+
+/**
+ * Real moon phases from the mean synodic month with periodic corrections, after J. Meeus,
+ * <i>Astronomical Algorithms</i>, chapter 49. Instants are accurate to about a minute.
+ * <p>
+ * The principal phases of a range of years are computed once. Each principal phase is the middle of its
+ * Minecraft phase, and the phases in between start a quarter of the way to the neighbouring principal phases.
+ * Lookups are a binary search; instants outside the range fall back to {@link MoonPhases#MEAN}.
+ */
+public final class LunarEphemeris implements MoonPhases {
+
+    private static final double SYNODIC_MONTH_DAYS = 29.530588861;
+    private static final double LUNATIONS_PER_YEAR = 12.3685;
+    private static final double UNIX_EPOCH_JULIAN_DAY = 2440587.5;
+    private static final int SECONDS_IN_DAY = 86_400;
+
+    private static final byte NEW_MOON = 4;
+    private static final byte FIRST_QUARTER = 6;
+    private static final byte FULL_MOON = 0;
+    private static final byte LAST_QUARTER = 2;
+
+    private final long @NonNull [] newMoons;
+    private final long @NonNull [] fullMoons;
+    private final long @NonNull [] phaseStarts;
+    private final byte @NonNull [] phases;
+    private final long coverageEnd;
+    private final long fingerprint;
+
+    private LunarEphemeris(final long @NonNull [] newMoons, final long @NonNull [] fullMoons,
+                           final long @NonNull [] phaseStarts, final byte @NonNull [] phases, final long coverageEnd) {
+        this.newMoons = newMoons;
+        this.fullMoons = fullMoons;
+        this.phaseStarts = phaseStarts;
+        this.phases = phases;
+        this.coverageEnd = coverageEnd;
+        this.fingerprint = 31L * Arrays.hashCode(phaseStarts) + Arrays.hashCode(phases);
+    }
+
+    /**
+     * Precomputes the principal phases from the start of {@code fromYear} to the end of {@code toYear}.
+     */
+    public static @NonNull LunarEphemeris forYears(final int fromYear, final int toYear) {
+        if (fromYear > toYear) {
+            throw new IllegalArgumentException("Year range is empty: " + fromYear + " to " + toYear);
+        }
+
+        // One lunation of margin on both sides, so the whole range is covered
+        final long firstLunation = (long) Math.floor((fromYear - 2000) * LUNATIONS_PER_YEAR) - 1;
+        final long lastLunation = (long) Math.ceil((toYear + 1 - 2000) * LUNATIONS_PER_YEAR) + 1;
+        final int lunations = (int) (lastLunation - firstLunation + 1);
+
+        final long[] principal = new long[lunations * 4];
+        final byte[] principalPhases = new byte[lunations * 4];
+        final long[] newMoons = new long[lunations];
+        final long[] fullMoons = new long[lunations];
+        for (int i = 0; i < lunations; i++) {
+            final long k = firstLunation + i;
+            newMoons[i] = principal[i * 4] = toEpochSecond(phaseJulianEphemerisDay(k, NEW_MOON));
+            principal[i * 4 + 1] = toEpochSecond(phaseJulianEphemerisDay(k + 0.25, FIRST_QUARTER));
+            fullMoons[i] = principal[i * 4 + 2] = toEpochSecond(phaseJulianEphemerisDay(k + 0.5, FULL_MOON));
+            principal[i * 4 + 3] = toEpochSecond(phaseJulianEphemerisDay(k + 0.75, LAST_QUARTER));
+            principalPhases[i * 4] = NEW_MOON;
+            principalPhases[i * 4 + 1] = FIRST_QUARTER;
+            principalPhases[i * 4 + 2] = FULL_MOON;
+            principalPhases[i * 4 + 3] = LAST_QUARTER;
+        }
+
+        final long[] phaseStarts = new long[principal.length * 2 - 1];
+        final byte[] phases = new byte[phaseStarts.length];
+        phaseStarts[0] = principal[0];
+        phases[0] = principalPhases[0];
+        for (int i = 0; i + 1 < principal.length; i++) {
+            final long from = principal[i];
+            final long gap = principal[i + 1] - from;
+            phaseStarts[i * 2 + 1] = from + gap / 4;
+            phases[i * 2 + 1] = (byte) ((principalPhases[i] + 1) % 8);
+            phaseStarts[i * 2 + 2] = from + gap * 3 / 4;
+            phases[i * 2 + 2] = principalPhases[i + 1];
+        }
+        return new LunarEphemeris(newMoons, fullMoons, phaseStarts, phases, principal[principal.length - 1]);
+    }
+
+    @Override
+    public @IntRange(from = 0, to = 7) byte phaseAt(final long epochSecond) {
+        if (epochSecond < phaseStarts[0] || epochSecond >= coverageEnd) {
+            return MEAN.phaseAt(epochSecond);
+        }
+        final int index = Arrays.binarySearch(phaseStarts, epochSecond);
+        return phases[index >= 0 ? index : -index - 2];
+    }
+
+    /**
+     * A hash of the computed phases, so it changes with the year range and with the algorithm.
+     */
+    @Override
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return The first new moon at or after the instant, in epoch seconds.
+     * @throws IllegalArgumentException If the instant is outside the precomputed range.
+     */
+    public long newMoonAtOrAfter(final long epochSecond) {
+        return atOrAfter(newMoons, epochSecond);
+    }
+
+    /**
+     * @return The first full moon at or after the instant, in epoch seconds.
+     * @throws IllegalArgumentException If the instant is outside the precomputed range.
+     */
+    public long fullMoonAtOrAfter(final long epochSecond) {
+        return atOrAfter(fullMoons, epochSecond);
+    }
+
+    private static long atOrAfter(final long @NonNull [] instants, final long epochSecond) {
+        final int index = Arrays.binarySearch(instants, epochSecond);
+        final int atOrAfter = index >= 0 ? index : -index - 1;
+        if (atOrAfter == 0 || atOrAfter >= instants.length) {
+            throw new IllegalArgumentException("Instant is outside the precomputed range: " + epochSecond);
+        }
+        return instants[atOrAfter];
+    }
+
+    private static long toEpochSecond(final double julianEphemerisDay) {
+        final double julianDay = julianEphemerisDay - deltaTSeconds(julianEphemerisDay) / SECONDS_IN_DAY;
+        return Math.round((julianDay - UNIX_EPOCH_JULIAN_DAY) * SECONDS_IN_DAY);
+    }
+
+    /**
+     * Difference between dynamical and universal time, polynomial fits by Espenak and Meeus.
+     */
+    private static double deltaTSeconds(final double julianEphemerisDay) {
+        final double year = 2000 + (julianEphemerisDay - 2451544.5) / 365.25;
+        final double t = year - 2000;
+        if (year >= 1986 && year < 2005) {
+            return 63.86 + 0.3345 * t - 0.060374 * t * t + 0.0017275 * t * t * t
+                    + 0.000651814 * t * t * t * t + 0.00002373599 * t * t * t * t * t;
+        } else if (year >= 2005 && year < 2050) {
+            return 62.92 + 0.32217 * t + 0.005589 * t * t;
+        } else if (year >= 2050 && year < 2150) {
+            final double u = (year - 1820) / 100;
+            return -20 + 32 * u * u - 0.5628 * (2150 - year);
+        }
+        final double u = (year - 1820) / 100;
+        return -20 + 32 * u * u;
+    }
+
+    /**
+     * Instant of a principal phase in Julian Ephemeris Days.
+     *
+     * @param k     Lunations since the new moon of 2000-01-06; whole for new moons, +0.25 for first quarters,
+     *              +0.5 for full moons, +0.75 for last quarters.
+     * @param phase The Minecraft phase of the principal phase, selecting the correction terms.
+     */
+    static double phaseJulianEphemerisDay(final double k, final byte phase) {
+        final double t = k / 1236.85;
+        final double t2 = t * t;
+        final double t3 = t2 * t;
+        final double t4 = t3 * t;
+
+        final double meanPhase = 2451550.09766 + SYNODIC_MONTH_DAYS * k
+                + 0.00015437 * t2 - 0.000000150 * t3 + 0.00000000073 * t4;
+        final double e = 1 - 0.002516 * t - 0.0000074 * t2;
+        final double m = Math.toRadians(2.5534 + 29.10535670 * k - 0.0000014 * t2 - 0.00000011 * t3);
+        final double mp = Math.toRadians(201.5643 + 385.81693528 * k + 0.0107582 * t2 + 0.00001238 * t3
+                - 0.000000058 * t4);
+        final double f = Math.toRadians(160.7108 + 390.67050284 * k - 0.0016118 * t2 - 0.00000227 * t3
+                + 0.000000011 * t4);
+        final double omega = Math.toRadians(124.7746 - 1.56375588 * k + 0.0020672 * t2 + 0.00000215 * t3);
+
+        final double correction = switch (phase) {
+            case NEW_MOON -> syzygyCorrection(e, m, mp, f, omega, -0.40720, 0.17241, 0.01608, 0.01039, 0.00739,
+                    -0.00514, 0.00208);
+            case FULL_MOON -> syzygyCorrection(e, m, mp, f, omega, -0.40614, 0.17302, 0.01614, 0.01043, 0.00734,
+                    -0.00515, 0.00209);
+            case FIRST_QUARTER -> quarterCorrection(e, m, mp, f, omega) + quarterW(e, m, mp, f);
+            case LAST_QUARTER -> quarterCorrection(e, m, mp, f, omega) - quarterW(e, m, mp, f);
+            default -> throw new IllegalArgumentException("Not a principal phase: " + phase);
+        };
+        return meanPhase + correction + planetaryCorrection(k, t2);
+    }
+
+    private static double syzygyCorrection(final double e, final double m, final double mp, final double f,
+                                           final double omega, final double sinMp, final double sinM,
+                                           final double sin2Mp, final double sin2F, final double sinMpMinusM,
+                                           final double sinMpPlusM, final double sin2M) {
+        return sinMp * Math.sin(mp)
+                + sinM * e * Math.sin(m)
+                + sin2Mp * Math.sin(2 * mp)
+                + sin2F * Math.sin(2 * f)
+                + sinMpMinusM * e * Math.sin(mp - m)
+                + sinMpPlusM * e * Math.sin(mp + m)
+                + sin2M * e * e * Math.sin(2 * m)
+                - 0.00111 * Math.sin(mp - 2 * f)
+                - 0.00057 * Math.sin(mp + 2 * f)
+                + 0.00056 * e * Math.sin(2 * mp + m)
+                - 0.00042 * Math.sin(3 * mp)
+                + 0.00042 * e * Math.sin(m + 2 * f)
+                + 0.00038 * e * Math.sin(m - 2 * f)
+                - 0.00024 * e * Math.sin(2 * mp - m)
+                - 0.00017 * Math.sin(omega)
+                - 0.00007 * Math.sin(mp + 2 * m)
+                + 0.00004 * Math.sin(2 * mp - 2 * f)
+                + 0.00004 * Math.sin(3 * m)
+                + 0.00003 * Math.sin(mp + m - 2 * f)
+                + 0.00003 * Math.sin(2 * mp + 2 * f)
+                - 0.00003 * Math.sin(mp + m + 2 * f)
+                + 0.00003 * Math.sin(mp - m + 2 * f)
+                - 0.00002 * Math.sin(mp - m - 2 * f)
+                - 0.00002 * Math.sin(3 * mp + m)
+                + 0.00002 * Math.sin(4 * mp);
+    }
+
+    private static double quarterCorrection(final double e, final double m, final double mp, final double f,
+                                            final double omega) {
+        return -0.62801 * Math.sin(mp)
+                + 0.17172 * e * Math.sin(m)
+                - 0.01183 * e * Math.sin(mp + m)
+                + 0.00862 * Math.sin(2 * mp)
+                + 0.00804 * Math.sin(2 * f)
+                + 0.00454 * e * Math.sin(mp - m)
+                + 0.00204 * e * e * Math.sin(2 * m)
+                - 0.00180 * Math.sin(mp - 2 * f)
+                - 0.00070 * Math.sin(mp + 2 * f)
+                - 0.00040 * Math.sin(3 * mp)
+                - 0.00034 * e * Math.sin(2 * mp - m)
+                + 0.00032 * e * Math.sin(m + 2 * f)
+                + 0.00032 * e * Math.sin(m - 2 * f)
+                - 0.00028 * e * e * Math.sin(mp + 2 * m)
+                + 0.00027 * e * Math.sin(2 * mp + m)
+                - 0.00017 * Math.sin(omega)
+                - 0.00005 * Math.sin(mp - m - 2 * f)
+                + 0.00004 * Math.sin(2 * mp + 2 * f)
+                - 0.00004 * Math.sin(mp + m + 2 * f)
+                + 0.00004 * Math.sin(mp - 2 * m)
+                + 0.00003 * Math.sin(mp + m - 2 * f)
+                + 0.00003 * Math.sin(3 * m)
+                + 0.00002 * Math.sin(2 * mp - 2 * f)
+                + 0.00002 * Math.sin(mp - m + 2 * f)
+                - 0.00002 * Math.sin(3 * mp + m);
+    }
+
+    private static double quarterW(final double e, final double m, final double mp, final double f) {
+        return 0.00306 - 0.00038 * e * Math.cos(m) + 0.00026 * Math.cos(mp)
+                - 0.00002 * Math.cos(mp - m) + 0.00002 * Math.cos(mp + m) + 0.00002 * Math.cos(2 * f);
+    }
+
+    private static double planetaryCorrection(final double k, final double t2) {
+        return 0.000325 * Math.sin(Math.toRadians(299.77 + 0.107408 * k - 0.009173 * t2))
+                + 0.000165 * Math.sin(Math.toRadians(251.88 + 0.016321 * k))
+                + 0.000164 * Math.sin(Math.toRadians(251.83 + 26.651886 * k))
+                + 0.000126 * Math.sin(Math.toRadians(349.42 + 36.412478 * k))
+                + 0.000110 * Math.sin(Math.toRadians(84.66 + 18.206239 * k))
+                + 0.000062 * Math.sin(Math.toRadians(141.74 + 53.303771 * k))
+                + 0.000060 * Math.sin(Math.toRadians(207.14 + 2.453732 * k))
+                + 0.000056 * Math.sin(Math.toRadians(154.84 + 7.306860 * k))
+                + 0.000047 * Math.sin(Math.toRadians(34.52 + 27.261239 * k))
+                + 0.000042 * Math.sin(Math.toRadians(207.19 + 0.121824 * k))
+                + 0.000040 * Math.sin(Math.toRadians(291.34 + 1.844379 * k))
+                + 0.000037 * Math.sin(Math.toRadians(161.72 + 24.198154 * k))
+                + 0.000035 * Math.sin(Math.toRadians(239.56 + 25.513099 * k))
+                + 0.000023 * Math.sin(Math.toRadians(331.55 + 3.592518 * k));
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.common.value.qual.IntRange;
+
+import java.util.Locale;
+
+/**
+ * Source of the Minecraft moon phase of a real instant, 0 being the full moon and 4 the new moon.
+ * Implementations must be allocation-free and thread-safe, they are called on the sync hot path.
+ */
+@FunctionalInterface
+public interface MoonPhases {
+
+    /**
+     * Fixed 29.5-day cycle measured from one full moon, see {@link io.github.antonmenov.realenvsync.plugin.Constants}.
+     */
+    @NonNull MoonPhases MEAN = TimeConvert::calculateMoonPhase;
+
+    @IntRange(from = 0, to = 7) byte phaseAt(long epochSecond);
+
+    /**
+     * Identifies the model and its parameters, so tick schedule tables stored with another model are not restored.
+     * Models with parameters must override it; 0 stands for {@link #MEAN}.
+     */
+    default long fingerprint() {
+        return 0;
+    }
+
+    static @NonNull MoonPhases from(final @Nullable ConfigurationSection section) {
+        if (section == null) {
+            return MEAN;
+        }
+        return switch (section.getString("model", "astronomical").toLowerCase(Locale.ROOT)) {
+            case "mean" -> MEAN;
+            case "astronomical" -> LunarEphemeris.forYears(section.getInt("from-year", 2000),
+                    section.getInt("to-year", 2100));
+            default -> throw new IllegalArgumentException("Unknown moon model: " + section.getString("model"));
+        };
+    }
+}
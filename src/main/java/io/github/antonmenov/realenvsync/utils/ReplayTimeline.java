@@ -0,0 +1,85 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A real date range played back at an accelerated rate, as the full time ticks of each server tick of the playback.
+ * <p>
+ * Nothing is computed up front: {@link #fill} converts any window of the playback on demand, so a replay only keeps
+ * the chunk it plays and the one ahead of it however long the range is.
+ */
+public final class ReplayTimeline {
+
+    private static final long MAX_UNIFORM_OFFSET_SECONDS = 30L * 86_400;
+
+    private final long fromEpochSecond;
+    private final long toEpochSecond;
+    private final double realSecondsPerTick;
+    private final long length;
+    private final ZoneOffsets zoneOffsets;
+    private final MoonPhases moonPhases;
+
+    /**
+     * @param speed How many real seconds pass per second of playback, e.g. 168 plays a week in an hour.
+     */
+    public ReplayTimeline(final long fromEpochSecond, final long toEpochSecond, final @Positive double speed,
+                          final @NonNull ZoneOffsets zoneOffsets, final @NonNull MoonPhases moonPhases) {
+        if (toEpochSecond <= fromEpochSecond) {
+            throw new IllegalArgumentException("Range must end after it starts: " + fromEpochSecond + " - "
+                    + toEpochSecond);
+        } else if (!(speed > 0) || Double.isInfinite(speed)) {
+            throw new IllegalArgumentException("Speed must be positive: " + speed);
+        }
+        this.fromEpochSecond = fromEpochSecond;
+        this.toEpochSecond = toEpochSecond;
+        this.realSecondsPerTick = speed / 20;
+        // The last tick shows the end of the range
+        this.length = (long) Math.ceil((toEpochSecond - fromEpochSecond) / realSecondsPerTick) + 1;
+        this.zoneOffsets = zoneOffsets;
+        this.moonPhases = moonPhases;
+    }
+
+    /**
+     * Number of server ticks the playback takes.
+     */
+    public long length() {
+        return length;
+    }
+
+    public long epochSecondAt(final @NonNegative long tick) {
+        return Math.min(toEpochSecond, fromEpochSecond + (long) (tick * realSecondsPerTick));
+    }
+
+    /**
+     * Converts the playback ticks from {@code firstTick} on into {@code ticks}, as many as fit and remain.
+     *
+     * @param epochSeconds Scratch space at least as long as {@code ticks}, reused between calls.
+     * @return The number of ticks written.
+     */
+    public int fill(final @NonNegative long firstTick, final long @NonNull [] epochSeconds,
+                    final int @NonNull [] ticks) {
+        final int count = (int) Math.max(0, Math.min(ticks.length, length - firstTick));
+        if (count == 0) {
+            return 0;
+        }
+        for (int i = 0; i < count; i++) {
+            epochSeconds[i] = epochSecondAt(firstTick + i);
+        }
+
+        // Offsets change at most twice a year, so equal ones at both ends of a short window hold in between
+        final int offsetSeconds = zoneOffsets.offsetAt(epochSeconds[0]);
+        if (epochSeconds[count - 1] - epochSeconds[0] <= MAX_UNIFORM_OFFSET_SECONDS
+                && zoneOffsets.offsetAt(epochSeconds[count - 1]) == offsetSeconds) {
+            BulkTimeConvert.convertToTicks(epochSeconds, count, offsetSeconds, moonPhases, DayTicks.LINEAR, ticks);
+        } else {
+            // The window spans an offset change, which is rare enough to convert one by one
+            for (int i = 0; i < count; i++) {
+                ticks[i] = TimeConvert.convertToTicks(epochSeconds[i], zoneOffsets.offsetAt(epochSeconds[i]),
+                        moonPhases);
+            }
+        }
+        return count;
+    }
+}
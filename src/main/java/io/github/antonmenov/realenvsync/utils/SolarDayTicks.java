@@ -0,0 +1,150 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.common.value.qual.IntRange;
+
+import static io.github.antonmenov.realenvsync.plugin.Constants.MINECRAFT_DAY_LENGTH;
+import static io.github.antonmenov.realenvsync.plugin.Constants.NANOS_IN_SECOND;
+import static io.github.antonmenov.realenvsync.plugin.Constants.SECONDS_IN_DAY;
+
+/**
+ * Maps real time onto the Minecraft day so that real sunrise, solar noon, sunset and solar midnight at a location
+ * are Minecraft's 0, 6000, 12000 and 18000, interpolating linearly in between.
+ * <p>
+ * Sun times follow the sunrise equation with the NOAA approximations of the solar position, accurate to about
+ * a minute. The anchors of a solar day are computed once and cached, so a conversion is a few comparisons and
+ * one integer interpolation. In polar day or night the sun is kept one degree of hour angle from the horizon.
+ */
+public final class SolarDayTicks implements DayTicks {
+
+    private static final int EPOCH_DAY_OF_J2000 = 10_957;
+    private static final double J2000_JULIAN_DAY = 2451545.0;
+    private static final double UNIX_EPOCH_JULIAN_DAY = 2440587.5;
+    private static final double SUNRISE_ALTITUDE = Math.toRadians(-0.833);
+    private static final double OBLIQUITY = Math.toRadians(23.4397);
+
+    private static final int @NonNull [] ANCHOR_TICKS = {-6000, 0, 6000, 12000, 18000};
+    // Bump when the sun times or the interpolation change, so stored tick schedule tables are built again
+    private static final long MODEL_VERSION = 1;
+
+    private final GeoLocation location;
+    private volatile @Nullable Curve curve;
+
+    public SolarDayTicks(final @NonNull GeoLocation location) {
+        this.location = location;
+    }
+
+    public @NonNull GeoLocation location() {
+        return location;
+    }
+
+    @Override
+    public long fingerprint() {
+        return (MODEL_VERSION * 31 + Double.hashCode(location.latitude())) * 31 + Double.hashCode(location.longitude());
+    }
+
+    @Override
+    public @IntRange(from = 0, to = 23999) int dayTicksAt(final long epochSecond, final int nanoOfSecond,
+                                                          final int offsetSeconds) {
+        @Nullable Curve current = curve;
+        if (current == null || !current.covers(epochSecond)) {
+            current = curveCovering(epochSecond);
+            curve = current;
+        }
+        return current.dayTicksAt(epochSecond, nanoOfSecond);
+    }
+
+    /**
+     * Computes the curve of the solar day around the instant, trying the neighbouring days as the equation of time
+     * moves solar midnight by up to about a quarter of an hour.
+     */
+    @NonNull Curve curveCovering(final long epochSecond) {
+        final long meanSolarSecond = epochSecond + Math.round(location.longitude() / 360 * SECONDS_IN_DAY);
+        final long epochDay = Math.floorDiv(meanSolarSecond, SECONDS_IN_DAY);
+        final Curve curve = computeCurve(epochDay);
+        if (curve.covers(epochSecond)) {
+            return curve;
+        }
+        return computeCurve(epochSecond < curve.anchorSeconds[0] ? epochDay - 1 : epochDay + 1);
+    }
+
+    /**
+     * Anchors of the solar day whose transit is closest to noon of the UTC date of {@code epochDay}
+     * at the location's longitude. Solar midnights are halfway between neighbouring transits, so the curves
+     * of consecutive days join without a step.
+     */
+    @NonNull Curve computeCurve(final long epochDay) {
+        final SunPosition sun = sunPosition(epochDay);
+        final long transitSecond = toEpochSecond(sun.transit());
+        final long previousTransitSecond = toEpochSecond(sunPosition(epochDay - 1).transit());
+        final long nextTransitSecond = toEpochSecond(sunPosition(epochDay + 1).transit());
+
+        final double latitude = Math.toRadians(location.latitude());
+        final double cosHourAngle = (Math.sin(SUNRISE_ALTITUDE) - Math.sin(latitude) * Math.sin(sun.declination()))
+                / (Math.cos(latitude) * Math.cos(sun.declination()));
+        final double hourAngle = Math.min(Math.max(Math.acos(Math.max(-1, Math.min(1, cosHourAngle))),
+                Math.toRadians(1)), Math.toRadians(179));
+        final long halfDaySeconds = Math.round(hourAngle / (2 * Math.PI) * SECONDS_IN_DAY);
+
+        return new Curve(new long[]{
+                (previousTransitSecond + transitSecond) / 2,
+                transitSecond - halfDaySeconds,
+                transitSecond,
+                transitSecond + halfDaySeconds,
+                (transitSecond + nextTransitSecond) / 2});
+    }
+
+    private @NonNull SunPosition sunPosition(final long epochDay) {
+        final double meanSolarNoon = (epochDay - EPOCH_DAY_OF_J2000) - location.longitude() / 360;
+        final double meanAnomaly = Math.toRadians((357.5291 + 0.98560028 * meanSolarNoon) % 360);
+        final double center = 1.9148 * Math.sin(meanAnomaly) + 0.0200 * Math.sin(2 * meanAnomaly)
+                + 0.0003 * Math.sin(3 * meanAnomaly);
+        final double eclipticLongitude = Math.toRadians((Math.toDegrees(meanAnomaly) + center + 180 + 102.9372) % 360);
+        final double transit = J2000_JULIAN_DAY + meanSolarNoon + 0.0053 * Math.sin(meanAnomaly)
+                - 0.0069 * Math.sin(2 * eclipticLongitude);
+        final double declination = Math.asin(Math.sin(eclipticLongitude) * Math.sin(OBLIQUITY));
+        return new SunPosition(transit, declination);
+    }
+
+    private static long toEpochSecond(final double julianDay) {
+        return Math.round((julianDay - UNIX_EPOCH_JULIAN_DAY) * SECONDS_IN_DAY);
+    }
+
+    private record SunPosition(double transit, double declination) {
+    }
+
+    /**
+     * Solar midnight, sunrise, solar noon, sunset and the next solar midnight of one solar day, in epoch seconds.
+     */
+    static final class Curve {
+
+        private final long @NonNull [] anchorSeconds;
+
+        private Curve(final long @NonNull [] anchorSeconds) {
+            this.anchorSeconds = anchorSeconds;
+        }
+
+        boolean covers(final long epochSecond) {
+            return epochSecond >= anchorSeconds[0] && epochSecond < anchorSeconds[4];
+        }
+
+        long anchor(final int index) {
+            return anchorSeconds[index];
+        }
+
+        @IntRange(from = 0, to = 23999) int dayTicksAt(final long epochSecond, final int nanoOfSecond) {
+            int segment = 0;
+            while (segment < 3 && epochSecond >= anchorSeconds[segment + 1]) {
+                segment++;
+            }
+            // Segments are at most a day long, so nanoseconds times ticks stays well within a long
+            final long from = anchorSeconds[segment];
+            final long spanNanos = (anchorSeconds[segment + 1] - from) * NANOS_IN_SECOND;
+            final long elapsedNanos = (epochSecond - from) * NANOS_IN_SECOND + nanoOfSecond;
+            final long ticks = ANCHOR_TICKS[segment] + elapsedNanos * (ANCHOR_TICKS[segment + 1]
+                    - ANCHOR_TICKS[segment]) / spanNanos;
+            return (int) Math.floorMod(ticks, MINECRAFT_DAY_LENGTH);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ThreadPools {
+
+    private ThreadPools() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Creates an executor for blocking work that must never run on the server thread.
+     * <p>
+     * Uses a virtual thread per task when the server runs on Java 21 or newer, otherwise a fixed pool
+     * of daemon threads, as the plugin is compiled for Java 17.
+     *
+     * @param name            The name prefix of the fallback threads.
+     * @param fallbackThreads The number of fallback threads.
+     * @return The executor, to be shut down by the caller.
+     */
+    public static @NonNull ExecutorService newWorkerExecutor(final @NonNull String name,
+                                                             final @Positive int fallbackThreads) {
+        try {
+            final Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (final ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(fallbackThreads, daemonThreadFactory(name));
+        }
+    }
+
+    /**
+     * Creates an executor for CPU-bound work that must not run on the server thread, with one daemon thread per
+     * spare core, at most four, so it never competes with the server thread for all cores.
+     *
+     * @param name The name prefix of the threads.
+     * @return The executor, to be shut down by the caller.
+     */
+    public static @NonNull ExecutorService newComputeExecutor(final @NonNull String name) {
+        final int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+        return Executors.newFixedThreadPool(threads, daemonThreadFactory(name));
+    }
+
+    public static @NonNull ThreadFactory daemonThreadFactory(final @NonNull String name) {
+        final AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, name + " #" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,170 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Full time ticks of one real day in a zone, precomputed per time slot so a lookup is a single array index.
+ * <p>
+ * The day runs from local midnight to the next local midnight, so it is 23 or 25 hours long on DST changes.
+ * Each slot holds the ticks at its start, so slots longer than a second trade precision for memory.
+ */
+public final class TickScheduleTable {
+
+    // Bump when TimeConvert, MoonPhases.MEAN or DayTicks.LINEAR change, so stored tables are built again
+    private static final long CONVERSION_VERSION = 1;
+
+    private final ZoneId zone;
+    private final LocalDate date;
+    private final long startEpochSecond;
+    private final long endEpochSecond;
+    private final int slotSeconds;
+    private final long fingerprint;
+    private final int @NonNull [] ticks;
+
+    private TickScheduleTable(final @NonNull ZoneId zone, final @NonNull LocalDate date, final long startEpochSecond,
+                              final long endEpochSecond, final int slotSeconds, final long fingerprint,
+                              final int @NonNull [] ticks) {
+        this.zone = zone;
+        this.date = date;
+        this.startEpochSecond = startEpochSecond;
+        this.endEpochSecond = endEpochSecond;
+        this.slotSeconds = slotSeconds;
+        this.fingerprint = fingerprint;
+        this.ticks = ticks;
+    }
+
+    public static @NonNull TickScheduleTable build(final @NonNull ZoneId zone, final @NonNull LocalDate date,
+                                                   final @Positive int slotSeconds,
+                                                   final @NonNull MoonPhases moonPhases) {
+        return build(zone, date, slotSeconds, moonPhases, DayTicks.LINEAR);
+    }
+
+    public static @NonNull TickScheduleTable build(final @NonNull ZoneId zone, final @NonNull LocalDate date,
+                                                   final @Positive int slotSeconds,
+                                                   final @NonNull MoonPhases moonPhases,
+                                                   final @NonNull DayTicks dayTicks) {
+        if (slotSeconds <= 0) {
+            throw new IllegalArgumentException("Slot must be positive: " + slotSeconds);
+        }
+
+        final ZoneRules rules = zone.getRules();
+        final long start = date.atStartOfDay(zone).toEpochSecond();
+        final long end = date.plusDays(1).atStartOfDay(zone).toEpochSecond();
+        final int[] ticks = new int[(int) ((end - start + slotSeconds - 1) / slotSeconds)];
+
+        final Instant startInstant = Instant.ofEpochSecond(start);
+        int offsetSeconds = rules.getOffset(startInstant).getTotalSeconds();
+        @Nullable ZoneOffsetTransition transition = rules.nextTransition(startInstant);
+        for (int slot = 0; slot < ticks.length; slot++) {
+            final long epochSecond = start + (long) slot * slotSeconds;
+            while (transition != null && epochSecond >= transition.toEpochSecond()) {
+                offsetSeconds = transition.getOffsetAfter().getTotalSeconds();
+                transition = rules.nextTransition(transition.getInstant());
+            }
+            ticks[slot] = TimeConvert.convertToTicks(epochSecond, offsetSeconds, moonPhases, dayTicks);
+        }
+        return new TickScheduleTable(zone, date, start, end, slotSeconds,
+                fingerprint(zone, slotSeconds, moonPhases, dayTicks), ticks);
+    }
+
+    /**
+     * Identifies everything the slots of a table depend on besides its day: the rules of the zone, the slot length,
+     * the moon and day models with their parameters, and the version of the conversion.
+     */
+    public static long fingerprint(final @NonNull ZoneId zone, final @Positive int slotSeconds,
+                                   final @NonNull MoonPhases moonPhases, final @NonNull DayTicks dayTicks) {
+        long hash = CONVERSION_VERSION;
+        hash = hash * 31 + zone.getRules().hashCode();
+        hash = hash * 31 + slotSeconds;
+        hash = hash * 31 + moonPhases.fingerprint();
+        return hash * 31 + dayTicks.fingerprint();
+    }
+
+    /**
+     * Recreates a table from stored slots, e.g. after a restart, if they were built with the given models.
+     * The stored fingerprint must match the one of the models, so tables built with another configuration, zone
+     * rules or version of the conversion are rejected; a few slots spread over the day are also computed again
+     * and compared.
+     *
+     * @param fingerprint The {@link #fingerprint()} of the stored table.
+     * @return The table, or {@code null} if the slots do not fit the day or do not match.
+     */
+    public static @Nullable TickScheduleTable restore(final @NonNull ZoneId zone, final @NonNull LocalDate date,
+                                                      final @Positive int slotSeconds, final long fingerprint,
+                                                      final int @NonNull [] ticks,
+                                                      final @NonNull MoonPhases moonPhases,
+                                                      final @NonNull DayTicks dayTicks) {
+        final long start = date.atStartOfDay(zone).toEpochSecond();
+        final long end = date.plusDays(1).atStartOfDay(zone).toEpochSecond();
+        if (slotSeconds <= 0 || ticks.length != (end - start + slotSeconds - 1) / slotSeconds
+                || fingerprint != fingerprint(zone, slotSeconds, moonPhases, dayTicks)) {
+            return null;
+        }
+
+        final ZoneRules rules = zone.getRules();
+        for (int sample = 0; sample < 8; sample++) {
+            final int slot = (int) ((long) sample * (ticks.length - 1) / 7);
+            final long epochSecond = start + (long) slot * slotSeconds;
+            final int offsetSeconds = rules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+            if (ticks[slot] != TimeConvert.convertToTicks(epochSecond, offsetSeconds, moonPhases, dayTicks)) {
+                return null;
+            }
+        }
+        return new TickScheduleTable(zone, date, start, end, slotSeconds, fingerprint, ticks);
+    }
+
+    public boolean covers(final long epochSecond) {
+        return epochSecond >= startEpochSecond && epochSecond < endEpochSecond;
+    }
+
+    /**
+     * @param epochSecond An instant this table {@link #covers(long) covers}.
+     * @return The full time ticks at the start of the slot of the instant.
+     */
+    public int ticksAt(final long epochSecond) {
+        return ticks[(int) ((epochSecond - startEpochSecond) / slotSeconds)];
+    }
+
+    public @NonNull ZoneId zone() {
+        return zone;
+    }
+
+    public @NonNull LocalDate date() {
+        return date;
+    }
+
+    public long endEpochSecond() {
+        return endEpochSecond;
+    }
+
+    public int slotSeconds() {
+        return slotSeconds;
+    }
+
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    public int slots() {
+        return ticks.length;
+    }
+
+    public int ticksOfSlot(final int slot) {
+        return ticks[slot];
+    }
+
+    /**
+     * Approximate heap size of the table, dominated by the slot array.
+     */
+    public long memoryBytes() {
+        return 16 + (long) ticks.length * Integer.BYTES + 48;
+    }
+}
@@ -3,15 +3,19 @@
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.common.value.qual.IntRange;
 
-import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.OffsetTime;
+import java.time.ZonedDateTime;
 
-import static io.github.antonmenov.realenvsync.plugin.Constants.MOON_CYCLE_DURATION;
-import static io.github.antonmenov.realenvsync.plugin.Constants.MID_FULL_MOON_OFFSETDATETIME;
+import static io.github.antonmenov.realenvsync.plugin.Constants.MID_FULL_MOON_EPOCH_SECOND;
 import static io.github.antonmenov.realenvsync.plugin.Constants.MINECRAFT_DAY_LENGTH;
 import static io.github.antonmenov.realenvsync.plugin.Constants.MINECRAFT_DAY_START_OFFSET;
-import static io.github.antonmenov.realenvsync.plugin.Constants.MOON_PHASE_DURATION;
+import static io.github.antonmenov.realenvsync.plugin.Constants.MOON_CYCLE_SECONDS;
+import static io.github.antonmenov.realenvsync.plugin.Constants.MOON_PHASE_COUNT;
+import static io.github.antonmenov.realenvsync.plugin.Constants.MOON_PHASE_SECONDS;
+import static io.github.antonmenov.realenvsync.plugin.Constants.NANOS_IN_SECOND;
+import static io.github.antonmenov.realenvsync.plugin.Constants.NANOS_PER_MINECRAFT_TICK;
+import static io.github.antonmenov.realenvsync.plugin.Constants.SECONDS_IN_DAY;
 
 public class TimeConvert {
 
@@ -20,44 +24,118 @@ private TimeConvert() {
     }
 
     public static int convertToTicks(final @NonNull OffsetDateTime dateTime) {
-        final @NonNull OffsetDateTime adjustedFullMoonDateTime = adjustFullMoonTime(dateTime);
-        final Duration timeUntilFullMoon = Duration.between(dateTime, adjustedFullMoonDateTime);
-        final short minecraftTime = calculateMinecraftLocalTimeAt(dateTime.toOffsetTime());
-        final byte moonPhase = calculateMoonPhase(timeUntilFullMoon);
-        final int timeAdjustmentForMoonPhase = MINECRAFT_DAY_LENGTH * moonPhase;
-        return minecraftTime + timeAdjustmentForMoonPhase;
+        return convertToTicks(dateTime, MoonPhases.MEAN);
+    }
+
+    public static int convertToTicks(final @NonNull OffsetDateTime dateTime, final @NonNull MoonPhases moonPhases) {
+        return convertToTicks(dateTime.toEpochSecond(), dateTime.getNano(), dateTime.getOffset().getTotalSeconds(),
+                moonPhases, DayTicks.LINEAR);
+    }
+
+    /**
+     * Same as {@link #convertToTicks(OffsetDateTime)} with the offset the zone had at the instant.
+     */
+    public static int convertToTicks(final @NonNull ZonedDateTime dateTime) {
+        return convertToTicks(dateTime, MoonPhases.MEAN);
+    }
+
+    public static int convertToTicks(final @NonNull ZonedDateTime dateTime, final @NonNull MoonPhases moonPhases) {
+        return convertToTicks(dateTime.toEpochSecond(), dateTime.getNano(), dateTime.getOffset().getTotalSeconds(),
+                moonPhases, DayTicks.LINEAR);
+    }
+
+    /**
+     * Allocation-free equivalent of {@link #convertToTicks(ZonedDateTime)} for the zones' active years,
+     * the offset is looked up in the cached {@link ZoneOffsets} of the zone.
+     */
+    public static int convertToTicks(final long epochSecond, final @NonNull ZoneOffsets zoneOffsets) {
+        return convertToTicks(epochSecond, zoneOffsets.offsetAt(epochSecond));
     }
 
     public static int convertToTicks(final @NonNull OffsetTime time) {
-        return calculateMinecraftLocalTimeAt(time);
+        return calculateMinecraftLocalTimeAt(time.toLocalTime().toNanoOfDay());
     }
 
-    private static @NonNull OffsetDateTime adjustFullMoonTime(final @NonNull OffsetDateTime currentTime) {
-        OffsetDateTime adjustedFullMoon = MID_FULL_MOON_OFFSETDATETIME;
-        while (adjustedFullMoon.isAfter(currentTime)) {
-            adjustedFullMoon = adjustedFullMoon.minus(MOON_CYCLE_DURATION);
-        }
-        while (adjustedFullMoon.isBefore(currentTime)) {
-            adjustedFullMoon = adjustedFullMoon.plus(MOON_CYCLE_DURATION);
-        }
-        return adjustedFullMoon.withOffsetSameInstant(currentTime.getOffset());
+    /**
+     * Allocation-free equivalent of {@link #convertToTicks(OffsetDateTime)}.
+     * <p>
+     * Runs in constant time regardless of how far the instant is from the reference full moon.
+     *
+     * @param epochSecond   The instant in seconds since the epoch.
+     * @param offsetSeconds The zone offset in seconds, used only for the time of day.
+     * @return The full time ticks, including the moon phase.
+     */
+    public static int convertToTicks(final long epochSecond, final int offsetSeconds) {
+        return convertToTicks(epochSecond, offsetSeconds, MoonPhases.MEAN);
     }
 
-    private static @IntRange(from = 0, to = 7) byte calculateMoonPhase(final Duration timeUntilFullMoon) {
-        final Duration halfPhaseDuration = MOON_PHASE_DURATION.dividedBy(2);
-        final Duration timeUntilNextCycle = MOON_CYCLE_DURATION.minus(timeUntilFullMoon);
-        final Duration adjustedTime = halfPhaseDuration.plus(timeUntilNextCycle);
+    /**
+     * Same as {@link #convertToTicks(long, int)} with the moon phase taken from the given source.
+     */
+    public static int convertToTicks(final long epochSecond, final int offsetSeconds,
+                                     final @NonNull MoonPhases moonPhases) {
+        return convertToTicks(epochSecond, offsetSeconds, moonPhases, DayTicks.LINEAR);
+    }
+
+    /**
+     * Same as {@link #convertToTicks(long, int)} with the moon phase and the time of day taken from the given sources.
+     */
+    public static int convertToTicks(final long epochSecond, final int offsetSeconds,
+                                     final @NonNull MoonPhases moonPhases, final @NonNull DayTicks dayTicks) {
+        return convertToTicks(epochSecond, 0, offsetSeconds, moonPhases, dayTicks);
+    }
+
+    /**
+     * Nanosecond precision variant of {@link #convertToTicks(long, int, MoonPhases, DayTicks)}.
+     * <p>
+     * Ticks change exactly every 3.6 real seconds instead of on the first whole second after, so frequent syncs
+     * never see a tick late.
+     */
+    public static int convertToTicks(final long epochSecond,
+                                     final @IntRange(from = 0, to = 999_999_999) int nanoOfSecond,
+                                     final int offsetSeconds, final @NonNull MoonPhases moonPhases,
+                                     final @NonNull DayTicks dayTicks) {
+        final int minecraftTime = dayTicks.dayTicksAt(epochSecond, nanoOfSecond, offsetSeconds);
+        final byte moonPhase = moonPhases.phaseAt(epochSecond);
+        return minecraftTime + MINECRAFT_DAY_LENGTH * moonPhase;
+    }
+
+    static @IntRange(from = 0, to = 23999) int linearDayTicks(final long epochSecond, final int nanoOfSecond,
+                                                              final int offsetSeconds) {
+        final long secondOfDay = Math.floorMod(epochSecond + offsetSeconds, SECONDS_IN_DAY);
+        return calculateMinecraftLocalTimeAt(secondOfDay * NANOS_IN_SECOND + nanoOfSecond);
+    }
+
+    /**
+     * Returns the shortest signed distance from {@code currentTicks} to {@code targetTicks} on a cycle,
+     * e.g. a day for time of day or the moon cycle for full time.
+     *
+     * @param currentTicks The current ticks, may be any full time.
+     * @param targetTicks  The target ticks, may be any full time.
+     * @param cycleLength  The length of the cycle in ticks.
+     * @return The delta to add to {@code currentTicks}, between {@code -cycleLength / 2} and {@code cycleLength / 2}.
+     */
+    public static long signedTickDelta(final long currentTicks, final long targetTicks, final int cycleLength) {
+        final long delta = Math.floorMod(targetTicks - currentTicks, cycleLength);
+        return delta > cycleLength / 2 ? delta - cycleLength : delta;
+    }
 
-        final long phaseCount = adjustedTime.dividedBy(MOON_PHASE_DURATION);
-        return (byte) (phaseCount % 8);
+    /**
+     * Phases are centered on their mid-point, so the full moon phase starts half a phase before
+     * {@link io.github.antonmenov.realenvsync.plugin.Constants#MID_FULL_MOON_OFFSETDATETIME}.
+     * Sub-second precision never changes the result because all moon constants are whole seconds.
+     */
+    static @IntRange(from = 0, to = 7) byte calculateMoonPhase(final long epochSecond) {
+        final long secondsSinceFullMoon = Math.floorMod(epochSecond - MID_FULL_MOON_EPOCH_SECOND, MOON_CYCLE_SECONDS);
+        final long phaseCount = (secondsSinceFullMoon + MOON_PHASE_SECONDS / 2) / MOON_PHASE_SECONDS;
+        return (byte) (phaseCount % MOON_PHASE_COUNT);
     }
 
-    private static @IntRange(from = 0, to = 23999) short calculateMinecraftLocalTimeAt(final OffsetTime time) {
-        final int secondOfDay = time.toLocalTime().toSecondOfDay();
-        final double ticksInSecond = 5d / 18;
-        final double currentTicks = secondOfDay * ticksInSecond;
+    private static @IntRange(from = 0, to = 23999) short calculateMinecraftLocalTimeAt(final long nanoOfDay) {
+        // A tick is exactly 3.6 seconds, so integer division floors without the rounding error of a double
+        final long currentTicks = nanoOfDay / NANOS_PER_MINECRAFT_TICK;
 
-        final long minecraftTime2 = (long) (currentTicks + MINECRAFT_DAY_START_OFFSET); // Ticks are floored to x.0
-        return (short) (minecraftTime2 % MINECRAFT_DAY_LENGTH);
+        final long minecraftTime = currentTicks + MINECRAFT_DAY_START_OFFSET;
+        return (short) (minecraftTime % MINECRAFT_DAY_LENGTH);
     }
 }
@@ -0,0 +1,157 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+/**
+ * Exception-free parsing of the ISO times and datetimes typed in commands, returning primitives.
+ * <p>
+ * {@link LocalTime#parse} and {@link LocalDateTime#parse} build a parse context per call and throw on invalid
+ * input, which costs far more than a valid parse; command blocks and tab completion send invalid input as often
+ * as valid. These parsers accept the same text as {@link java.time.format.DateTimeFormatter#ISO_LOCAL_TIME} and
+ * {@link java.time.format.DateTimeFormatter#ISO_LOCAL_DATE_TIME}, except years outside 0000 to 9999, and return
+ * {@link #INVALID} instead of throwing.
+ */
+public class TimeParser {
+
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int DAYS_0000_TO_1970 = 719_528;
+
+    private TimeParser() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Parses {@code HH:mm[:ss[.fraction]]}.
+     *
+     * @return The nano of day, or {@link #INVALID}.
+     */
+    public static long parseTime(final @NonNull CharSequence text) {
+        return parseTime(text, 0);
+    }
+
+    /**
+     * Parses {@code yyyy-MM-ddTHH:mm[:ss[.fraction]]}, the {@code T} in either case.
+     *
+     * @return The local date and time as milliseconds since 1970-01-01T00:00, digits of the fraction past
+     * milliseconds dropped, or {@link #INVALID}.
+     */
+    public static long parseDateTime(final @NonNull CharSequence text) {
+        if (text.length() < 16 || text.charAt(4) != '-' || text.charAt(7) != '-'
+                || (text.charAt(10) != 'T' && text.charAt(10) != 't')) {
+            return INVALID;
+        }
+        final int year = digits(text, 0, 4);
+        final int month = digits(text, 5, 2);
+        final int day = digits(text, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return INVALID;
+        }
+        final long nanoOfDay = parseTime(text, 11);
+        if (nanoOfDay == INVALID) {
+            return INVALID;
+        }
+        final long epochDay = epochDay(year, month, day);
+        return (epochDay * SECONDS_PER_DAY) * 1000 + nanoOfDay / NANOS_PER_MILLI;
+    }
+
+    public static @NonNull LocalTime toLocalTime(final long nanoOfDay) {
+        return LocalTime.ofNanoOfDay(nanoOfDay);
+    }
+
+    public static @NonNull LocalDateTime toLocalDateTime(final long localEpochMilli) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(localEpochMilli, 1000),
+                (int) (Math.floorMod(localEpochMilli, 1000) * NANOS_PER_MILLI), ZoneOffset.UTC);
+    }
+
+    private static long parseTime(final @NonNull CharSequence text, final int start) {
+        final int length = text.length() - start;
+        if (length < 5 || text.charAt(start + 2) != ':') {
+            return INVALID;
+        }
+        final int hour = digits(text, start, 2);
+        final int minute = digits(text, start + 3, 2);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return INVALID;
+        }
+        long secondOfDay = hour * 3600L + minute * 60L;
+        if (length == 5) {
+            return secondOfDay * NANOS_PER_SECOND;
+        } else if (length < 8 || text.charAt(start + 5) != ':') {
+            return INVALID;
+        }
+        final int second = digits(text, start + 6, 2);
+        if (second < 0 || second > 59) {
+            return INVALID;
+        }
+        secondOfDay += second;
+        if (length == 8) {
+            return secondOfDay * NANOS_PER_SECOND;
+        } else if (text.charAt(start + 8) != '.' || length > 18) {
+            return INVALID;
+        }
+
+        // An empty fraction is allowed, as by ISO_LOCAL_TIME
+        long nano = 0;
+        long scale = NANOS_PER_SECOND;
+        for (int i = start + 9; i < text.length(); i++) {
+            final int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            scale /= 10;
+            nano += digit * scale;
+        }
+        return secondOfDay * NANOS_PER_SECOND + nano;
+    }
+
+    /**
+     * @return The value of the ASCII digits, or -1 if any character is not one.
+     */
+    private static int digits(final @NonNull CharSequence text, final int start, final int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            final int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(final int year, final int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /**
+     * Days from 1970-01-01 in the proleptic Gregorian calendar, the same algorithm as
+     * {@link java.time.LocalDate#toEpochDay()}.
+     */
+    private static long epochDay(final int year, final int month, final int day) {
+        long total = 365L * year;
+        if (year >= 0) {
+            total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        }
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (lengthOfMonth(year, 2) == 28) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+}
@@ -0,0 +1,211 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Offline latitude and longitude to time zone resolver.
+ * <p>
+ * Zones are matched to the nearest principal location of the IANA {@code zone.tab}, bundled as {@code zones.tab},
+ * which is right away from borders and at worst picks a neighbouring zone near them. Locations far from any
+ * principal location, i.e. at sea, get the nautical offset of their longitude.
+ * <p>
+ * The globe is split into a grid of cells and every cell keeps only the locations that can be nearest to some
+ * point in it, so a lookup measures the distance to a handful of locations instead of all of them.
+ */
+public final class ZoneLocator {
+
+    private static final int CELL_DEGREES = 5;
+    private static final int ROWS = 180 / CELL_DEGREES;
+    private static final int COLUMNS = 360 / CELL_DEGREES;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double MAX_DISTANCE_KM = 1500;
+
+    private final ZoneId @NonNull [] zones;
+    private final double @NonNull [] latitudes;
+    private final double @NonNull [] longitudes;
+    private final int @NonNull [] @NonNull [] cellCandidates;
+
+    private ZoneLocator(final ZoneId @NonNull [] zones, final double @NonNull [] latitudes,
+                        final double @NonNull [] longitudes) {
+        this.zones = zones;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.cellCandidates = new int[ROWS * COLUMNS][];
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                cellCandidates[row * COLUMNS + column] = candidatesOf(row, column);
+            }
+        }
+    }
+
+    /**
+     * Reads and indexes the locations in the background, so loading never delays the caller.
+     */
+    public static @NonNull CompletableFuture<ZoneLocator> loadAsync(final @NonNull Supplier<InputStream> resource,
+                                                                    final @NonNull Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (InputStream input = resource.get()) {
+                return load(input);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Reads locations in the {@code zones.tab} format: ISO 6709 coordinates and a zone ID separated by a tab.
+     * Zones unknown to this Java runtime are skipped.
+     */
+    public static @NonNull ZoneLocator load(final @Nullable InputStream input) throws IOException {
+        if (input == null) {
+            throw new IOException("Zone locations not found.");
+        }
+
+        final List<ZoneId> zones = new ArrayList<>();
+        final List<double[]> coordinates = new ArrayList<>();
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            final String[] columns = line.split("\t");
+            if (columns.length < 2) {
+                throw new IOException("Invalid zone location: " + line);
+            }
+            try {
+                zones.add(ZoneId.of(columns[1]));
+            } catch (final DateTimeException e) {
+                continue;
+            }
+            coordinates.add(parseIso6709(columns[0]));
+        }
+
+        final double[] latitudes = new double[zones.size()];
+        final double[] longitudes = new double[zones.size()];
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = Math.toRadians(coordinates.get(i)[0]);
+            longitudes[i] = Math.toRadians(coordinates.get(i)[1]);
+        }
+        return new ZoneLocator(zones.toArray(ZoneId[]::new), latitudes, longitudes);
+    }
+
+    public @NonNull ZoneId resolve(final @NonNull GeoLocation location) {
+        return resolve(location.latitude(), location.longitude());
+    }
+
+    public @NonNull ZoneId resolve(final double latitude, final double longitude) {
+        final int row = Math.min(ROWS - 1, (int) ((latitude + 90) / CELL_DEGREES));
+        final int column = Math.floorMod((int) Math.floor((longitude + 180) / CELL_DEGREES), COLUMNS);
+        final double latitudeRadians = Math.toRadians(latitude);
+        final double longitudeRadians = Math.toRadians(longitude);
+
+        int nearest = -1;
+        double nearestDistance = Double.MAX_VALUE;
+        for (final int candidate : cellCandidates[row * COLUMNS + column]) {
+            final double distance = distance(latitudeRadians, longitudeRadians, candidate);
+            if (distance < nearestDistance) {
+                nearest = candidate;
+                nearestDistance = distance;
+            }
+        }
+        if (nearest < 0 || nearestDistance * EARTH_RADIUS_KM > MAX_DISTANCE_KM) {
+            return ZoneOffset.ofHours((int) Math.round(longitude / 15));
+        }
+        return zones[nearest];
+    }
+
+    public int locations() {
+        return zones.length;
+    }
+
+    /**
+     * Keeps the locations that can be nearest to some point of the cell: any point is within {@code radius}
+     * of the center, so a location further than the nearest one plus twice the radius never wins.
+     */
+    private int @NonNull [] candidatesOf(final int row, final int column) {
+        final double south = Math.toRadians(row * CELL_DEGREES - 90);
+        final double north = Math.toRadians((row + 1) * CELL_DEGREES - 90);
+        final double west = Math.toRadians(column * CELL_DEGREES - 180);
+        final double east = Math.toRadians((column + 1) * CELL_DEGREES - 180);
+        final double centerLatitude = (south + north) / 2;
+        final double centerLongitude = (west + east) / 2;
+        final double radius = Math.max(
+                Math.max(angle(centerLatitude, centerLongitude, south, west),
+                        angle(centerLatitude, centerLongitude, south, east)),
+                Math.max(angle(centerLatitude, centerLongitude, north, west),
+                        angle(centerLatitude, centerLongitude, north, east)));
+
+        final double[] distances = new double[zones.length];
+        double nearest = Double.MAX_VALUE;
+        for (int i = 0; i < zones.length; i++) {
+            distances[i] = distance(centerLatitude, centerLongitude, i);
+            nearest = Math.min(nearest, distances[i]);
+        }
+
+        // Cells far from every location only need the nearest ones to tell that they are at sea
+        final double limit = Math.min(nearest, MAX_DISTANCE_KM / EARTH_RADIUS_KM + radius) + 2 * radius;
+        int count = 0;
+        final int[] candidates = new int[zones.length];
+        for (int i = 0; i < zones.length; i++) {
+            if (distances[i] <= limit) {
+                candidates[count++] = i;
+            }
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    private double distance(final double latitude, final double longitude, final int location) {
+        return angle(latitude, longitude, latitudes[location], longitudes[location]);
+    }
+
+    /**
+     * Central angle between two points in radians, by the haversine formula.
+     */
+    private static double angle(final double latitude1, final double longitude1,
+                                final double latitude2, final double longitude2) {
+        final double sinLatitude = Math.sin((latitude2 - latitude1) / 2);
+        final double sinLongitude = Math.sin((longitude2 - longitude1) / 2);
+        final double h = sinLatitude * sinLatitude
+                + Math.cos(latitude1) * Math.cos(latitude2) * sinLongitude * sinLongitude;
+        return 2 * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    /**
+     * Parses {@code +DDMM+DDDMM} or {@code +DDMMSS+DDDMMSS}, either sign, into degrees.
+     */
+    static double @NonNull [] parseIso6709(final @NonNull String coordinates) {
+        final int split = Math.max(coordinates.lastIndexOf('+'), coordinates.lastIndexOf('-'));
+        if (split <= 0) {
+            throw new IllegalArgumentException("Invalid coordinates: " + coordinates);
+        }
+        return new double[]{parseDegrees(coordinates.substring(0, split), 2),
+                parseDegrees(coordinates.substring(split), 3)};
+    }
+
+    private static double parseDegrees(final @NonNull String value, final int degreeDigits) {
+        final int sign = value.charAt(0) == '-' ? -1 : 1;
+        final String digits = value.substring(1);
+        final int degrees = Integer.parseInt(digits.substring(0, degreeDigits));
+        final int minutes = Integer.parseInt(digits.substring(degreeDigits, degreeDigits + 2));
+        final int seconds = digits.length() > degreeDigits + 2
+                ? Integer.parseInt(digits.substring(degreeDigits + 2)) : 0;
+        return sign * (degrees + minutes / 60.0 + seconds / 3600.0);
+    }
+}
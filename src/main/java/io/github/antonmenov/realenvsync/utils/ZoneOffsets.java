@@ -0,0 +1,107 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.time.Instant;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Offsets of a zone over a range of years as sorted primitive arrays, so resolving the offset of an instant
+ * is a binary search over the transitions instead of a {@link ZoneRules} lookup that allocates.
+ * <p>
+ * Instants outside the range fall back to {@link ZoneRules}, which is correct but slower.
+ */
+public final class ZoneOffsets {
+
+    private static final int YEARS_BEFORE = 1;
+    private static final int YEARS_AFTER = 10;
+    private static final Map<ZoneId, ZoneOffsets> CACHE = new ConcurrentHashMap<>();
+
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    private final long startEpochSecond;
+    private final long endEpochSecond;
+    private final long @NonNull [] transitionEpochSeconds;
+    private final int @NonNull [] offsetSeconds;
+
+    private ZoneOffsets(final @NonNull ZoneId zone, final long startEpochSecond, final long endEpochSecond,
+                        final long @NonNull [] transitionEpochSeconds, final int @NonNull [] offsetSeconds) {
+        this.zone = zone;
+        this.rules = zone.getRules();
+        this.startEpochSecond = startEpochSecond;
+        this.endEpochSecond = endEpochSecond;
+        this.transitionEpochSeconds = transitionEpochSeconds;
+        this.offsetSeconds = offsetSeconds;
+    }
+
+    /**
+     * Returns the shared offsets of the zone, covering from the year before the current one to ten years ahead.
+     */
+    public static @NonNull ZoneOffsets of(final @NonNull ZoneId zone) {
+        return CACHE.computeIfAbsent(zone, key -> {
+            final int year = Year.now(key).getValue();
+            return forYears(key, year - YEARS_BEFORE, year + YEARS_AFTER);
+        });
+    }
+
+    public static @NonNull ZoneOffsets forYears(final @NonNull ZoneId zone, final int fromYear, final int toYear) {
+        if (fromYear > toYear) {
+            throw new IllegalArgumentException("Years are reversed: " + fromYear + " > " + toYear);
+        }
+
+        final ZoneRules rules = zone.getRules();
+        if (rules.isFixedOffset()) {
+            return new ZoneOffsets(zone, Long.MIN_VALUE, Long.MAX_VALUE, new long[0],
+                    new int[]{rules.getOffset(Instant.EPOCH).getTotalSeconds()});
+        }
+
+        final long start = Year.of(fromYear).atDay(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        final long end = Year.of(toYear + 1).atDay(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        long[] transitions = new long[16];
+        int[] offsets = new int[17];
+        offsets[0] = rules.getOffset(Instant.ofEpochSecond(start)).getTotalSeconds();
+        int count = 0;
+        ZoneOffsetTransition transition = rules.nextTransition(Instant.ofEpochSecond(start));
+        while (transition != null && transition.toEpochSecond() < end) {
+            if (count == transitions.length) {
+                transitions = Arrays.copyOf(transitions, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2 + 1);
+            }
+            transitions[count] = transition.toEpochSecond();
+            offsets[++count] = transition.getOffsetAfter().getTotalSeconds();
+            transition = rules.nextTransition(transition.getInstant());
+        }
+        return new ZoneOffsets(zone, start, end, Arrays.copyOf(transitions, count), Arrays.copyOf(offsets, count + 1));
+    }
+
+    public @NonNull ZoneId zone() {
+        return zone;
+    }
+
+    /**
+     * @return The total offset in seconds in effect at the instant.
+     */
+    public int offsetAt(final long epochSecond) {
+        if (epochSecond < startEpochSecond || epochSecond >= endEpochSecond) {
+            return rules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+        }
+        final int index = Arrays.binarySearch(transitionEpochSeconds, epochSecond);
+        // A transition instant already has the offset after it
+        return offsetSeconds[index >= 0 ? index + 1 : -index - 1];
+    }
+
+    public boolean covers(final long epochSecond) {
+        return epochSecond >= startEpochSecond && epochSecond < endEpochSecond;
+    }
+
+    public int transitions() {
+        return transitionEpochSeconds.length;
+    }
+}
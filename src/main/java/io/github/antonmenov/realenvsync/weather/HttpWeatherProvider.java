@@ -0,0 +1,66 @@
+package io.github.antonmenov.realenvsync.weather;
+
+import io.github.antonmenov.realenvsync.utils.GeoLocation;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Fetches the current weather from an Open-Meteo compatible forecast API.
+ */
+public class HttpWeatherProvider implements WeatherProvider {
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Duration timeout;
+
+    public HttpWeatherProvider(final @NonNull String baseUrl, final @NonNull Duration timeout) {
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public @NonNull Weather fetch(final @NonNull GeoLocation location) throws IOException, InterruptedException {
+        // Plain decimals, as a double near zero prints in scientific notation; 4 places are about 11 m
+        final URI uri = URI.create(String.format(Locale.ROOT, "%s?latitude=%.4f&longitude=%.4f&current=weather_code",
+                baseUrl, location.latitude(), location.longitude()));
+        final HttpRequest request = HttpRequest.newBuilder(uri).timeout(timeout).GET().build();
+        final HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Weather request failed with status " + response.statusCode() + ": " + uri);
+        }
+        return Weather.fromWmoCode(parseWeatherCode(response.body()));
+    }
+
+    /**
+     * Reads {@code current.weather_code} without a JSON library, the response is small and flat.
+     */
+    static int parseWeatherCode(final @NonNull String body) throws IOException {
+        final int current = body.indexOf("\"current\":");
+        final int key = current < 0 ? -1 : body.indexOf("\"weather_code\":", current);
+        if (key < 0) {
+            throw new IOException("Weather response has no current weather code: " + body);
+        }
+
+        int index = key + "\"weather_code\":".length();
+        while (index < body.length() && Character.isWhitespace(body.charAt(index))) {
+            index++;
+        }
+        int code = 0;
+        final int start = index;
+        while (index < body.length() && Character.isDigit(body.charAt(index))) {
+            code = code * 10 + body.charAt(index++) - '0';
+        }
+        if (index == start) {
+            throw new IOException("Weather response has an invalid weather code: " + body);
+        }
+        return code;
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.antonmenov.realenvsync.weather;
+
+import io.github.antonmenov.realenvsync.utils.GeoLocation;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Reports the same weather everywhere, for testing without network access.
+ */
+public class StaticWeatherProvider implements WeatherProvider {
+
+    private final Weather weather;
+
+    public StaticWeatherProvider(final @NonNull Weather weather) {
+        this.weather = weather;
+    }
+
+    @Override
+    public @NonNull Weather fetch(final @NonNull GeoLocation location) {
+        return weather;
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.antonmenov.realenvsync.weather;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Weather as far as Minecraft can show it.
+ */
+public enum Weather {
+    CLEAR(false, false), RAIN(true, false), THUNDER(true, true);
+
+    private final boolean storm;
+    private final boolean thundering;
+
+    Weather(final boolean storm, final boolean thundering) {
+        this.storm = storm;
+        this.thundering = thundering;
+    }
+
+    /**
+     * Maps a WMO weather interpretation code. Snow is rain as well, Minecraft shows it as snow in cold biomes.
+     *
+     * @param code The WMO code, 0 to 99.
+     * @return The matching weather.
+     */
+    public static @NonNull Weather fromWmoCode(final int code) {
+        if (code >= 95) {
+            return THUNDER;
+        } else if (code >= 50) {
+            return RAIN;
+        }
+        return CLEAR;
+    }
+
+    /**
+     * Whether it rains or snows.
+     */
+    public boolean storm() {
+        return storm;
+    }
+
+    public boolean thundering() {
+        return thundering;
+    }
+}
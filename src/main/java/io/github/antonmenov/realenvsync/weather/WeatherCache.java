@@ -0,0 +1,143 @@
+package io.github.antonmenov.realenvsync.weather;
+
+import io.github.antonmenov.realenvsync.metrics.Metrics;
+import io.github.antonmenov.realenvsync.state.StateStore;
+import io.github.antonmenov.realenvsync.utils.GeoLocation;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Location-keyed cache in front of a {@link WeatherProvider}.
+ * <p>
+ * Fetches run on the given executor, never on the calling thread. Concurrent requests for a location that is
+ * being fetched share the same fetch, and results are reused until they are older than the time to live.
+ */
+public class WeatherCache implements AutoCloseable {
+
+    private final WeatherProvider provider;
+    private final ExecutorService executor;
+    private final Clock clock;
+    private final long ttlMillis;
+    private final Metrics metrics;
+    private final @Nullable StateStore store;
+    private final ConcurrentMap<GeoLocation, Cached> cache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<GeoLocation, CompletableFuture<Weather>> inFlight = new ConcurrentHashMap<>();
+
+    public WeatherCache(final @NonNull WeatherProvider provider, final @NonNull ExecutorService executor,
+                        final @NonNull Clock clock, final @Positive @NonNull Duration ttl) {
+        this(provider, executor, clock, ttl, new Metrics());
+    }
+
+    public WeatherCache(final @NonNull WeatherProvider provider, final @NonNull ExecutorService executor,
+                        final @NonNull Clock clock, final @Positive @NonNull Duration ttl,
+                        final @NonNull Metrics metrics) {
+        this(provider, executor, clock, ttl, metrics, null);
+    }
+
+    /**
+     * @param store Seeds the cache with the weather fetched before a restart and keeps every fetch.
+     */
+    public WeatherCache(final @NonNull WeatherProvider provider, final @NonNull ExecutorService executor,
+                        final @NonNull Clock clock, final @Positive @NonNull Duration ttl,
+                        final @NonNull Metrics metrics, final @Nullable StateStore store) {
+        this.provider = provider;
+        this.executor = executor;
+        this.clock = clock;
+        this.ttlMillis = ttl.toMillis();
+        this.metrics = metrics;
+        this.store = store;
+        if (store != null) {
+            for (final StateStore.WeatherState state : store.weathers()) {
+                cache.put(state.location(), new Cached(state.weather(), state.fetchedAtMillis()));
+            }
+        }
+    }
+
+    /**
+     * Returns the cached weather if it is still fresh, without starting a fetch.
+     */
+    public @Nullable Weather getIfFresh(final @NonNull GeoLocation location) {
+        final @Nullable Cached cached = cache.get(location);
+        if (cached == null || clock.millis() - cached.fetchedAtMillis >= ttlMillis) {
+            return null;
+        }
+        metrics.increment(Metrics.Counter.WEATHER_CACHE_HITS);
+        return cached.weather;
+    }
+
+    /**
+     * Returns the cached weather if it is still fresh, without counting a cache hit, e.g. to pass it on.
+     */
+    public @Nullable Weather peek(final @NonNull GeoLocation location) {
+        final @Nullable Cached cached = cache.get(location);
+        return cached == null || clock.millis() - cached.fetchedAtMillis >= ttlMillis ? null : cached.weather;
+    }
+
+    /**
+     * Returns the fresh cached weather or a future of the fetch, shared with all concurrent callers.
+     */
+    public @NonNull CompletableFuture<Weather> get(final @NonNull GeoLocation location) {
+        final @Nullable Weather fresh = getIfFresh(location);
+        if (fresh != null) {
+            return CompletableFuture.completedFuture(fresh);
+        }
+        metrics.increment(Metrics.Counter.WEATHER_CACHE_MISSES);
+
+        final CompletableFuture<Weather> created = new CompletableFuture<>();
+        final @Nullable CompletableFuture<Weather> existing = inFlight.putIfAbsent(location, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            executor.execute(() -> fetch(location, created));
+        } catch (final RejectedExecutionException e) {
+            inFlight.remove(location, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    private void fetch(final @NonNull GeoLocation location, final @NonNull CompletableFuture<Weather> future) {
+        final long start = System.nanoTime();
+        try {
+            final Weather weather = provider.fetch(location);
+            metrics.record(Metrics.Timer.WEATHER_FETCH, System.nanoTime() - start);
+            // Cached before the in-flight entry is removed, so no caller starts another fetch in between
+            final long fetchedAtMillis = clock.millis();
+            cache.put(location, new Cached(weather, fetchedAtMillis));
+            if (store != null) {
+                store.putWeather(location, weather, fetchedAtMillis);
+            }
+            inFlight.remove(location, future);
+            future.complete(weather);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            metrics.increment(Metrics.Counter.WEATHER_FETCH_FAILURES);
+            inFlight.remove(location, future);
+            future.completeExceptionally(e);
+        } catch (final Exception e) {
+            metrics.increment(Metrics.Counter.WEATHER_FETCH_FAILURES);
+            inFlight.remove(location, future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        inFlight.values().forEach(future -> future.cancel(true));
+        inFlight.clear();
+    }
+
+    private record Cached(@NonNull Weather weather, long fetchedAtMillis) {
+    }
+}
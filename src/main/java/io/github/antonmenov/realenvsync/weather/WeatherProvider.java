@@ -0,0 +1,17 @@
+package io.github.antonmenov.realenvsync.weather;
+
+import io.github.antonmenov.realenvsync.utils.GeoLocation;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.io.IOException;
+
+/**
+ * Source of the current real weather.
+ * <p>
+ * Implementations may block, they are only called from {@link WeatherCache} worker threads.
+ */
+@FunctionalInterface
+public interface WeatherProvider {
+
+    @NonNull Weather fetch(@NonNull GeoLocation location) throws IOException, InterruptedException;
+}
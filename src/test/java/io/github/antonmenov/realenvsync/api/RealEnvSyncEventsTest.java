@@ -0,0 +1,122 @@
+package io.github.antonmenov.realenvsync.api;
+
+import io.github.antonmenov.realenvsync.load.FakeBukkit;
+import io.github.antonmenov.realenvsync.metrics.Metrics;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncDateAndTimeService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncWeatherService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncWorldRegistry;
+import io.github.antonmenov.realenvsync.utils.MoonPhases;
+import io.github.antonmenov.realenvsync.weather.Weather;
+import org.bukkit.World;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.RegisteredListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RealEnvSyncEventsTest {
+
+    private final FakeBukkit bukkit = new FakeBukkit();
+    private final Listener listener = new Listener() {
+    };
+    private World world;
+    private RealEnvSyncDateAndTimeService service;
+
+    @BeforeEach
+    void installServer() {
+        FakeBukkit.install();
+        world = bukkit.addWorld("world");
+        final RealEnvSyncWorldRegistry worldRegistry = new RealEnvSyncWorldRegistry(bukkit.server());
+        worldRegistry.refresh();
+        service = new RealEnvSyncDateAndTimeService(worldRegistry, MoonPhases.MEAN, new Metrics());
+    }
+
+    @AfterEach
+    void unregisterListener() {
+        HandlerList.unregisterAll(listener);
+    }
+
+    private void listen(final HandlerList handlers, final EventExecutor executor) {
+        handlers.register(new RegisteredListener(listener, executor, EventPriority.NORMAL, bukkit.plugin(), false));
+    }
+
+    @Test
+    void givenCancellingListener_whenApplyingCommandTime_thenClockIsKept() {
+        // Given
+        listen(RealEnvSyncTimeApplyEvent.getHandlerList(),
+                (ignored, event) -> ((RealEnvSyncTimeApplyEvent) event).setCancelled(true));
+
+        // When
+        final RealEnvSyncDateAndTimeService.Result result =
+                service.apply("world", RealEnvSyncDateAndTimeService.Action.DATETIME, 6000);
+
+        // Then
+        assertEquals(RealEnvSyncDateAndTimeService.ResultType.CANCELLED, result.type());
+        assertEquals(0, world.getFullTime());
+        assertEquals(0, bukkit.fullTimeWrites());
+    }
+
+    @Test
+    void givenCancellingListener_whenMovingClock_thenClockIsKept() {
+        // Given
+        listen(RealEnvSyncTimeApplyEvent.getHandlerList(),
+                (ignored, event) -> ((RealEnvSyncTimeApplyEvent) event).setCancelled(true));
+
+        // When
+        final boolean moved = service.moveClock(world, 1000);
+
+        // Then
+        assertFalse(moved);
+        assertEquals(0, bukkit.fullTimeWrites());
+    }
+
+    @Test
+    void givenCancellingListener_whenApplyingWeather_thenWeatherIsKept() {
+        // Given
+        listen(RealEnvSyncWeatherApplyEvent.getHandlerList(),
+                (ignored, event) -> ((RealEnvSyncWeatherApplyEvent) event).setCancelled(true));
+
+        // When
+        final boolean applied = new RealEnvSyncWeatherService().applyWeather(world, Weather.THUNDER);
+
+        // Then
+        assertFalse(applied);
+        assertFalse(world.hasStorm());
+        assertFalse(world.isThundering());
+    }
+
+    @Test
+    void givenListenerCancellingCommands_whenAutoSyncFollows_thenReusedEventStartsFresh() {
+        // Given
+        final List<RealEnvSyncTimeApplyEvent> events = new ArrayList<>();
+        final List<String> seen = new ArrayList<>();
+        listen(RealEnvSyncTimeApplyEvent.getHandlerList(), (ignored, event) -> {
+            final RealEnvSyncTimeApplyEvent timeEvent = (RealEnvSyncTimeApplyEvent) event;
+            events.add(timeEvent);
+            seen.add(timeEvent.getCause() + " " + timeEvent.getPreviousFullTime() + " " + timeEvent.getFullTime()
+                    + " " + timeEvent.isCancelled());
+            timeEvent.setCancelled(timeEvent.getCause() == RealEnvSyncTimeApplyEvent.Cause.COMMAND);
+        });
+        service.apply("world", RealEnvSyncDateAndTimeService.Action.DATETIME, 6000);
+
+        // When
+        final boolean moved = service.moveClock(world, 1000);
+
+        // Then
+        assertTrue(moved);
+        assertEquals(1000, world.getFullTime());
+        assertSame(events.get(0), events.get(1));
+        assertEquals(List.of("COMMAND 0 6000 false", "AUTO_SYNC 0 1000 false"), seen);
+    }
+}
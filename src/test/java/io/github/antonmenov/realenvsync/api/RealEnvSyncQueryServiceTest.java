@@ -0,0 +1,96 @@
+package io.github.antonmenov.realenvsync.api;
+
+import io.github.antonmenov.realenvsync.load.FakeBukkit;
+import io.github.antonmenov.realenvsync.load.SimulatedAutoSync;
+import io.github.antonmenov.realenvsync.load.SimulatedScheduler;
+import io.github.antonmenov.realenvsync.metrics.PrometheusEndpoint;
+import io.github.antonmenov.realenvsync.plugin.RealEnvSyncConfig;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncAutoSyncEngine;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncClusterService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncDateAndTimeService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncPlayerTimeService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncTickScheduleService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncWeatherSyncEngine;
+import io.github.antonmenov.realenvsync.utils.DayTicks;
+import io.github.antonmenov.realenvsync.utils.MoonPhases;
+import io.github.antonmenov.realenvsync.utils.TimeConvert;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RealEnvSyncQueryServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-31T12:00:00Z");
+    private static final ZoneId SOFIA = ZoneId.of("Europe/Sofia");
+
+    private static RealEnvSyncConfig config(final RealEnvSyncAutoSyncEngine.Settings autoSync) {
+        return new RealEnvSyncConfig(MoonPhases.MEAN, DayTicks.LINEAR,
+                RealEnvSyncTickScheduleService.Settings.from(null), autoSync,
+                RealEnvSyncPlayerTimeService.Settings.from(null), RealEnvSyncWeatherSyncEngine.Settings.from(null),
+                PrometheusEndpoint.Settings.from(null), RealEnvSyncClusterService.Settings.from(null));
+    }
+
+    private static RealEnvSyncAutoSyncEngine engine(final RealEnvSyncAutoSyncEngine.Settings settings) {
+        final FakeBukkit bukkit = new FakeBukkit();
+        bukkit.addWorld("world");
+        bukkit.addWorld("lobby");
+        return SimulatedAutoSync.engine(bukkit, new SimulatedScheduler(NOW), settings);
+    }
+
+    @Test
+    void givenInstant_whenQueryingTicks_thenMatchesConversionInZone() {
+        // Given
+        final RealEnvSyncConfig config = config(RealEnvSyncAutoSyncEngine.Settings.from(null));
+        final RealEnvSyncQueryService query = new RealEnvSyncQueryService(() -> config, () -> null);
+
+        // When
+        final int ticks = query.targetTicks(NOW, SOFIA);
+        final OptionalInt worldTicks = query.targetTicks("world");
+
+        // Then
+        assertEquals(TimeConvert.convertToTicks(NOW.atZone(SOFIA)), ticks);
+        assertEquals(OptionalInt.empty(), worldTicks);
+    }
+
+    @Test
+    void givenAutoSyncInTimeMode_whenQueryingWorlds_thenOnlyManagedWorldHasTimeOfDay() {
+        // Given
+        final RealEnvSyncAutoSyncEngine.Settings settings =
+                SimulatedAutoSync.settings(List.of("world"), RealEnvSyncDateAndTimeService.Action.TIME, 1);
+        final RealEnvSyncAutoSyncEngine engine = engine(settings);
+        final RealEnvSyncConfig config = config(settings);
+        final RealEnvSyncQueryService query = new RealEnvSyncQueryService(() -> config, () -> engine);
+
+        // When
+        final OptionalInt worldTicks = query.targetTicks("world");
+        final OptionalInt lobbyTicks = query.targetTicks("lobby");
+
+        // Then
+        assertEquals(OptionalInt.of(query.targetTicks(NOW) % 24_000), worldTicks);
+        assertEquals(OptionalInt.empty(), lobbyTicks);
+    }
+
+    @Test
+    void givenWorldPausedByReplay_whenQueryingWorld_thenHasNoTarget() {
+        // Given
+        final RealEnvSyncAutoSyncEngine.Settings settings =
+                SimulatedAutoSync.settings(List.of("world", "lobby"), RealEnvSyncDateAndTimeService.Action.DATETIME, 1);
+        final RealEnvSyncAutoSyncEngine engine = engine(settings);
+        engine.pauseWhile("world"::equals);
+        final RealEnvSyncConfig config = config(settings);
+        final RealEnvSyncQueryService query = new RealEnvSyncQueryService(() -> config, () -> engine);
+
+        // When
+        final OptionalInt worldTicks = query.targetTicks("world");
+        final OptionalInt lobbyTicks = query.targetTicks("lobby");
+
+        // Then
+        assertEquals(OptionalInt.empty(), worldTicks);
+        assertEquals(OptionalInt.of(query.targetTicks(NOW)), lobbyTicks);
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.antonmenov.realenvsync.cluster;
+
+import io.github.antonmenov.realenvsync.utils.GeoLocation;
+import io.github.antonmenov.realenvsync.weather.Weather;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyncFrameTest {
+
+    private static final SecretKey KEY = SyncFrame.key("0123456789abcdef");
+
+    @Test
+    void givenFrameWithWeather_whenEncodingAndDecoding_thenEqualsOriginal() {
+        // Given
+        final SyncFrame frame = new SyncFrame(7, 1_711_846_500_000L, 42, 1_711_846_542_000L, 171_234,
+                Map.of(new GeoLocation(42.6977, 23.3219), Weather.THUNDER, new GeoLocation(-33.8688, 151.2093),
+                        Weather.CLEAR));
+
+        // When
+        final byte[] bytes = frame.encode(KEY);
+        final SyncFrame decoded = SyncFrame.decode(bytes, KEY);
+
+        // Then
+        assertEquals(42 + 2 * 17 + 32, bytes.length);
+        assertEquals(frame, decoded);
+    }
+
+    @Test
+    void givenFramesOfOneLeader_whenComparing_thenLaterTermOrSequenceIsNewer() {
+        // Given
+        final SyncFrame first = new SyncFrame(7, 100, 5, 0, 0, Map.of());
+        final SyncFrame later = new SyncFrame(7, 100, 6, 0, 0, Map.of());
+        final SyncFrame restarted = new SyncFrame(7, 200, 1, 0, 0, Map.of());
+
+        // When
+        final boolean laterIsNewer = later.isNewerThan(first);
+        final boolean firstIsNewer = first.isNewerThan(later);
+        final boolean restartedIsNewer = restarted.isNewerThan(later);
+
+        // Then
+        assertTrue(laterIsNewer);
+        assertFalse(firstIsNewer);
+        assertTrue(restartedIsNewer);
+    }
+}
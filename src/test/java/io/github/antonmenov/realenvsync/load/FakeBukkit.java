@@ -0,0 +1,242 @@
+package io.github.antonmenov.realenvsync.load;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.RegisteredListener;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Headless Bukkit stand-ins that record the clock writes of the plugin.
+ * <p>
+ * The fakes are {@link Proxy} instances, so they implement the whole Bukkit interfaces while only the methods
+ * the plugin calls on its sync paths keep state. Every call to a fake is counted, as proxy calls box their
+ * arguments and results and so add to the allocation the harness measures.
+ */
+public final class FakeBukkit {
+
+    private final Map<String, World> worlds = new LinkedHashMap<>();
+    private final List<Player> players = new ArrayList<>();
+    private final Server server;
+    private final Plugin plugin;
+    private final PluginManager pluginManager;
+    private final PersistentDataContainer dataContainer;
+    private long timeWrites;
+    private long fullTimeWrites;
+    private long playerTimeWrites;
+    private long calls;
+
+    public FakeBukkit() {
+        final Logger logger = Logger.getLogger("RealEnvSync");
+        // Calls the listeners registered on the event's handler list, like SimplePluginManager does
+        pluginManager = proxy(PluginManager.class, (method, args) -> {
+            if (method.getName().equals("callEvent") && args[0] instanceof Event event) {
+                for (final RegisteredListener listener : event.getHandlers().getRegisteredListeners()) {
+                    try {
+                        listener.callEvent(event);
+                    } catch (final EventException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+            return defaultValue(method);
+        });
+        server = proxy(Server.class, (method, args) -> switch (method.getName()) {
+            case "getWorld" -> args[0] instanceof String name ? worlds.get(name) : null;
+            case "getWorlds" -> List.copyOf(worlds.values());
+            case "getOnlinePlayers" -> List.copyOf(players);
+            case "getPluginManager" -> pluginManager;
+            case "isPrimaryThread" -> true;
+            case "getName" -> "FakeBukkit";
+            case "getLogger" -> logger;
+            default -> defaultValue(method);
+        });
+        plugin = proxy(Plugin.class, (method, args) -> switch (method.getName()) {
+            case "getName" -> "RealEnvSync";
+            case "getServer" -> server;
+            case "getLogger" -> logger;
+            case "isEnabled" -> true;
+            default -> defaultValue(method);
+        });
+        // Players opt in through the harness, so stored zones are never read back
+        dataContainer = proxy(PersistentDataContainer.class, (method, args) -> defaultValue(method));
+    }
+
+    public @NonNull World addWorld(final @NonNull String name) {
+        final long[] fullTime = {0};
+        final Boolean[] daylightCycle = {Boolean.TRUE};
+        final boolean[] weather = {false, false};
+        final World world = proxy(World.class, (method, args) -> switch (method.getName()) {
+            case "getName" -> name;
+            case "getFullTime" -> fullTime[0];
+            case "getTime" -> fullTime[0] % 24_000;
+            case "setFullTime" -> {
+                fullTime[0] = (long) args[0];
+                fullTimeWrites++;
+                yield null;
+            }
+            case "setTime" -> {
+                // Moves forward to the time of day like CraftWorld does
+                fullTime[0] += Math.floorMod((long) args[0] - fullTime[0], 24_000L);
+                timeWrites++;
+                yield null;
+            }
+            case "hasStorm" -> weather[0];
+            case "isThundering" -> weather[1];
+            case "setStorm" -> {
+                weather[0] = (boolean) args[0];
+                yield null;
+            }
+            case "setThundering" -> {
+                weather[1] = (boolean) args[0];
+                yield null;
+            }
+            case "getGameRuleValue" -> daylightCycle[0];
+            case "setGameRule" -> {
+                daylightCycle[0] = (Boolean) args[1];
+                yield true;
+            }
+            default -> defaultValue(method);
+        });
+        worlds.put(name, world);
+        return world;
+    }
+
+    public @NonNull Player addPlayer(final @NonNull String name, final @NonNull World world) {
+        final UUID uuid = UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+        final long[] playerTime = {-1};
+        final Player player = proxy(Player.class, (method, args) -> switch (method.getName()) {
+            case "getName" -> name;
+            case "getUniqueId" -> uuid;
+            case "getWorld" -> world;
+            case "isValid", "isOnline" -> true;
+            case "getPersistentDataContainer" -> dataContainer;
+            case "getPlayerTime" -> playerTime[0];
+            case "setPlayerTime" -> {
+                playerTime[0] = (long) args[0];
+                playerTimeWrites++;
+                yield null;
+            }
+            case "resetPlayerTime" -> {
+                playerTime[0] = -1;
+                yield null;
+            }
+            default -> defaultValue(method);
+        });
+        players.add(player);
+        return player;
+    }
+
+    /**
+     * A console that drops all messages.
+     */
+    public @NonNull CommandSender console() {
+        return proxy(CommandSender.class, (method, args) -> switch (method.getName()) {
+            case "getName" -> "CONSOLE";
+            case "isOp", "hasPermission" -> true;
+            default -> defaultValue(method);
+        });
+    }
+
+    public @NonNull Server server() {
+        return server;
+    }
+
+    /**
+     * Makes a fake the Bukkit server, so events the plugin calls reach the listeners registered on their handler
+     * lists. Bukkit keeps the first server for the whole JVM, which is fine as the plugin managers of all fakes
+     * behave alike.
+     */
+    public static void install() {
+        if (Bukkit.getServer() == null) {
+            Bukkit.setServer(new FakeBukkit().server());
+        }
+    }
+
+    public @NonNull Plugin plugin() {
+        return plugin;
+    }
+
+    public @NonNull List<World> worlds() {
+        return List.copyOf(worlds.values());
+    }
+
+    public @NonNull List<Player> players() {
+        return players;
+    }
+
+    public long timeWrites() {
+        return timeWrites;
+    }
+
+    public long fullTimeWrites() {
+        return fullTimeWrites;
+    }
+
+    public long playerTimeWrites() {
+        return playerTimeWrites;
+    }
+
+    /**
+     * Number of calls to any fake so far.
+     */
+    public long calls() {
+        return calls;
+    }
+
+    private <T> @NonNull T proxy(final @NonNull Class<T> type, final @NonNull Handler handler) {
+        final Object instance = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    calls++;
+                    return switch (method.getName()) {
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        case "toString" -> type.getSimpleName() + "Fake";
+                        default -> handler.handle(method, args);
+                    };
+                });
+        return type.cast(instance);
+    }
+
+    private static @Nullable Object defaultValue(final @NonNull Method method) {
+        final Class<?> type = method.getReturnType();
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == char.class) {
+            return '\0';
+        }
+        return switch (type.getName()) {
+            case "byte" -> (byte) 0;
+            case "short" -> (short) 0;
+            case "int" -> 0;
+            case "long" -> 0L;
+            case "float" -> 0f;
+            default -> 0d;
+        };
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        @Nullable Object handle(@NonNull Method method, @Nullable Object @Nullable [] args);
+    }
+}
@@ -0,0 +1,203 @@
+package io.github.antonmenov.realenvsync.load;
+
+import io.github.antonmenov.realenvsync.metrics.Metrics;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncAutoSyncEngine;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncDateAndTimeService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncPlayerTimeService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncWorldRegistry;
+import io.github.antonmenov.realenvsync.user.RealEnvSyncCommand;
+import io.github.antonmenov.realenvsync.utils.MoonPhases;
+import org.bukkit.World;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs the sync engines, the date and time service and the command against {@link FakeBukkit} under a
+ * {@link SimulatedScheduler}, and reports the server thread CPU time, allocation and clock writes per tick.
+ * <p>
+ * Run with {@code ./gradlew loadTest}; the size is set with {@code -Pload.worlds}, {@code -Pload.players} and
+ * {@code -Pload.ticks}. With {@code -Pload.max-micros-per-tick} the run fails when the mean CPU time per tick
+ * exceeds it, so scaling regressions fail the build.
+ * <p>
+ * The simulation starts shortly before the European switch to summer time, so players change offset buckets
+ * during the run.
+ */
+public final class LoadHarness {
+
+    private static final Instant START = Instant.parse("2024-03-31T00:55:00Z");
+    private static final List<String> ZONES = List.of("UTC", "Europe/Sofia", "Europe/London", "Europe/Berlin",
+            "America/New_York", "America/Chicago", "America/Los_Angeles", "America/Sao_Paulo", "Asia/Tokyo",
+            "Asia/Kolkata", "Asia/Kathmandu", "Australia/Sydney", "Australia/Adelaide", "Pacific/Auckland",
+            "Africa/Cairo", "Asia/Tehran");
+
+    private LoadHarness() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static void main(final String @NonNull [] args) throws IOException {
+        final Map<String, String> options = options(args);
+        final int worldCount = Integer.parseInt(options.getOrDefault("worlds", "1000"));
+        final int playerCount = Integer.parseInt(options.getOrDefault("players", "10000"));
+        final int ticks = Integer.parseInt(options.getOrDefault("ticks", "6000"));
+        final int warmupTicks = Integer.parseInt(options.getOrDefault("warmup-ticks", "2400"));
+        final double maxMicrosPerTick = Double.parseDouble(options.getOrDefault("max-micros-per-tick", "0"));
+        if (worldCount <= 0 || playerCount < 0 || ticks <= 0 || warmupTicks < 0) {
+            throw new IllegalArgumentException("Worlds and ticks must be positive, players and warmup not negative.");
+        }
+
+        final FakeBukkit bukkit = new FakeBukkit();
+        for (int i = 0; i < worldCount; i++) {
+            bukkit.addWorld(String.format(Locale.ROOT, "world-%04d", i));
+        }
+        final List<World> worlds = bukkit.worlds();
+        for (int i = 0; i < playerCount; i++) {
+            bukkit.addPlayer("player-" + i, worlds.get(i % worlds.size()));
+        }
+
+        final SimulatedScheduler scheduler = new SimulatedScheduler(START);
+        final Metrics metrics = new Metrics();
+        final RealEnvSyncWorldRegistry worldRegistry = new RealEnvSyncWorldRegistry(bukkit.server());
+        worldRegistry.refresh();
+        final RealEnvSyncDateAndTimeService service =
+                new RealEnvSyncDateAndTimeService(worldRegistry, MoonPhases.MEAN, metrics);
+        final RealEnvSyncAutoSyncEngine.Settings autoSync = SimulatedAutoSync.settings(
+                List.of(RealEnvSyncAutoSyncEngine.ALL_WORLDS), RealEnvSyncDateAndTimeService.Action.DATETIME, 20);
+        final RealEnvSyncAutoSyncEngine autoSyncEngine =
+                SimulatedAutoSync.engine(scheduler, worldRegistry, service, metrics, autoSync);
+        autoSyncEngine.start();
+        final RealEnvSyncPlayerTimeService playerTimeService = new RealEnvSyncPlayerTimeService(bukkit.plugin(),
+                scheduler, metrics, new RealEnvSyncPlayerTimeService.Settings(true, 20), scheduler.clock(),
+                MoonPhases.MEAN);
+        playerTimeService.start();
+        final List<Player> players = bukkit.players();
+        for (int i = 0; i < players.size(); i++) {
+            playerTimeService.setZone(players.get(i), ZoneId.of(ZONES.get(i % ZONES.size())));
+        }
+
+        final RealEnvSyncCommand executor = new RealEnvSyncCommand(service, scheduler, autoSyncEngine,
+                playerTimeService, null, null, null, metrics, null);
+        final CommandSender console = bukkit.console();
+        final Command command = new Command("realenvsync") {
+            @Override
+            public boolean execute(final @NonNull CommandSender sender, final @NonNull String commandLabel,
+                                   final String @NonNull [] commandArgs) {
+                return executor.onCommand(sender, this, commandLabel, commandArgs);
+            }
+        };
+
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        final com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        final long threadId = Thread.currentThread().getId();
+        final long[] cpuNanos = new long[ticks];
+        final long[] allocatedBytes = new long[ticks];
+        final long[] writes = new long[ticks];
+        long calls = 0;
+        for (int tick = -warmupTicks; tick < ticks; tick++) {
+            // A command once a second, like an admin setting a world to the simulated time
+            final String @Nullable [] commandArgs = Math.floorMod(tick, 20) != 0 ? null : new String[]{"datetime",
+                    LocalDateTime.ofInstant(scheduler.clock().instant(), autoSync.zone()).toString(),
+                    worlds.get(Math.floorMod(tick / 20, worlds.size())).getName()};
+
+            final long writesBefore = writes(bukkit);
+            final long callsBefore = bukkit.calls();
+            final long allocatedBefore = allocations.getThreadAllocatedBytes(threadId);
+            final long cpuBefore = threads.getCurrentThreadCpuTime();
+            if (commandArgs != null) {
+                executor.onCommand(console, command, "realenvsync", commandArgs);
+            }
+            scheduler.tick();
+
+            final long cpu = threads.getCurrentThreadCpuTime() - cpuBefore;
+            final long allocated = allocations.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            if (tick >= 0) {
+                cpuNanos[tick] = cpu;
+                allocatedBytes[tick] = allocated;
+                writes[tick] = writes(bukkit) - writesBefore;
+                calls += bukkit.calls() - callsBefore;
+            }
+        }
+        autoSyncEngine.stop();
+        playerTimeService.stop();
+
+        final String report = report(worldCount, playerCount, cpuNanos, allocatedBytes, writes, calls, bukkit);
+        System.out.print(report);
+        final String reportFile = options.get("report");
+        if (reportFile != null) {
+            final Path path = Path.of(reportFile);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.writeString(path, report);
+        }
+
+        final double meanMicros = Arrays.stream(cpuNanos).average().orElse(0) / 1000;
+        if (maxMicrosPerTick > 0 && meanMicros > maxMicrosPerTick) {
+            System.err.printf(Locale.ROOT, "Mean CPU time per tick %.1f us exceeds the budget of %.1f us%n",
+                    meanMicros, maxMicrosPerTick);
+            System.exit(1);
+        }
+    }
+
+    private static long writes(final @NonNull FakeBukkit bukkit) {
+        return bukkit.timeWrites() + bukkit.fullTimeWrites() + bukkit.playerTimeWrites();
+    }
+
+    private static @NonNull String report(final int worldCount, final int playerCount, final long @NonNull [] cpuNanos,
+                                          final long @NonNull [] allocatedBytes, final long @NonNull [] writes,
+                                          final long calls, final @NonNull FakeBukkit bukkit) {
+        final int ticks = cpuNanos.length;
+        final StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "RealEnvSync load: %d worlds, %d players, %d ticks measured%n",
+                worldCount, playerCount, ticks));
+        report.append(String.format(Locale.ROOT, "CPU per tick:        %s%n", distribution(cpuNanos, 1000, "us")));
+        report.append(String.format(Locale.ROOT, "Allocated per tick:  %s%n",
+                distribution(allocatedBytes, 1024, "KiB")));
+        report.append(String.format(Locale.ROOT, "Writes per tick:     %s%n", distribution(writes, 1, "")));
+        report.append(String.format(Locale.ROOT, "Writes in total:     %d setFullTime, %d setTime, %d setPlayerTime%n",
+                bukkit.fullTimeWrites(), bukkit.timeWrites(), bukkit.playerTimeWrites()));
+        // Each call to a fake boxes its arguments, which is part of the allocation above but not of a real server
+        report.append(String.format(Locale.ROOT, "Fake calls per tick: %.1f%n", (double) calls / ticks));
+        return report.toString();
+    }
+
+    private static @NonNull String distribution(final long @NonNull [] values, final double unit,
+                                                final @NonNull String unitName) {
+        final long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        final double mean = Arrays.stream(values).average().orElse(0);
+        return String.format(Locale.ROOT, "mean %.1f, p50 %.1f, p99 %.1f, max %.1f %s", mean / unit,
+                sorted[sorted.length / 2] / unit, sorted[(int) (sorted.length * 0.99)] / unit,
+                sorted[sorted.length - 1] / unit, unitName).trim();
+    }
+
+    /**
+     * Parses {@code --name value} pairs.
+     */
+    private static @NonNull Map<String, String> options(final String @NonNull [] args) {
+        final Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected an option: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.antonmenov.realenvsync.load;
+
+import io.github.antonmenov.realenvsync.metrics.Metrics;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncAutoSyncEngine;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncDateAndTimeService;
+import io.github.antonmenov.realenvsync.server.RealEnvSyncWorldRegistry;
+import io.github.antonmenov.realenvsync.utils.DayTicks;
+import io.github.antonmenov.realenvsync.utils.MoonPhases;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.time.ZoneId;
+import java.util.List;
+
+import static io.github.antonmenov.realenvsync.server.RealEnvSyncAutoSyncEngine.Settings;
+import static io.github.antonmenov.realenvsync.server.RealEnvSyncDateAndTimeService.Action;
+
+/**
+ * Wires an auto sync engine to the worlds of a {@link FakeBukkit} under a {@link SimulatedScheduler}, with the mean
+ * moon and the linear day, for the load harness and the tests.
+ */
+public final class SimulatedAutoSync {
+
+    public static final ZoneId ZONE = ZoneId.of("Europe/Sofia");
+
+    private SimulatedAutoSync() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Enabled settings in {@link #ZONE} that check every world once a second, without a drift threshold or
+     * convergence.
+     */
+    public static @NonNull Settings settings(final @NonNull List<String> worlds, final @NonNull Action mode,
+                                             final @Positive int shards) {
+        return new Settings(true, worlds, mode, ZONE, 0, 20, shards, 500, 0, true,
+                RealEnvSyncAutoSyncEngine.Convergence.from(null));
+    }
+
+    /**
+     * An engine over the worlds the fake has now, with its own date and time service and metrics.
+     */
+    public static @NonNull RealEnvSyncAutoSyncEngine engine(final @NonNull FakeBukkit bukkit,
+                                                            final @NonNull SimulatedScheduler scheduler,
+                                                            final @NonNull Settings settings) {
+        final RealEnvSyncWorldRegistry worldRegistry = new RealEnvSyncWorldRegistry(bukkit.server());
+        worldRegistry.refresh();
+        final Metrics metrics = new Metrics();
+        return engine(scheduler, worldRegistry, new RealEnvSyncDateAndTimeService(worldRegistry, MoonPhases.MEAN,
+                metrics), metrics, settings);
+    }
+
+    public static @NonNull RealEnvSyncAutoSyncEngine engine(final @NonNull SimulatedScheduler scheduler,
+                                                            final @NonNull RealEnvSyncWorldRegistry worldRegistry,
+                                                            final @NonNull RealEnvSyncDateAndTimeService service,
+                                                            final @NonNull Metrics metrics,
+                                                            final @NonNull Settings settings) {
+        return new RealEnvSyncAutoSyncEngine(scheduler, worldRegistry, service, metrics, settings, scheduler.clock(),
+                MoonPhases.MEAN, DayTicks.LINEAR, null);
+    }
+}
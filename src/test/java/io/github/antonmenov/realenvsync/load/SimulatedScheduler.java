@@ -0,0 +1,130 @@
+package io.github.antonmenov.realenvsync.load;
+
+import io.github.antonmenov.realenvsync.server.RealEnvSyncScheduler;
+import org.bukkit.entity.Entity;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.index.qual.Positive;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single-threaded server loop under a simulated clock: every {@link #tick()} moves the clock 50 ms ahead and
+ * runs the due timers and the tasks queued for it, like one tick of the Spigot main thread.
+ */
+public final class SimulatedScheduler implements RealEnvSyncScheduler {
+
+    private static final long MILLIS_PER_TICK = 50;
+
+    private final List<Timer> timers = new ArrayList<>();
+    private List<Runnable> queued = new ArrayList<>();
+    private long tick;
+    private long millis;
+
+    public SimulatedScheduler(final @NonNull Instant start) {
+        this.millis = start.toEpochMilli();
+    }
+
+    /**
+     * The simulated time, moving only with the ticks.
+     */
+    public @NonNull Clock clock() {
+        return new SimulatedClock(ZoneOffset.UTC);
+    }
+
+    public void tick() {
+        final List<Runnable> tasks = queued;
+        queued = new ArrayList<>();
+        for (final Runnable task : tasks) {
+            task.run();
+        }
+        // Copied, as a timer may cancel itself or start another one
+        for (final Timer timer : List.copyOf(timers)) {
+            if (!timer.cancelled && tick >= timer.nextTick) {
+                timer.nextTick = tick + timer.periodTicks;
+                timer.task.run();
+            }
+        }
+        tick++;
+        millis += MILLIS_PER_TICK;
+    }
+
+    @Override
+    public @NonNull Task runGlobalTimer(final @NonNull Runnable task, final @NonNegative long delayTicks,
+                                       final @Positive long periodTicks) {
+        final Timer timer = new Timer(task, tick + delayTicks, periodTicks);
+        timers.add(timer);
+        return () -> {
+            timer.cancelled = true;
+            timers.remove(timer);
+        };
+    }
+
+    @Override
+    public void runGlobal(final @NonNull Runnable task) {
+        queued.add(task);
+    }
+
+    @Override
+    public void executeGlobal(final @NonNull Runnable task) {
+        task.run();
+    }
+
+    @Override
+    public void executeFor(final @NonNull Entity entity, final @NonNull Runnable task) {
+        task.run();
+    }
+
+    @Override
+    public @NonNull String name() {
+        return "simulated";
+    }
+
+    private final class SimulatedClock extends Clock {
+
+        private final ZoneId zone;
+
+        private SimulatedClock(final @NonNull ZoneId zone) {
+            this.zone = zone;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return new SimulatedClock(zone);
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+
+    private static final class Timer {
+
+        private final Runnable task;
+        private final long periodTicks;
+        private long nextTick;
+        private boolean cancelled;
+
+        private Timer(final @NonNull Runnable task, final long nextTick, final long periodTicks) {
+            this.task = task;
+            this.nextTick = nextTick;
+            this.periodTicks = periodTicks;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.antonmenov.realenvsync.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void givenAnyValue_whenBucketed_thenBucketHoldsValueWithinThreePercent() {
+        for (long value = 0; value < 1L << 40; value = value * 5 / 4 + 1) {
+            // When
+            final long highest = LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value));
+
+            // Then
+            assertTrue(highest >= value, value + " -> " + highest);
+            assertTrue(highest - value <= value / 32, value + " -> " + highest);
+        }
+    }
+
+    @Test
+    void givenUniformLatencies_whenSnapshotting_thenPercentilesMatch() {
+        // Given
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+
+        // When
+        final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        // Then
+        assertEquals(1000, snapshot.count());
+        assertEquals(1_000_000, snapshot.maxNanos());
+        assertEquals(500_500, snapshot.meanNanos());
+        assertEquals(500_000, snapshot.p50Nanos(), 500_000 / 32.0);
+        assertEquals(990_000, snapshot.p99Nanos(), 990_000 / 32.0);
+    }
+
+    @Test
+    void givenEmptyHistogram_whenSnapshotting_thenAllZero() {
+        // When
+        final LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+        // Then
+        assertEquals(0, snapshot.count());
+        assertEquals(0, snapshot.p99Nanos());
+        assertEquals(0, snapshot.meanNanos());
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.antonmenov.realenvsync.server;
+
+import io.github.antonmenov.realenvsync.cluster.SyncFrame;
+import io.github.antonmenov.realenvsync.load.FakeBukkit;
+import io.github.antonmenov.realenvsync.load.SimulatedAutoSync;
+import io.github.antonmenov.realenvsync.load.SimulatedScheduler;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RealEnvSyncAutoSyncEngineTest {
+
+    @Nested
+    class ConvergenceTest {
+
+        private final RealEnvSyncAutoSyncEngine.Convergence convergence =
+                new RealEnvSyncAutoSyncEngine.Convergence(true, 20, 600, 2400);
+
+        @Test
+        void givenDisabled_whenDrifted_thenJumpsAtOnce() {
+            // Given
+            final RealEnvSyncAutoSyncEngine.Convergence disabled =
+                    new RealEnvSyncAutoSyncEngine.Convergence(false, 20, 600, 2400);
+
+            // When
+            final long actual = disabled.correction(-150, 0);
+
+            // Then
+            assertEquals(-150, actual);
+        }
+
+        @Test
+        void givenClockBehind_whenConverging_thenStepsAtMostMaxStep() {
+            // Given
+            long drift = 75;
+            int writes = 0;
+
+            // When
+            while (drift != 0) {
+                final long correction = convergence.correction(drift, 0);
+                drift -= correction;
+                writes++;
+            }
+
+            // Then
+            assertEquals(4, writes);
+        }
+
+        @Test
+        void givenClockSlightlyAhead_whenConverging_thenPausesWithoutWrite() {
+            // When
+            final long actual = convergence.correction(-500, 0);
+
+            // Then
+            assertEquals(0, actual);
+        }
+
+        @Test
+        void givenClockFarAhead_whenConverging_thenStepsBackTowardsHoldLimit() {
+            // When
+            final long small = convergence.correction(-610, 0);
+            final long large = convergence.correction(-1000, 0);
+
+            // Then
+            assertEquals(-10, small);
+            assertEquals(-20, large);
+        }
+
+        @Test
+        void givenDriftPastSnapThreshold_whenConverging_thenJumpsAtOnce() {
+            // When
+            final long actual = convergence.correction(5000, 0);
+
+            // Then
+            assertEquals(5000, actual);
+        }
+
+        @Test
+        void givenDriftWithinThreshold_whenConverging_thenDoesNotWrite() {
+            // When
+            final long actual = convergence.correction(3, 3);
+
+            // Then
+            assertEquals(0, actual);
+        }
+    }
+
+    @Nested
+    class EngineTest {
+
+        private static final Instant NOW = Instant.parse("2024-03-31T12:00:00Z");
+
+        private final FakeBukkit bukkit = new FakeBukkit();
+        private final SimulatedScheduler scheduler = new SimulatedScheduler(NOW);
+
+        private RealEnvSyncAutoSyncEngine engine() {
+            return SimulatedAutoSync.engine(bukkit, scheduler, SimulatedAutoSync.settings(
+                    List.of(RealEnvSyncAutoSyncEngine.ALL_WORLDS), RealEnvSyncDateAndTimeService.Action.DATETIME, 1));
+        }
+
+        @Test
+        void givenFrameOfLeader_whenTargetingTicks_thenTicksMoveOnByAgeOfFrame() {
+            // Given
+            final RealEnvSyncAutoSyncEngine engine = engine();
+            // 36 seconds old, 10 ticks of real time, and about to wrap around the moon cycle
+            final SyncFrame frame = new SyncFrame(1, 0, 1, NOW.toEpochMilli() - 36_000, 191_995, Map.of());
+
+            // When
+            engine.follow(() -> frame);
+            final int ticks = engine.targetTicks();
+
+            // Then
+            assertEquals(5, ticks);
+        }
+
+        @Test
+        void givenPausedWorld_whenSyncing_thenOnlyOtherWorldsAreWritten() {
+            // Given
+            bukkit.addWorld("world");
+            bukkit.addWorld("replayed");
+            final RealEnvSyncAutoSyncEngine engine = engine();
+            engine.pauseWhile("replayed"::equals);
+
+            // When
+            engine.start();
+            for (int tick = 0; tick < 20; tick++) {
+                scheduler.tick();
+            }
+
+            // Then
+            assertEquals(1, bukkit.fullTimeWrites());
+        }
+    }
+}
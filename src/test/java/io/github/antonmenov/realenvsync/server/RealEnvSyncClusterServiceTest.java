@@ -0,0 +1,99 @@
+package io.github.antonmenov.realenvsync.server;
+
+import io.github.antonmenov.realenvsync.cluster.LoopbackTransport;
+import io.github.antonmenov.realenvsync.cluster.SyncFrame;
+import io.github.antonmenov.realenvsync.load.SimulatedScheduler;
+import io.github.antonmenov.realenvsync.metrics.Metrics;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RealEnvSyncClusterServiceTest {
+
+    private static final Logger LOGGER = Logger.getLogger("RealEnvSyncClusterServiceTest");
+    private static final String SECRET = "0123456789abcdef";
+    private static final SecretKey KEY = SyncFrame.key(SECRET);
+
+    private final SimulatedScheduler scheduler = new SimulatedScheduler(Instant.parse("2024-03-31T12:00:00Z"));
+    private final LoopbackTransport.Hub hub = new LoopbackTransport.Hub();
+
+    private RealEnvSyncClusterService node(final long nodeId, final LoopbackTransport transport) {
+        final RealEnvSyncClusterService.Settings settings = new RealEnvSyncClusterService.Settings(true, nodeId, 20,
+                Duration.ofSeconds(5), "127.0.0.1", 25590, List.of(), SECRET);
+        return new RealEnvSyncClusterService(LOGGER, scheduler, settings, transport, scheduler.clock(),
+                new Metrics(), () -> null, () -> null);
+    }
+
+    private void runSeconds(final int seconds) {
+        for (int i = 0; i < seconds * 20; i++) {
+            scheduler.tick();
+        }
+    }
+
+    @Test
+    void givenTwoNodes_whenLeaderStops_thenOtherNodeTakesOver() {
+        // Given
+        final RealEnvSyncClusterService first = node(1, hub.connect());
+        final RealEnvSyncClusterService second = node(2, hub.connect());
+        first.start();
+        second.start();
+        runSeconds(10);
+        final SyncFrame followed = second.followed();
+
+        // When
+        first.stop();
+        runSeconds(10);
+
+        // Then
+        assertNotNull(followed);
+        assertEquals(1, followed.nodeId());
+        assertNull(second.followed());
+        assertTrue(second.leading());
+        assertFalse(first.leading());
+    }
+
+    @Test
+    void givenFollower_whenFramesArriveOutOfOrder_thenKeepsLatest() {
+        // Given
+        final LoopbackTransport leader = hub.connect();
+        final RealEnvSyncClusterService follower = node(2, hub.connect());
+        follower.start();
+
+        // When
+        leader.send(new SyncFrame(1, 100, 5, 0, 6000, Map.of()).encode(KEY));
+        leader.send(new SyncFrame(1, 100, 3, 0, 5000, Map.of()).encode(KEY));
+        leader.send(new SyncFrame(3, 100, 9, 0, 7000, Map.of()).encode(KEY));
+
+        // Then
+        final SyncFrame followed = follower.followed();
+        assertNotNull(followed);
+        assertEquals(5, followed.sequence());
+        assertEquals(6000, followed.ticks());
+    }
+
+    @Test
+    void givenFollower_whenFrameIsSignedWithOtherSecret_thenFrameIsDropped() {
+        // Given
+        final LoopbackTransport leader = hub.connect();
+        final RealEnvSyncClusterService follower = node(2, hub.connect());
+        follower.start();
+        final byte[] forged = new SyncFrame(1, 100, 5, 0, 6000, Map.of()).encode(SyncFrame.key("fedcba9876543210"));
+
+        // When
+        leader.send(forged);
+
+        // Then
+        assertNull(follower.followed());
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.antonmenov.realenvsync.server;
+
+import io.github.antonmenov.realenvsync.metrics.Metrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RealEnvSyncPipelineTest {
+
+    private final List<Runnable> mainThreadTasks = new ArrayList<>();
+    private final Metrics metrics = new Metrics();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final RealEnvSyncPipeline pipeline = new RealEnvSyncPipeline(Logger.getAnonymousLogger(), executor,
+            mainThreadTasks::add, metrics);
+
+    @AfterEach
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void givenUpdatesForSameTarget_whenApplyingBatch_thenOnlyLatestIsApplied() {
+        // Given
+        final RealEnvSyncPipeline.Target target =
+                new RealEnvSyncPipeline.Target("world", RealEnvSyncPipeline.Kind.WEATHER);
+        final List<String> applied = new ArrayList<>();
+        pipeline.offer(target, () -> applied.add("rain"));
+        pipeline.offer(null, () -> applied.add("reply"));
+        pipeline.offer(target, () -> applied.add("clear"));
+
+        // When
+        mainThreadTasks.forEach(Runnable::run);
+
+        // Then
+        assertEquals(1, mainThreadTasks.size());
+        assertEquals(List.of("reply", "clear"), applied);
+        assertEquals(1, metrics.count(Metrics.Counter.PIPELINE_COALESCED));
+        assertEquals(1, metrics.snapshot(Metrics.Timer.APPLY_BATCH).count());
+    }
+
+    @Test
+    void givenSubmittedComputations_whenDone_thenAppliedOnMainThreadInOneBatch() throws InterruptedException {
+        // Given
+        final ExecutorService workers = Executors.newFixedThreadPool(4);
+        final RealEnvSyncPipeline parallelPipeline = new RealEnvSyncPipeline(Logger.getAnonymousLogger(), workers,
+                mainThreadTasks::add, metrics);
+        final Thread mainThread = Thread.currentThread();
+        final List<Integer> applied = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            final int value = i;
+            parallelPipeline.submit(null, () -> value * value, result -> {
+                assertEquals(mainThread, Thread.currentThread());
+                applied.add(result);
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+        new ArrayList<>(mainThreadTasks).forEach(Runnable::run);
+
+        // Then
+        assertEquals(100, applied.size());
+        assertEquals(1, metrics.snapshot(Metrics.Timer.APPLY_BATCH).count());
+    }
+
+    @Test
+    void givenStoppedPipeline_whenOffering_thenNothingIsScheduled() {
+        // Given
+        pipeline.stop();
+
+        // When
+        pipeline.offer(null, () -> {
+        });
+
+        // Then
+        assertEquals(0, mainThreadTasks.size());
+    }
+}
@@ -0,0 +1,142 @@
+package io.github.antonmenov.realenvsync.state;
+
+import io.github.antonmenov.realenvsync.utils.DayTicks;
+import io.github.antonmenov.realenvsync.utils.GeoLocation;
+import io.github.antonmenov.realenvsync.utils.MoonPhases;
+import io.github.antonmenov.realenvsync.utils.TickScheduleTable;
+import io.github.antonmenov.realenvsync.weather.Weather;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StateStoreTest {
+
+    private static final GeoLocation SOFIA = new GeoLocation(42.6977, 23.3219);
+
+    private Path path;
+
+    @BeforeEach
+    void createFile() throws IOException {
+        path = Files.createTempFile("state", ".bin");
+    }
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    void givenStoredState_whenReopening_thenStateIsRestored() throws IOException {
+        // Given
+        final ZoneId zone = ZoneId.of("Europe/Sofia");
+        final LocalDate date = LocalDate.of(2024, 3, 31);
+        final TickScheduleTable table = TickScheduleTable.build(zone, date, 60, MoonPhases.MEAN);
+        try (final StateStore store = StateStore.open(path)) {
+            store.putOriginalDaylightCycle("world", true);
+            store.putWeather(SOFIA, Weather.RAIN, 2_000);
+            store.putTable(table);
+        }
+
+        // When
+        try (final StateStore store = StateStore.open(path)) {
+            // Then
+            assertEquals(true, store.originalDaylightCycle("world"));
+            assertEquals(List.of(new StateStore.WeatherState(SOFIA, Weather.RAIN, 2_000)), store.weathers());
+            final StateStore.TableState stored = store.table(zone, date, 60);
+            assertNotNull(stored);
+            assertNotNull(TickScheduleTable.restore(zone, date, 60, stored.fingerprint(), stored.ticks(),
+                    MoonPhases.MEAN, DayTicks.LINEAR));
+            assertNull(store.table(zone, date, 1));
+        }
+    }
+
+    @Test
+    void givenTornDaylightCycleWrite_whenReopening_thenPreviousValueIsRestored() throws IOException {
+        // Given
+        try (final StateStore store = StateStore.open(path)) {
+            store.putOriginalDaylightCycle("world", true);
+            store.putOriginalDaylightCycle("world", false);
+            store.putOriginalDaylightCycle("world_nether", true);
+        }
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            // The sequence number of the second copy of the first world, as if the server died halfway through
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}), 64 + 96 + 8);
+        }
+
+        // When
+        try (final StateStore store = StateStore.open(path)) {
+            // Then
+            assertEquals(true, store.originalDaylightCycle("world"));
+            assertEquals(true, store.originalDaylightCycle("world_nether"));
+        }
+    }
+
+    @Test
+    void givenGivenBackDaylightCycle_whenReopening_thenNothingIsStored() throws IOException {
+        // Given
+        try (final StateStore store = StateStore.open(path)) {
+            store.putOriginalDaylightCycle("world", true);
+            store.putOriginalDaylightCycle("world", null);
+        }
+
+        // When
+        try (final StateStore store = StateStore.open(path)) {
+            // Then
+            assertNull(store.originalDaylightCycle("world"));
+        }
+    }
+
+    @Test
+    void givenOtherVersion_whenOpening_thenStoreIsReset() throws IOException {
+        // Given
+        try (final StateStore store = StateStore.open(path)) {
+            store.putWeather(SOFIA, Weather.CLEAR, 2_000);
+        }
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, StateStore.VERSION + 1), 4);
+        }
+
+        // When
+        try (final StateStore store = StateStore.open(path)) {
+            // Then
+            assertTrue(store.weathers().isEmpty());
+        }
+    }
+
+    @Test
+    void givenLargerFileOfOtherLayout_whenReopening_thenStateIsKept() throws IOException {
+        // Given
+        try (final StateStore store = StateStore.open(path)) {
+            store.putWeather(SOFIA, Weather.CLEAR, 2_000);
+        }
+        final long size = Files.size(path);
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4096), size);
+        }
+        try (final StateStore store = StateStore.open(path)) {
+            store.putWeather(SOFIA, Weather.RAIN, 3_000);
+        }
+
+        // When
+        try (final StateStore store = StateStore.open(path)) {
+            // Then
+            assertEquals(size, Files.size(path));
+            assertEquals(List.of(new StateStore.WeatherState(SOFIA, Weather.RAIN, 3_000)), store.weathers());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static io.github.antonmenov.realenvsync.plugin.Constants.MID_FULL_MOON_EPOCH_SECOND;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class BulkTimeConvertTest {
+
+    @Test
+    void givenRandomInstants_whenConvertingInBulk_thenMatchesScalarConversion() {
+        // Given
+        final Random random = new Random(42);
+        final long[] epochSeconds = new long[100_000];
+        for (int i = 0; i < epochSeconds.length; i++) {
+            // Two centuries around the reference full moon
+            epochSeconds[i] = MID_FULL_MOON_EPOCH_SECOND + random.nextLong() % 3_155_760_000L;
+        }
+        final int offsetSeconds = -37_800;
+        final int[] expected = new int[epochSeconds.length];
+        for (int i = 0; i < epochSeconds.length; i++) {
+            expected[i] = TimeConvert.convertToTicks(epochSeconds[i], offsetSeconds);
+        }
+
+        // When
+        final int[] sequential = new int[epochSeconds.length];
+        BulkTimeConvert.convertToTicks(epochSeconds, offsetSeconds, sequential);
+        final int[] parallel = new int[epochSeconds.length];
+        BulkTimeConvert.convertToTicksParallel(epochSeconds, offsetSeconds, MoonPhases.MEAN, DayTicks.LINEAR,
+                parallel);
+
+        // Then
+        assertArrayEquals(expected, sequential);
+        assertArrayEquals(expected, parallel);
+    }
+
+    @Test
+    void givenRange_whenConvertingInBulk_thenMatchesScalarConversion() {
+        // Given
+        final long start = MID_FULL_MOON_EPOCH_SECOND - 86_400L * 400;
+        final long step = 97;
+        final int count = 800 * 86_400 / 97;
+        final int[] expected = new int[count];
+        for (int i = 0; i < count; i++) {
+            expected[i] = TimeConvert.convertToTicks(start + i * step, 19_800);
+        }
+
+        // When
+        final int[] sequential = new int[count];
+        BulkTimeConvert.convertToTicks(start, step, count, 19_800, MoonPhases.MEAN, DayTicks.LINEAR, sequential);
+        final int[] parallel = new int[count];
+        BulkTimeConvert.convertToTicksParallel(start, step, count, 19_800, MoonPhases.MEAN, DayTicks.LINEAR,
+                parallel);
+
+        // Then
+        assertArrayEquals(expected, sequential);
+        assertArrayEquals(expected, parallel);
+    }
+
+    @Test
+    void givenOtherModels_whenConvertingInBulk_thenModelsAreUsed() {
+        // Given
+        final MoonPhases moonPhases = LunarEphemeris.forYears(2020, 2030);
+        final DayTicks dayTicks = new SolarDayTicks(new GeoLocation(42.6977, 23.3219));
+        final long start = MID_FULL_MOON_EPOCH_SECOND;
+        final int count = 50_000;
+        final int[] expected = new int[count];
+        for (int i = 0; i < count; i++) {
+            expected[i] = TimeConvert.convertToTicks(start + i * 600L, 7_200, moonPhases, dayTicks);
+        }
+
+        // When
+        final int[] ticks = new int[count];
+        BulkTimeConvert.convertToTicksParallel(start, 600, count, 7_200, moonPhases, dayTicks, ticks);
+
+        // Then
+        assertArrayEquals(expected, ticks);
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LunarEphemerisTest {
+
+    private static final LunarEphemeris EPHEMERIS = LunarEphemeris.forYears(2020, 2030);
+
+    @Test
+    void givenJanuary2024_whenFindingFullMoon_thenMatchesPublishedInstant() {
+        // Given
+        final long before = Instant.parse("2024-01-20T00:00:00Z").getEpochSecond();
+        final long published = Instant.parse("2024-01-25T17:54:00Z").getEpochSecond();
+
+        // When
+        final long actual = EPHEMERIS.fullMoonAtOrAfter(before);
+
+        // Then
+        assertTrue(Math.abs(actual - published) <= 120, "Off by " + (actual - published) + " seconds");
+    }
+
+    @Test
+    void givenApril2024_whenFindingNewMoon_thenMatchesPublishedInstant() {
+        // Given
+        final long before = Instant.parse("2024-04-01T00:00:00Z").getEpochSecond();
+        final long published = Instant.parse("2024-04-08T18:21:00Z").getEpochSecond();
+
+        // When
+        final long actual = EPHEMERIS.newMoonAtOrAfter(before);
+
+        // Then
+        assertTrue(Math.abs(actual - published) <= 120, "Off by " + (actual - published) + " seconds");
+    }
+
+    @Test
+    void givenPrincipalPhases_whenLookingUpPhase_thenMinecraftPhasesMatch() {
+        // Given
+        final long fullMoon = Instant.parse("2024-01-25T17:54:00Z").getEpochSecond();
+        final long newMoon = Instant.parse("2024-04-08T18:21:00Z").getEpochSecond();
+        final long firstQuarter = Instant.parse("2024-04-15T19:13:00Z").getEpochSecond();
+        final long lastQuarter = Instant.parse("2024-04-02T03:15:00Z").getEpochSecond();
+
+        // When, Then
+        assertEquals(0, EPHEMERIS.phaseAt(fullMoon));
+        assertEquals(4, EPHEMERIS.phaseAt(newMoon));
+        assertEquals(6, EPHEMERIS.phaseAt(firstQuarter));
+        assertEquals(2, EPHEMERIS.phaseAt(lastQuarter));
+    }
+
+    @Test
+    void givenInstantOutsideRange_whenLookingUpPhase_thenMeanCycleIsUsed() {
+        // Given
+        final long epochSecond = Instant.parse("1990-06-01T00:00:00Z").getEpochSecond();
+
+        // When
+        final byte expected = MoonPhases.MEAN.phaseAt(epochSecond);
+        final byte actual = EPHEMERIS.phaseAt(epochSecond);
+
+        // Then
+        assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplayTimelineTest {
+
+    private static final ZoneId SOFIA = ZoneId.of("Europe/Sofia");
+
+    @Test
+    void givenWeekInAnHour_whenFillingInChunks_thenMatchesScalarConversion() {
+        // Given
+        // Includes the switch to summer time on 31 March
+        final long from = LocalDateTime.of(2024, 3, 27, 0, 0).atZone(SOFIA).toEpochSecond();
+        final long to = LocalDateTime.of(2024, 4, 3, 0, 0).atZone(SOFIA).toEpochSecond();
+        final ReplayTimeline timeline = new ReplayTimeline(from, to, 168, ZoneOffsets.of(SOFIA), MoonPhases.MEAN);
+        final long[] epochSeconds = new long[200];
+        final int[] ticks = new int[200];
+
+        // When
+        long tick = 0;
+        int written;
+        do {
+            written = timeline.fill(tick, epochSeconds, ticks);
+
+            // Then
+            for (int i = 0; i < written; i++) {
+                final Instant instant = Instant.ofEpochSecond(timeline.epochSecondAt(tick + i));
+                assertEquals(TimeConvert.convertToTicks(instant.atZone(SOFIA)), ticks[i]);
+            }
+            tick += written;
+        } while (written == ticks.length);
+        // A week short of the hour skipped by the clock change, at 8.4 real seconds per tick, and the last instant
+        assertEquals(71_573, timeline.length());
+        assertEquals(timeline.length(), tick);
+        assertEquals(to, timeline.epochSecondAt(timeline.length() - 1));
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolarDayTicksTest {
+
+    private static final SolarDayTicks SOFIA = new SolarDayTicks(new GeoLocation(42.6977, 23.3219));
+
+    @Test
+    void givenSummerSolstice_whenComputingCurve_thenMatchesPublishedSunTimes() {
+        // Given
+        final SolarDayTicks boston = new SolarDayTicks(new GeoLocation(42.3601, -71.0589));
+        final long sunrise = Instant.parse("2024-06-21T09:07:00Z").getEpochSecond();
+        final long sunset = Instant.parse("2024-06-22T00:25:00Z").getEpochSecond();
+
+        // When
+        final SolarDayTicks.Curve curve = boston.curveCovering(sunrise);
+
+        // Then
+        assertTrue(Math.abs(curve.anchor(1) - sunrise) <= 120, "Sunrise off by " + (curve.anchor(1) - sunrise));
+        assertTrue(Math.abs(curve.anchor(3) - sunset) <= 120, "Sunset off by " + (curve.anchor(3) - sunset));
+        assertEquals(0, boston.dayTicksAt(curve.anchor(1), 0, 0));
+        assertEquals(6000, boston.dayTicksAt(curve.anchor(2), 0, 0));
+        assertEquals(12000, boston.dayTicksAt(curve.anchor(3), 0, 0));
+        assertEquals(18000, boston.dayTicksAt(curve.anchor(4), 0, 0));
+    }
+
+    @Test
+    void givenWholeYear_whenMapping_thenNeverStepsBackOrJumps() {
+        // Given
+        final long start = Instant.parse("2024-01-01T00:00:00Z").getEpochSecond();
+        int previous = SOFIA.dayTicksAt(start, 0, 0);
+
+        for (long epochSecond = start + 1; epochSecond < start + 366L * 86_400; epochSecond += 7) {
+            // When
+            final int ticks = SOFIA.dayTicksAt(epochSecond, 0, 0);
+
+            // Then
+            final int step = Math.floorMod(ticks - previous, 24000);
+            assertTrue(step <= 10, "Stepped " + step + " ticks at " + Instant.ofEpochSecond(epochSecond));
+            previous = ticks;
+        }
+    }
+
+    @Test
+    void givenPolarDay_whenComputingCurve_thenKeepsAShortNight() {
+        // Given
+        final SolarDayTicks svalbard = new SolarDayTicks(new GeoLocation(78.2232, 15.6267));
+        final long midsummer = Instant.parse("2024-06-21T12:00:00Z").getEpochSecond();
+
+        // When
+        final SolarDayTicks.Curve curve = svalbard.curveCovering(midsummer);
+
+        // Then
+        final long night = curve.anchor(4) - curve.anchor(3) + curve.anchor(1) - curve.anchor(0);
+        assertTrue(night > 0 && night < 3600, "Night lasts " + night + " seconds");
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TickScheduleTableTest {
+
+    @Test
+    void givenFixedOffsetDay_whenLookingUpEverySecond_thenTicksMatchConversion() {
+        // Given
+        final ZoneOffset zone = ZoneOffset.ofHours(5);
+        final LocalDate date = LocalDate.of(2024, 2, 20);
+        final long start = date.atStartOfDay(zone).toEpochSecond();
+
+        // When
+        final TickScheduleTable table = TickScheduleTable.build(zone, date, 1, MoonPhases.MEAN);
+
+        // Then
+        assertEquals(86_400, table.slots());
+        for (long epochSecond = start; epochSecond < start + 86_400; epochSecond++) {
+            assertEquals(TimeConvert.convertToTicks(epochSecond, zone.getTotalSeconds()), table.ticksAt(epochSecond));
+        }
+    }
+
+    @Test
+    void givenSpringForwardDay_whenBuilding_thenDayIsShorterAndUsesBothOffsets() {
+        // Given
+        final ZoneId zone = ZoneId.of("Europe/Sofia");
+        final LocalDate date = LocalDate.of(2024, 3, 31);
+        final long start = date.atStartOfDay(zone).toEpochSecond();
+        final long afterChange = date.atTime(12, 0).atZone(zone).toEpochSecond();
+
+        // When
+        final TickScheduleTable table = TickScheduleTable.build(zone, date, 1, MoonPhases.MEAN);
+
+        // Then
+        assertEquals(23 * 3600, table.slots());
+        assertEquals(TimeConvert.convertToTicks(start, 2 * 3600), table.ticksAt(start));
+        assertEquals(TimeConvert.convertToTicks(afterChange, 3 * 3600), table.ticksAt(afterChange));
+    }
+
+    @Test
+    void givenTable_whenCheckingCoverage_thenOnlyItsDayIsCovered() {
+        // Given
+        final LocalDate date = LocalDate.of(2024, 2, 20);
+        final long start = date.atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+
+        // When
+        final TickScheduleTable table = TickScheduleTable.build(ZoneOffset.UTC, date, 60, MoonPhases.MEAN);
+
+        // Then
+        assertTrue(table.covers(start));
+        assertTrue(table.covers(start + 86_399));
+        assertFalse(table.covers(start - 1));
+        assertFalse(table.covers(start + 86_400));
+        assertEquals(1440, table.slots());
+    }
+
+    @Test
+    void givenTableOfOtherModel_whenRestoring_thenTableIsRejected() {
+        // Given
+        final ZoneId zone = ZoneId.of("Europe/Sofia");
+        final LocalDate date = LocalDate.of(2024, 6, 21);
+        final TickScheduleTable table = TickScheduleTable.build(zone, date, 60, MoonPhases.MEAN);
+        final int[] ticks = new int[table.slots()];
+        for (int slot = 0; slot < ticks.length; slot++) {
+            ticks[slot] = table.ticksOfSlot(slot);
+        }
+        final DayTicks sun = new SolarDayTicks(new GeoLocation(42.6977, 23.3219));
+
+        // When
+        final TickScheduleTable sameModel = TickScheduleTable.restore(zone, date, 60, table.fingerprint(), ticks,
+                MoonPhases.MEAN, DayTicks.LINEAR);
+        final TickScheduleTable otherSun = TickScheduleTable.restore(zone, date, 60, table.fingerprint(), ticks,
+                MoonPhases.MEAN, sun);
+        final TickScheduleTable otherMoon = TickScheduleTable.restore(zone, date, 60, table.fingerprint(), ticks,
+                LunarEphemeris.forYears(2024, 2024), DayTicks.LINEAR);
+
+        // Then
+        assertNotNull(sameModel);
+        assertNull(otherSun);
+        assertNull(otherMoon);
+    }
+}
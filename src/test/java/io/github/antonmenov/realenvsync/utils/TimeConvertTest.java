@@ -12,12 +12,15 @@
 import java.time.OffsetDateTime;
 import java.time.OffsetTime;
 import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Random;
 
 import static io.github.antonmenov.realenvsync.plugin.Constants.MID_FULL_MOON_OFFSETDATETIME;
 import static io.github.antonmenov.realenvsync.plugin.Constants.MINECRAFT_DAY_LENGTH;
 import static io.github.antonmenov.realenvsync.plugin.Constants.MOON_CYCLE_DURATION;
 import static io.github.antonmenov.realenvsync.plugin.Constants.MOON_PHASE_DURATION;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TimeConvertTest {
 
@@ -319,4 +322,156 @@ void givenNextMidFullMoonPhaseDateTime_whenConvertingToTicks_thenTicksIncludeFir
             assertEquals(expectedTicks, actualTicks);
         }
     }
+
+    @Nested
+    class EpochSecondTest {
+
+        @Test
+        void givenFullMoonEpochSecond_whenConvertingToTicks_calculatesSameAsOffsetDateTime() {
+            // Given
+            final OffsetDateTime dateTime = MID_FULL_MOON_OFFSETDATETIME.withOffsetSameInstant(ZoneOffset.ofHours(3));
+
+            // When
+            final int expected = TimeConvert.convertToTicks(dateTime);
+            final int actual =
+                    TimeConvert.convertToTicks(dateTime.toEpochSecond(), dateTime.getOffset().getTotalSeconds());
+
+            // Then
+            assertEquals(expected, actual);
+        }
+
+        @Test
+        void givenEpochSecondBeforeReferenceFullMoon_whenConvertingToTicks_calculatesSameAsOffsetDateTime() {
+            // Given
+            final OffsetDateTime dateTime = OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.ofHours(-5));
+
+            // When
+            final int expected = TimeConvert.convertToTicks(dateTime);
+            final int actual =
+                    TimeConvert.convertToTicks(dateTime.toEpochSecond(), dateTime.getOffset().getTotalSeconds());
+
+            // Then
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Nested
+    class NanoPrecisionTest {
+
+        private static final long NANOS_IN_DAY = 86_400_000_000_000L;
+
+        /**
+         * Exact floor of the fraction of the day in ticks, shifted so that midnight is 18000.
+         */
+        private static int expectedTicks(final long nanoOfDay) {
+            return (int) ((nanoOfDay * MINECRAFT_DAY_LENGTH / NANOS_IN_DAY + 18_000) % MINECRAFT_DAY_LENGTH);
+        }
+
+        @Test
+        void givenEverySecondOfDay_whenConvertingToTicks_thenMatchesExactFraction() {
+            for (int secondOfDay = 0; secondOfDay < 86_400; secondOfDay++) {
+                // Given
+                final OffsetTime time = LocalTime.ofSecondOfDay(secondOfDay).atOffset(ZoneOffset.UTC);
+
+                // When
+                final int actual = TimeConvert.convertToTicks(time);
+
+                // Then
+                assertEquals(expectedTicks(secondOfDay * 1_000_000_000L), actual, "At second " + secondOfDay);
+                assertEquals(actual, TimeConvert.convertToTicks(secondOfDay, 0) % MINECRAFT_DAY_LENGTH);
+            }
+        }
+
+        @Test
+        void givenRandomSubSecondInstants_whenConvertingToTicks_thenMatchesExactFractionAndIsMonotonic() {
+            // Given
+            final Random random = new Random(42);
+            final long[] nanosOfDay = new long[200_000];
+            for (int i = 0; i < nanosOfDay.length; i++) {
+                nanosOfDay[i] = Math.floorMod(random.nextLong(), NANOS_IN_DAY);
+            }
+            Arrays.sort(nanosOfDay);
+
+            int previous = -1;
+            for (final long nanoOfDay : nanosOfDay) {
+                // When
+                final OffsetTime time = LocalTime.ofNanoOfDay(nanoOfDay).atOffset(ZoneOffset.UTC);
+                final int actual = TimeConvert.convertToTicks(time);
+
+                // Then
+                assertEquals(expectedTicks(nanoOfDay), actual, "At nano of day " + nanoOfDay);
+                final int unwrapped = Math.floorMod(actual - 18_000, MINECRAFT_DAY_LENGTH);
+                assertTrue(unwrapped >= previous, "Stepped back at nano of day " + nanoOfDay);
+                previous = unwrapped;
+            }
+        }
+
+        @Test
+        void givenTickBoundary_whenConvertingToTicks_thenTickChangesExactlyOnIt() {
+            // Given
+            final long boundaryEpochSecond = 3;
+            final int boundaryNano = 600_000_000;
+
+            // When
+            final int before = TimeConvert.convertToTicks(boundaryEpochSecond, boundaryNano - 1, 0, MoonPhases.MEAN,
+                    DayTicks.LINEAR);
+            final int at = TimeConvert.convertToTicks(boundaryEpochSecond, boundaryNano, 0, MoonPhases.MEAN,
+                    DayTicks.LINEAR);
+
+            // Then
+            assertEquals(1, at - before);
+        }
+
+        @Test
+        void givenSameLocalTimeCenturiesApart_whenConvertingToTicks_thenTimeOfDayDoesNotDrift() {
+            // Given
+            final Random random = new Random(7);
+            for (int i = 0; i < 10_000; i++) {
+                final long epochSecond = Math.floorMod(random.nextLong(), 86_400L);
+                final int nanoOfSecond = random.nextInt(1_000_000_000);
+                final long centuriesLater = epochSecond + 36_525L * 86_400 * (1 + random.nextInt(20));
+
+                // When
+                final int expected = TimeConvert.convertToTicks(epochSecond, nanoOfSecond, 0, MoonPhases.MEAN,
+                        DayTicks.LINEAR) % MINECRAFT_DAY_LENGTH;
+                final int actual = TimeConvert.convertToTicks(centuriesLater, nanoOfSecond, 0, MoonPhases.MEAN,
+                        DayTicks.LINEAR) % MINECRAFT_DAY_LENGTH;
+
+                // Then
+                assertEquals(expected, actual);
+            }
+        }
+    }
+
+    @Nested
+    class SignedTickDeltaTest {
+
+        @Test
+        void givenTargetSlightlyBehind_whenCalculatingDelta_thenDeltaIsNegative() {
+            // Given
+            final long current = 5 * 24_000L + 100;
+            final long target = 90;
+
+            // When
+            final long expected = -10;
+            final long actual = TimeConvert.signedTickDelta(current, target, MINECRAFT_DAY_LENGTH);
+
+            // Then
+            assertEquals(expected, actual);
+        }
+
+        @Test
+        void givenTargetAcrossMidnight_whenCalculatingDelta_thenDeltaWrapsAround() {
+            // Given
+            final long current = 23_990;
+            final long target = 10;
+
+            // When
+            final long expected = 20;
+            final long actual = TimeConvert.signedTickDelta(current, target, MINECRAFT_DAY_LENGTH);
+
+            // Then
+            assertEquals(expected, actual);
+        }
+    }
 }
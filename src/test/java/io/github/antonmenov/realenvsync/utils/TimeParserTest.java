@@ -0,0 +1,62 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TimeParserTest {
+
+    @Test
+    void givenTimes_whenParsing_thenAgreesWithLocalTimeParse() {
+        // Given
+        final List<String> inputs = List.of("00:00", "23:59", "13:37:42", "13:37:42.", "13:37:42.5",
+                "13:37:42.123456789", "24:00", "12:60", "12:00:60", "1:00", "12:00:", "12:00:00.1234567891",
+                "12-00", "12:0a", "", "now");
+
+        for (final String input : inputs) {
+            // When
+            final long nanoOfDay = TimeParser.parseTime(input);
+
+            // Then
+            LocalTime expected;
+            try {
+                expected = LocalTime.parse(input);
+            } catch (final DateTimeParseException e) {
+                expected = null;
+            }
+            assertEquals(expected, nanoOfDay == TimeParser.INVALID ? null : TimeParser.toLocalTime(nanoOfDay),
+                    input);
+        }
+    }
+
+    @Test
+    void givenDateTimes_whenParsing_thenAgreesWithLocalDateTimeParseToTheMillisecond() {
+        // Given
+        final List<String> inputs = List.of("2024-02-20T21:53", "2024-02-20t21:53:36", "2024-02-29T00:00",
+                "2000-02-29T12:00", "1900-02-29T12:00", "2023-02-29T12:00", "2024-04-31T12:00",
+                "2024-12-31T23:59:59.999", "1969-12-31T23:59:59.5", "0000-01-01T00:00",
+                "9999-12-31T23:59:59.123456789", "2024-13-01T00:00",
+                "2024-00-10T00:00", "2024-1-01T00:00", "2024-01-01 00:00", "2024-01-01T24:00", "+2024-01-01T00:00");
+
+        for (final String input : inputs) {
+            // When
+            final long localEpochMilli = TimeParser.parseDateTime(input);
+
+            // Then
+            LocalDateTime expected;
+            try {
+                expected = LocalDateTime.parse(input).truncatedTo(ChronoUnit.MILLIS);
+            } catch (final DateTimeParseException e) {
+                expected = null;
+            }
+            assertEquals(expected,
+                    localEpochMilli == TimeParser.INVALID ? null : TimeParser.toLocalDateTime(localEpochMilli), input);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ZoneLocatorTest {
+
+    private ZoneLocator locator;
+
+    @BeforeEach
+    void loadLocator() throws IOException {
+        try (InputStream input = ZoneLocatorTest.class.getResourceAsStream("/zones.tab")) {
+            locator = ZoneLocator.load(input);
+        }
+    }
+
+    @Test
+    void givenCities_whenResolving_thenReturnsTheirZones() {
+        // Given
+        final GeoLocation sofia = new GeoLocation(42.6977, 23.3219);
+        final GeoLocation newYork = new GeoLocation(40.7128, -74.0060);
+        final GeoLocation tokyo = new GeoLocation(35.6762, 139.6503);
+
+        // When
+        final ZoneId sofiaZone = locator.resolve(sofia);
+        final ZoneId newYorkZone = locator.resolve(newYork);
+        final ZoneId tokyoZone = locator.resolve(tokyo);
+
+        // Then
+        assertEquals(ZoneId.of("Europe/Sofia"), sofiaZone);
+        assertEquals(ZoneId.of("America/New_York"), newYorkZone);
+        assertEquals(ZoneId.of("Asia/Tokyo"), tokyoZone);
+    }
+
+    @Test
+    void givenOpenOcean_whenResolving_thenReturnsNauticalOffset() {
+        // Given
+        final GeoLocation southPacific = new GeoLocation(-40, -130);
+
+        // When
+        final ZoneId zone = locator.resolve(southPacific);
+
+        // Then
+        assertEquals(ZoneOffset.ofHours(-9), zone);
+    }
+
+    @Test
+    void givenRandomLocations_whenResolving_thenMatchesNearestOfAllLocations() throws IOException {
+        // Given
+        final List<double[]> coordinates = new ArrayList<>();
+        final List<ZoneId> zones = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                ZoneLocatorTest.class.getResourceAsStream("/zones.tab"), StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                final String[] columns = line.split("\t");
+                if (!line.startsWith("#") && ZoneId.getAvailableZoneIds().contains(columns[1])) {
+                    coordinates.add(ZoneLocator.parseIso6709(columns[0]));
+                    zones.add(ZoneId.of(columns[1]));
+                }
+            }
+        }
+        final Random random = new Random(14);
+
+        for (int i = 0; i < 10_000; i++) {
+            final double latitude = random.nextDouble() * 180 - 90;
+            final double longitude = random.nextDouble() * 360 - 180;
+
+            // When
+            final ZoneId zone = locator.resolve(latitude, longitude);
+
+            // Then
+            int nearest = 0;
+            for (int j = 1; j < coordinates.size(); j++) {
+                if (distance(latitude, longitude, coordinates.get(j))
+                        < distance(latitude, longitude, coordinates.get(nearest))) {
+                    nearest = j;
+                }
+            }
+            final double nearestKm = distance(latitude, longitude, coordinates.get(nearest)) * 6371.0088;
+            final ZoneId expected = nearestKm > 1500
+                    ? ZoneOffset.ofHours((int) Math.round(longitude / 15)) : zones.get(nearest);
+            assertEquals(expected, zone, latitude + "," + longitude);
+        }
+    }
+
+    private static double distance(final double latitude, final double longitude, final double[] location) {
+        final double sinLatitude = Math.sin(Math.toRadians(location[0] - latitude) / 2);
+        final double sinLongitude = Math.sin(Math.toRadians(location[1] - longitude) / 2);
+        final double h = sinLatitude * sinLatitude + Math.cos(Math.toRadians(latitude))
+                * Math.cos(Math.toRadians(location[0])) * sinLongitude * sinLongitude;
+        return 2 * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.antonmenov.realenvsync.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ZoneOffsetsTest {
+
+    private static final ZoneId SOFIA = ZoneId.of("Europe/Sofia");
+
+    @Test
+    void givenSpringForward_whenResolvingOffset_thenChangesExactlyAtTransition() {
+        // Given
+        final ZoneOffsets offsets = ZoneOffsets.forYears(SOFIA, 2024, 2024);
+        final long transition = Instant.parse("2024-03-31T01:00:00Z").getEpochSecond();
+
+        // When
+        final int before = offsets.offsetAt(transition - 1);
+        final int at = offsets.offsetAt(transition);
+
+        // Then
+        assertEquals(2 * 3600, before);
+        assertEquals(3 * 3600, at);
+    }
+
+    @Test
+    void givenFallBack_whenConvertingLocalTimesAroundIt_thenTicksFollowLocalClock() {
+        // Given
+        final ZoneOffsets offsets = ZoneOffsets.forYears(SOFIA, 2024, 2024);
+        final long transition = Instant.parse("2024-10-27T01:00:00Z").getEpochSecond();
+
+        // When
+        final int before = TimeConvert.convertToTicks(transition - 1, offsets) % 24000;
+        final int at = TimeConvert.convertToTicks(transition, offsets) % 24000;
+
+        // Then
+        // 03:59:59 local time is followed by 03:00:00 again
+        assertEquals(21999, before);
+        assertEquals(21000, at);
+    }
+
+    @Test
+    void givenRandomInstants_whenResolvingOffset_thenMatchesZoneRules() {
+        // Given
+        final Random random = new Random(13);
+        final long start = Instant.parse("2020-01-01T00:00:00Z").getEpochSecond();
+        final long end = Instant.parse("2031-01-01T00:00:00Z").getEpochSecond();
+        for (final String zoneId : new String[]{"Europe/Sofia", "America/New_York", "Australia/Lord_Howe", "UTC"}) {
+            final ZoneId zone = ZoneId.of(zoneId);
+            final ZoneOffsets offsets = ZoneOffsets.forYears(zone, 2022, 2028);
+
+            for (int i = 0; i < 20_000; i++) {
+                final long epochSecond = start + Math.floorMod(random.nextLong(), end - start);
+
+                // When
+                final int actual = offsets.offsetAt(epochSecond);
+
+                // Then
+                final int expected = zone.getRules().getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+                assertEquals(expected, actual, zoneId + " at " + Instant.ofEpochSecond(epochSecond));
+            }
+        }
+    }
+
+    @Test
+    void givenLocalDateTimeInDstGap_whenConvertingWithZone_thenUsesOffsetAfterGap() {
+        // Given
+        // 03:30 does not exist in Sofia on 2024-03-31 and resolves to 04:30 +03:00
+        final ZonedDateTime dateTime = LocalDateTime.of(2024, 3, 31, 3, 30).atZone(SOFIA);
+
+        // When
+        final int actual = TimeConvert.convertToTicks(dateTime) % 24000;
+
+        // Then
+        assertEquals(ZoneOffset.ofHours(3), dateTime.getOffset());
+        assertEquals(22500, actual);
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.antonmenov.realenvsync.weather;
+
+import io.github.antonmenov.realenvsync.utils.GeoLocation;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class WeatherCacheTest {
+
+    private static final GeoLocation SOFIA = new GeoLocation(42.6977, 23.3219);
+
+    @Test
+    void givenFetchInFlight_whenRequestingSameLocation_thenFetchIsShared() throws Exception {
+        // Given
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger fetches = new AtomicInteger();
+        final WeatherProvider provider = location -> {
+            fetches.incrementAndGet();
+            release.await();
+            return Weather.RAIN;
+        };
+
+        try (final WeatherCache cache = new WeatherCache(provider, Executors.newCachedThreadPool(),
+                Clock.systemUTC(), Duration.ofMinutes(10))) {
+            // When
+            final CompletableFuture<Weather> first = cache.get(SOFIA);
+            final CompletableFuture<Weather> second = cache.get(SOFIA);
+            release.countDown();
+
+            // Then
+            assertSame(first, second);
+            assertEquals(Weather.RAIN, first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, fetches.get());
+        }
+    }
+
+    @Test
+    void givenFreshWeather_whenRequestingAgain_thenProviderIsNotCalled() throws Exception {
+        // Given
+        final AtomicInteger fetches = new AtomicInteger();
+        final WeatherProvider provider = location -> {
+            fetches.incrementAndGet();
+            return Weather.THUNDER;
+        };
+
+        try (final WeatherCache cache = new WeatherCache(provider, Executors.newSingleThreadExecutor(),
+                Clock.systemUTC(), Duration.ofMinutes(10))) {
+            cache.get(SOFIA).get(5, TimeUnit.SECONDS);
+
+            // When
+            final Weather actual = cache.get(SOFIA).get(5, TimeUnit.SECONDS);
+
+            // Then
+            assertEquals(Weather.THUNDER, actual);
+            assertEquals(1, fetches.get());
+        }
+    }
+
+    @Test
+    void givenExpiredWeather_whenCheckingFreshness_thenNothingIsReturned()
+            throws ExecutionException, InterruptedException, TimeoutException {
+        // Given
+        final Instant fetchedAt = Instant.parse("2024-01-25T17:54:00Z");
+        final Clock[] clock = {Clock.fixed(fetchedAt, ZoneOffset.UTC)};
+        final Clock delegating = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(final ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return clock[0].instant();
+            }
+        };
+
+        try (final WeatherCache cache = new WeatherCache(new StaticWeatherProvider(Weather.CLEAR),
+                Executors.newSingleThreadExecutor(), delegating, Duration.ofMinutes(10))) {
+            cache.get(SOFIA).get(5, TimeUnit.SECONDS);
+
+            // When
+            clock[0] = Clock.fixed(fetchedAt.plus(Duration.ofMinutes(10)), ZoneOffset.UTC);
+
+            // Then
+            assertNull(cache.getIfFresh(SOFIA));
+        }
+    }
+}